@@ -2,6 +2,7 @@ plugins {
   id("java")
   id("org.jetbrains.kotlin.jvm") version "1.7.20"
   id("org.jetbrains.intellij") version "1.13.1"
+  id("me.champeau.jmh") version "0.7.2"
 }
 
 sourceSets {
@@ -16,6 +17,32 @@ sourceSets {
       srcDirs("src/main/resources")
     }
   }
+  // Headless prefetch tool. It compiles the client core from src/main/java again, without the IDE on
+  // the classpath, so an IntelliJ import creeping into those packages breaks the build.
+  create("cli") {
+    java {
+      srcDirs("src/main/java", "src/cli/java")
+      include(
+        "com/example/mavenpom/client/**",
+        "com/example/mavenpom/index/**",
+        "com/example/mavenpom/actions/MavenCoordinate.java",
+        "com/example/mavenpom/cli/**"
+      )
+    }
+    resources {
+      srcDirs("src/main/resources")
+      include("certificates/**")
+    }
+  }
+  // Tests of the prefetch tool, compiled and run against the cli classes alone rather than next to the
+  // plugin's own copy of the same packages
+  create("cliTest") {
+    java {
+      srcDirs("src/cliTest/java")
+    }
+    compileClasspath += sourceSets["cli"].output
+    runtimeClasspath += sourceSets["cli"].output
+  }
   test {
     java {
       srcDirs("src/test/java")
@@ -26,6 +53,9 @@ sourceSets {
   }
 }
 
+configurations["cliTestImplementation"].extendsFrom(configurations["cliImplementation"])
+configurations["cliTestCompileOnly"].extendsFrom(configurations["cliCompileOnly"])
+
 group = "com.example"
 version = "1.0-SNAPSHOT"
 
@@ -37,10 +67,38 @@ dependencies {
   // Add OkHttp dependency
   implementation("com.squareup.okhttp3:okhttp:4.12.0")
   
+  // Headless prefetch tool, see src/cli/java
+  "cliImplementation"("com.squareup.okhttp3:okhttp:4.12.0")
+  "cliCompileOnly"("org.jetbrains:annotations:24.0.1")
+
+  "cliTestImplementation"("org.junit.jupiter:junit-jupiter-api:5.9.2")
+  "cliTestRuntimeOnly"("org.junit.jupiter:junit-jupiter-engine:5.9.2")
+  "cliTestImplementation"("com.squareup.okhttp3:mockwebserver:4.12.0")
+
   // Add test dependencies
   testImplementation("org.junit.jupiter:junit-jupiter-api:5.9.2")
   testRuntimeOnly("org.junit.jupiter:junit-jupiter-engine:5.9.2")
   testImplementation("com.squareup.okhttp3:mockwebserver:4.12.0")
+  testImplementation("com.squareup.okhttp3:okhttp-tls:4.12.0")
+  // Signs test certificates, CRLs and OCSP responses for the revocation tests
+  testImplementation("org.bouncycastle:bcpkix-jdk15on:1.70")
+
+  // Benchmark dependencies, see src/jmh/java
+  jmh("com.squareup.okhttp3:mockwebserver:4.12.0")
+  jmh("com.squareup.okhttp3:okhttp-tls:4.12.0")
+}
+
+// Run with ./gradlew jmh, or ./gradlew jmh -Pjmh.includes=<regex> for a subset.
+// Results are written to build/results/jmh/results.json for before/after comparisons.
+jmh {
+  jmhVersion.set("1.37")
+  // Benchmarks reuse the test certificates and the IDE classes the tests run against
+  includeTests.set(true)
+  warmupIterations.set(3)
+  iterations.set(5)
+  fork.set(2)
+  resultFormat.set("JSON")
+  (project.findProperty("jmh.includes") as String?)?.let { includes.set(listOf(it)) }
 }
 
 // Configure Gradle IntelliJ Plugin
@@ -90,4 +148,40 @@ tasks {
   test {
     useJUnitPlatform()
   }
+
+  val cliTest = register<Test>("cliTest") {
+    group = "verification"
+    description = "Runs the prefetch tool tests"
+    testClassesDirs = sourceSets["cliTest"].output.classesDirs
+    classpath = sourceSets["cliTest"].runtimeClasspath
+    useJUnitPlatform()
+    shouldRunAfter(test)
+  }
+
+  check {
+    dependsOn(cliTest)
+  }
+
+  // ./gradlew prefetch --args="--system-dir <IDE system directory> coordinates.txt"
+  register<JavaExec>("prefetch") {
+    group = "application"
+    description = "Fetches POMs and metadata into the plugin caches of an IDE system directory"
+    classpath = sourceSets["cli"].runtimeClasspath
+    mainClass.set("com.example.mavenpom.cli.PrefetchCommand")
+  }
+
+  // Self-contained jar for CI agents: java -jar build/libs/java-1.0-SNAPSHOT-cli.jar --help
+  register<Jar>("cliJar") {
+    group = "build"
+    description = "Assembles the prefetch tool with its dependencies"
+    archiveClassifier.set("cli")
+    manifest {
+      attributes("Main-Class" to "com.example.mavenpom.cli.PrefetchCommand")
+    }
+    from(sourceSets["cli"].output)
+    dependsOn(configurations["cliRuntimeClasspath"])
+    from({ configurations["cliRuntimeClasspath"].map { if (it.isDirectory) it else zipTree(it) } })
+    exclude("META-INF/*.SF", "META-INF/*.DSA", "META-INF/*.RSA", "META-INF/versions/**/module-info.class")
+    duplicatesStrategy = DuplicatesStrategy.EXCLUDE
+  }
 }
@@ -0,0 +1,388 @@
+package com.example.mavenpom.cli;
+
+import com.example.mavenpom.actions.MavenCoordinate;
+import com.example.mavenpom.client.CacheStats;
+import com.example.mavenpom.client.LatencyHistogram;
+import com.example.mavenpom.client.MavenRepository;
+import com.example.mavenpom.client.PluginPaths;
+import com.example.mavenpom.client.ProxySettings;
+import com.example.mavenpom.client.RepositoryMirrors;
+import com.example.mavenpom.client.RevocationChecker;
+import com.example.mavenpom.client.SSLClient;
+import com.example.mavenpom.client.SSLClientRegistry;
+import com.example.mavenpom.index.CoordinateIndex;
+import com.example.mavenpom.index.CoordinateIndexer;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Command line entry point that warms the plugin's caches before the IDE starts, e.g. on CI agents and
+ * new development machines.
+ * <p>
+ * It reads a file of {@code groupId:artifactId:version} coordinates, one per line, and fetches the POM
+ * of each and the {@code maven-metadata.xml} of each artifact through the same {@link SSLClientRegistry}
+ * the plugin uses. Responses land in the plugin's HTTP cache and versions in its coordinate index under
+ * the given IDE system directory, so the first IDE session serves them without touching the network.
+ * Run it while the IDE is closed: the IDE owns those directories while it runs.
+ */
+public final class PrefetchCommand {
+    static final String DEFAULT_REPOSITORY_URL = "https://repo.maven.apache.org/maven2/";
+    static final int DEFAULT_PARALLELISM = 16;
+    static final Duration DEFAULT_TIMEOUT = RepositoryMirrors.DEFAULT_TIMEOUT;
+
+    private static final int EXIT_OK = 0;
+    private static final int EXIT_FAILED = 1;
+    private static final int EXIT_USAGE = 2;
+    private static final String STATUS_REQUEST_PROPERTY = "jdk.tls.client.enableStatusRequestExtension";
+    private static final String PROXY_PASSWORD_VARIABLE = "MAVENPOM_PROXY_PASSWORD";
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: prefetch [options] <coordinates-file>",
+            "  Fetches the POM and maven-metadata.xml of every groupId:artifactId:version in the file",
+            "  into the HTTP cache and coordinate index of the Maven POM Viewer plugin.",
+            "Options:",
+            "  --system-dir <dir>     IDE system directory holding the plugin caches",
+            "                         (or the " + PluginPaths.SYSTEM_PATH_PROPERTY + " system property)",
+            "  --repository <url>     repository to fetch from, repeatable, in routing order",
+            "                         (default " + DEFAULT_REPOSITORY_URL + ")",
+            "  --cert <path>          certificate bundle trusted for the repositories",
+            "  --parallelism <n>      requests in flight at once (default " + DEFAULT_PARALLELISM + ")",
+            "  --timeout <seconds>    bound for each request (default " + DEFAULT_TIMEOUT.getSeconds() + ")",
+            "  --proxy <host:port>    HTTP proxy to connect through",
+            "  --proxy-user <name>    proxy user; the password is read from " + PROXY_PASSWORD_VARIABLE);
+
+    private final RepositoryMirrors mirrors;
+    private final CoordinateIndex index;
+    private final CoordinateIndexer indexer;
+    private final int parallelism;
+    private final Duration timeout;
+
+    public PrefetchCommand(@NotNull RepositoryMirrors mirrors, @NotNull CoordinateIndex index,
+                           int parallelism, @NotNull Duration timeout) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        this.mirrors = mirrors;
+        this.index = index;
+        this.indexer = new CoordinateIndexer(index, () -> mirrors);
+        this.parallelism = parallelism;
+        this.timeout = timeout;
+    }
+
+    public static void main(String[] args) {
+        // Ask servers to staple OCSP responses so revocation checks rarely need a request of their own
+        if (System.getProperty(STATUS_REQUEST_PROPERTY) == null) {
+            System.setProperty(STATUS_REQUEST_PROPERTY, "true");
+        }
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * Runs the command with {@code args} and returns its exit code: 0 when everything was fetched,
+     * 1 when some fetches failed and 2 for invalid arguments.
+     */
+    public static int run(String[] args, PrintStream out, PrintStream err) {
+        List<String> repositoryUrls = new ArrayList<>();
+        String systemDir = null;
+        String certPath = null;
+        int parallelism = DEFAULT_PARALLELISM;
+        Duration timeout = DEFAULT_TIMEOUT;
+        Path coordinatesFile = null;
+        ProxySettings proxySettings = ProxySettings.direct();
+        String proxyUser = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                switch (arg) {
+                    case "--system-dir":
+                        systemDir = value(args, ++i, arg);
+                        break;
+                    case "--repository":
+                        repositoryUrls.add(value(args, ++i, arg));
+                        break;
+                    case "--cert":
+                        certPath = value(args, ++i, arg);
+                        break;
+                    case "--parallelism":
+                        parallelism = Integer.parseInt(value(args, ++i, arg));
+                        break;
+                    case "--timeout":
+                        timeout = Duration.ofSeconds(Long.parseLong(value(args, ++i, arg)));
+                        break;
+                    case "--proxy":
+                        proxySettings = parseProxy(value(args, ++i, arg));
+                        break;
+                    case "--proxy-user":
+                        proxyUser = value(args, ++i, arg);
+                        break;
+                    case "-h":
+                    case "--help":
+                        out.println(USAGE);
+                        return EXIT_OK;
+                    default:
+                        if (arg.startsWith("-") || coordinatesFile != null) {
+                            throw new IllegalArgumentException("Unexpected argument: " + arg);
+                        }
+                        coordinatesFile = Paths.get(arg);
+                }
+            }
+            if (coordinatesFile == null) {
+                throw new IllegalArgumentException("No coordinates file given");
+            }
+            if (parallelism < 1 || timeout.isNegative() || timeout.isZero()) {
+                throw new IllegalArgumentException("Parallelism and timeout must be positive");
+            }
+            if (proxyUser != null) {
+                if (proxySettings.getMode() == ProxySettings.Mode.DIRECT) {
+                    throw new IllegalArgumentException("--proxy-user needs --proxy");
+                }
+                proxySettings = proxySettings.withCredentials(proxyUser, System.getenv(PROXY_PASSWORD_VARIABLE));
+            }
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            err.println(USAGE);
+            return EXIT_USAGE;
+        }
+
+        List<MavenCoordinate> coordinates;
+        try {
+            coordinates = readCoordinates(coordinatesFile);
+        } catch (IOException | IllegalArgumentException e) {
+            err.println("Cannot read coordinates from " + coordinatesFile + ": " + e.getMessage());
+            return EXIT_USAGE;
+        }
+
+        if (systemDir != null) {
+            // Must be set before the registry and the index first resolve their directories
+            System.setProperty(PluginPaths.SYSTEM_PATH_PROPERTY, systemDir);
+        } else if (System.getProperty(PluginPaths.SYSTEM_PATH_PROPERTY) == null) {
+            err.println("No --system-dir given, nothing will be cached for the IDE");
+        }
+
+        if (repositoryUrls.isEmpty()) {
+            repositoryUrls.add(DEFAULT_REPOSITORY_URL);
+        }
+        List<MavenRepository> repositories = new ArrayList<>();
+        for (int i = 0; i < repositoryUrls.size(); i++) {
+            repositories.add(new MavenRepository(i == 0 ? "primary" : "mirror-" + i, repositoryUrls.get(i), certPath));
+        }
+
+        SSLClientRegistry registry = SSLClientRegistry.getInstance();
+        registry.setProxySettings(proxySettings);
+        // One dispatcher per repository, all sharing the registry's connection pool and cache
+        Map<MavenRepository, SSLClient> clients = new LinkedHashMap<>();
+        for (MavenRepository repository : repositories) {
+            SSLClient client = certPath == null ? registry.getClient() : registry.getClient(certPath);
+            clients.put(repository, client.withConcurrencyLimits(parallelism, parallelism));
+        }
+        RepositoryMirrors mirrors = new RepositoryMirrors(repositories, clients::get);
+        CoordinateIndex index = CoordinateIndex.getInstance();
+
+        try {
+            Result result = new PrefetchCommand(mirrors, index, parallelism, timeout).prefetch(coordinates);
+            index.flush();
+
+            out.println(result.formatReport());
+            out.println();
+            out.println(mirrors.formatReport());
+            out.println(registry.getNetworkTimings().formatReport());
+            CacheStats cacheStats = registry.getCacheStats();
+            out.println("HTTP cache: " + (cacheStats == null ? "unavailable" : cacheStats));
+            RevocationChecker revocation = registry.getRevocationChecker();
+            out.println("Revocation (" + revocation.getMode() + "): " + revocation.getCacheHitCount() + " cached, "
+                    + revocation.getStapledResponseCount() + " stapled, " + revocation.getNetworkFetchCount() + " fetched");
+            for (String failure : result.getFailures()) {
+                err.println("Failed: " + failure);
+            }
+            return result.getFailures().isEmpty() ? EXIT_OK : EXIT_FAILED;
+        } catch (IOException e) {
+            err.println("Could not write the coordinate index: " + e.getMessage());
+            return EXIT_FAILED;
+        } finally {
+            registry.clear();
+        }
+    }
+
+    private static ProxySettings parseProxy(String hostAndPort) {
+        int colon = hostAndPort.lastIndexOf(':');
+        if (colon <= 0 || colon == hostAndPort.length() - 1) {
+            throw new IllegalArgumentException("Expected --proxy <host:port> but got " + hostAndPort);
+        }
+        return ProxySettings.manual(Proxy.Type.HTTP, hostAndPort.substring(0, colon),
+                Integer.parseInt(hostAndPort.substring(colon + 1)), List.of());
+    }
+
+    /**
+     * Reads one {@code groupId:artifactId:version} per line, skipping blank lines and lines starting
+     * with {@code #}.
+     */
+    static List<MavenCoordinate> readCoordinates(Path file) throws IOException {
+        List<MavenCoordinate> coordinates = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String trimmed = line.trim();
+            if (!trimmed.isEmpty() && !trimmed.startsWith("#")) {
+                coordinates.add(MavenCoordinate.parse(trimmed));
+            }
+        }
+        return coordinates;
+    }
+
+    private static String value(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + option);
+        }
+        return args[index];
+    }
+
+    /**
+     * Fetches the POM of every coordinate and the metadata of every artifact, with at most
+     * {@code parallelism} fetches in flight, and waits for all of them. A failed fetch is recorded in
+     * the result, it never stops the others.
+     */
+    public Result prefetch(@NotNull Collection<MavenCoordinate> coordinates) {
+        Set<MavenCoordinate> poms = new LinkedHashSet<>(coordinates);
+        Map<String, MavenCoordinate> artifacts = new LinkedHashMap<>();
+        for (MavenCoordinate coordinate : poms) {
+            artifacts.putIfAbsent(coordinate.getGroupId() + ":" + coordinate.getArtifactId(), coordinate);
+        }
+
+        Result result = new Result();
+        Semaphore permits = new Semaphore(parallelism);
+        List<CompletableFuture<?>> fetches = new ArrayList<>(poms.size() + artifacts.size());
+        long start = System.nanoTime();
+        try {
+            for (MavenCoordinate coordinate : poms) {
+                fetches.add(launch(permits, result, coordinate + " (POM)", () ->
+                        mirrors.fetchAsync(coordinate.getPomPath(), timeout).thenApply(pom -> {
+                            index.add(coordinate.getGroupId(), coordinate.getArtifactId(), List.of(coordinate.getVersion()));
+                            return pom.getBytes(StandardCharsets.UTF_8).length;
+                        })));
+            }
+            for (Map.Entry<String, MavenCoordinate> artifact : artifacts.entrySet()) {
+                MavenCoordinate coordinate = artifact.getValue();
+                fetches.add(launch(permits, result, artifact.getKey() + " (metadata)", () ->
+                        indexer.indexArtifact(coordinate.getGroupId(), coordinate.getArtifactId()).thenApply(match -> 0)));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fetches.forEach(fetch -> fetch.cancel(true));
+            result.addFailure("interrupted, " + (poms.size() + artifacts.size() - fetches.size()) + " fetches not started");
+        }
+        CompletableFuture.allOf(fetches.toArray(new CompletableFuture[0])).handle((ignored, failure) -> null).join();
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    private static CompletableFuture<Integer> launch(Semaphore permits, Result result, String label,
+                                                     Supplier<CompletableFuture<Integer>> fetch) throws InterruptedException {
+        permits.acquire();
+        long started = System.nanoTime();
+        CompletableFuture<Integer> future;
+        try {
+            future = fetch.get();
+        } catch (RuntimeException e) {
+            permits.release();
+            result.addFailure(label + ": " + e);
+            return CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((bytes, failure) -> {
+            permits.release();
+            if (failure == null) {
+                result.record(System.nanoTime() - started, bytes);
+            } else {
+                result.addFailure(label + ": " + describe(failure));
+            }
+        });
+        return future;
+    }
+
+    private static String describe(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        return cause.getMessage() == null ? cause.getClass().getSimpleName() : cause.getMessage();
+    }
+
+    /**
+     * Counters and timings of one prefetch run.
+     */
+    public static final class Result {
+        private final AtomicInteger fetched = new AtomicInteger();
+        private final AtomicLong bytes = new AtomicLong();
+        private final LatencyHistogram latencies = new LatencyHistogram();
+        private final List<String> failures = Collections.synchronizedList(new ArrayList<>());
+        private volatile long elapsedNanos;
+
+        private Result() {
+        }
+
+        void record(long nanos, int responseBytes) {
+            latencies.record(nanos);
+            bytes.addAndGet(responseBytes);
+            fetched.incrementAndGet();
+        }
+
+        void addFailure(String failure) {
+            failures.add(failure);
+        }
+
+        /**
+         * Returns the number of POMs and metadata files fetched successfully.
+         */
+        public int getFetchedCount() {
+            return fetched.get();
+        }
+
+        /**
+         * Returns the size of the POMs fetched, in bytes; metadata is not counted.
+         */
+        public long getBytes() {
+            return bytes.get();
+        }
+
+        public List<String> getFailures() {
+            synchronized (failures) {
+                return List.copyOf(failures);
+            }
+        }
+
+        public Duration getElapsed() {
+            return Duration.ofNanos(elapsedNanos);
+        }
+
+        public LatencyHistogram getLatencies() {
+            return latencies;
+        }
+
+        public String formatReport() {
+            double seconds = Math.max(elapsedNanos, 1) / 1e9;
+            return String.format(Locale.ROOT,
+                    "Fetched %d files (%d failed) in %.2f s: %.1f files/s, %.2f MB/s of POMs%n"
+                            + "Latency per file: p50 %.1f ms, p95 %.1f ms, p99 %.1f ms",
+                    getFetchedCount(), getFailures().size(), seconds, getFetchedCount() / seconds,
+                    getBytes() / seconds / (1024 * 1024),
+                    latencies.getPercentileMillis(50), latencies.getPercentileMillis(95),
+                    latencies.getPercentileMillis(99));
+        }
+    }
+}
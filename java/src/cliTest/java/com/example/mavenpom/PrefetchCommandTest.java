@@ -0,0 +1,103 @@
+package com.example.mavenpom;
+
+import com.example.mavenpom.actions.MavenCoordinate;
+import com.example.mavenpom.cli.PrefetchCommand;
+import com.example.mavenpom.client.MavenRepository;
+import com.example.mavenpom.client.RepositoryMirrors;
+import com.example.mavenpom.client.SSLClient;
+import com.example.mavenpom.index.CoordinateIndex;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PrefetchCommandTest {
+    private static final String POM = "<project><modelVersion>4.0.0</modelVersion></project>";
+    private static final String METADATA = "<metadata><versioning><versions><version>1.0</version>"
+            + "<version>1.1</version></versions></versioning></metadata>";
+
+    @Test
+    void testPrefetchesPomsAndMetadataWithBoundedParallelism() throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        Set<String> paths = ConcurrentHashMap.newKeySet();
+        MockWebServer server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @NotNull
+            @Override
+            public MockResponse dispatch(@NotNull RecordedRequest request) throws InterruptedException {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                    String path = request.getPath();
+                    paths.add(path);
+                    if (path.endsWith("/maven-metadata.xml")) {
+                        return new MockResponse().setBody(METADATA);
+                    }
+                    if (path.contains("/missing/")) {
+                        return new MockResponse().setResponseCode(404);
+                    }
+                    return new MockResponse().setBody(POM);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            }
+        });
+        server.start();
+        try {
+            MavenRepository repository = new MavenRepository("local", server.url("/maven2/").toString(), null);
+            SSLClient client = new SSLClient();
+            RepositoryMirrors mirrors = new RepositoryMirrors(List.of(repository), ignored -> client);
+            CoordinateIndex index = new CoordinateIndex(null);
+            PrefetchCommand command = new PrefetchCommand(mirrors, index, 2, Duration.ofSeconds(10));
+
+            PrefetchCommand.Result result = command.prefetch(List.of(
+                    MavenCoordinate.parse("org.example:demo:1.0"),
+                    MavenCoordinate.parse("org.example:demo:1.1"),
+                    MavenCoordinate.parse("org.example:demo:1.1"),
+                    MavenCoordinate.parse("org.example:tools:2.0"),
+                    MavenCoordinate.parse("org.example:missing:1.0")));
+
+            // Four distinct POMs and three artifacts; the missing POM fails, its metadata does not
+            Assertions.assertEquals(6, result.getFetchedCount());
+            Assertions.assertEquals(1, result.getFailures().size(), result.getFailures().toString());
+            Assertions.assertTrue(result.getFailures().get(0).startsWith("org.example:missing:1.0 (POM)"));
+            Assertions.assertEquals(3L * POM.length(), result.getBytes());
+            Assertions.assertEquals(6, result.getLatencies().getCount());
+            Assertions.assertTrue(result.formatReport().startsWith("Fetched 6 files (1 failed)"), result.formatReport());
+            Assertions.assertTrue(paths.contains("/maven2/org/example/demo/maven-metadata.xml"));
+            Assertions.assertTrue(maxInFlight.get() <= 2, "Up to " + maxInFlight.get() + " requests in flight");
+
+            // Versions from POMs and metadata arrive in completion order
+            Assertions.assertEquals(Set.of("1.0", "1.1"), Set.copyOf(index.get("org.example", "demo").getVersions()));
+            Assertions.assertEquals(Set.of("1.0", "1.1"), Set.copyOf(index.get("org.example", "missing").getVersions()));
+            Assertions.assertEquals(Set.of("1.0", "1.1", "2.0"), Set.copyOf(index.get("org.example", "tools").getVersions()));
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    void testInvalidArgumentsPrintUsage() {
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        PrintStream errStream = new PrintStream(err, true, StandardCharsets.UTF_8);
+        PrintStream out = new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8);
+
+        Assertions.assertEquals(2, PrefetchCommand.run(new String[]{"--parallelism"}, out, errStream));
+        Assertions.assertTrue(err.toString(StandardCharsets.UTF_8).contains("Missing value for --parallelism"));
+        Assertions.assertEquals(2, PrefetchCommand.run(new String[]{}, out, errStream));
+        Assertions.assertTrue(err.toString(StandardCharsets.UTF_8).contains("Usage: prefetch"));
+    }
+}
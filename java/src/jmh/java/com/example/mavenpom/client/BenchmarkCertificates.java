@@ -0,0 +1,66 @@
+package com.example.mavenpom.client;
+
+import okhttp3.tls.HeldCertificate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Certificate material shared by the benchmarks.
+ */
+final class BenchmarkCertificates {
+    static final String BUNDLED = "bundled";
+    static final String SYNTHETIC = "synthetic-2000";
+    private static final int SYNTHETIC_SIZE = 2000;
+
+    private BenchmarkCertificates() {
+    }
+
+    /**
+     * Returns the PEM content for a benchmark parameter: the bundle shipped with the plugin, or a
+     * generated bundle the size of a corporate CA collection.
+     */
+    static byte[] bundle(String name) {
+        switch (name) {
+            case BUNDLED:
+                return SSLClient.readCertificate(SSLClient.DEFAULT_CERT_PATH);
+            case SYNTHETIC:
+                return syntheticBundle(SYNTHETIC_SIZE);
+            default:
+                throw new IllegalArgumentException("Unknown bundle: " + name);
+        }
+    }
+
+    static byte[] syntheticBundle(int count) {
+        StringBuilder pem = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            pem.append(new HeldCertificate.Builder()
+                    .certificateAuthority(0)
+                    .commonName("Synthetic CA " + i)
+                    .build()
+                    .certificatePem());
+        }
+        return pem.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    static HeldCertificate rootCertificate() {
+        return new HeldCertificate.Builder()
+                .certificateAuthority(1)
+                .commonName("Benchmark Root CA")
+                .build();
+    }
+
+    static HeldCertificate localhostCertificate(HeldCertificate issuer) {
+        try {
+            return new HeldCertificate.Builder()
+                    .commonName("localhost")
+                    .addSubjectAlternativeName("localhost")
+                    .addSubjectAlternativeName(InetAddress.getByName("localhost").getCanonicalHostName())
+                    .signedBy(issuer)
+                    .build();
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException("Cannot resolve localhost", e);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.mavenpom.client;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of resolving a certificate path with {@link SSLClient#loadCertificateStream}, one parameter per
+ * lookup strategy that can succeed first:
+ * <ul>
+ *   <li>{@code file}: an absolute path on disk, found by the first strategy.</li>
+ *   <li>{@code classpath}: the bundled resource name, found by the class loader after the file check.</li>
+ *   <li>{@code resource}: the resource name with a leading slash, which the class loader rejects and
+ *   {@link Class#getResourceAsStream} then resolves.</li>
+ * </ul>
+ * The fourth strategy strips the leading slash and asks the class loader again. Any path it would find
+ * has already been found by the third one, so it only adds cost to lookups that fail.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CertificateLookupBenchmark {
+    @Param({"file", "classpath", "resource"})
+    public String strategy;
+
+    private Path bundleFile;
+    private String certPath;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        switch (strategy) {
+            case "file":
+                bundleFile = Files.createTempFile("jmh-bundle", ".pem");
+                Files.write(bundleFile, BenchmarkCertificates.bundle(BenchmarkCertificates.BUNDLED));
+                certPath = bundleFile.toAbsolutePath().toString();
+                break;
+            case "classpath":
+                certPath = SSLClient.DEFAULT_CERT_PATH;
+                break;
+            case "resource":
+                certPath = "/" + SSLClient.DEFAULT_CERT_PATH;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown strategy: " + strategy);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (bundleFile != null) {
+            Files.deleteIfExists(bundleFile);
+        }
+    }
+
+    /**
+     * Resolves the path and reads the first byte, so lazily opened resources are really opened.
+     */
+    @Benchmark
+    public int resolve() throws IOException {
+        try (InputStream in = SSLClient.loadCertificateStream(certPath)) {
+            return in.read();
+        }
+    }
+}
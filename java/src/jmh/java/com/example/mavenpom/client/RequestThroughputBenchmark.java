@@ -0,0 +1,101 @@
+package com.example.mavenpom.client;
+
+import okhttp3.Protocol;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.tls.HandshakeCertificates;
+import okhttp3.tls.HeldCertificate;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link SSLClient#makeRequest} against a local HTTPS server, from one thread and from
+ * eight threads sharing the client. The server answers every request with the same small POM, so
+ * the numbers reflect the client's per-request overhead and connection handling, not the network.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RequestThroughputBenchmark {
+    private static final String POM = "<project><modelVersion>4.0.0</modelVersion>"
+            + "<groupId>org.example</groupId><artifactId>demo</artifactId><version>1.0</version></project>";
+
+    @Param({"http/1.1", "h2"})
+    public String protocol;
+
+    private MockWebServer server;
+    private SSLClient client;
+    private String url;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        HeldCertificate root = BenchmarkCertificates.rootCertificate();
+        HeldCertificate serverCertificate = BenchmarkCertificates.localhostCertificate(root);
+
+        server = new MockWebServer();
+        server.setServerSocketFactory(new NoDelayServerSocketFactory());
+        server.useHttps(new HandshakeCertificates.Builder()
+                .heldCertificate(serverCertificate)
+                .build()
+                .sslSocketFactory(), false);
+        server.setProtocols(List.of(Protocol.get(protocol), Protocol.HTTP_1_1));
+        server.setDispatcher(new Dispatcher() {
+            @NotNull
+            @Override
+            public MockResponse dispatch(@NotNull RecordedRequest request) {
+                return new MockResponse().setBody(POM);
+            }
+        });
+        server.start();
+
+        byte[] trusted = root.certificatePem().getBytes(StandardCharsets.US_ASCII);
+        client = new SSLClient("benchmark-root.pem", trusted, null, TrustStoreLoader.NO_SNAPSHOT, new NetworkTimings(),
+                RevocationChecker.getDefault(), null);
+        url = server.url("/org/example/demo/1.0/demo-1.0.pom").toString();
+    }
+
+    /**
+     * MockWebServer keeps every request it received; drop them so memory use stays flat.
+     */
+    @TearDown(Level.Iteration)
+    public void drainRecordedRequests() throws InterruptedException {
+        while (server.takeRequest(0, TimeUnit.MILLISECONDS) != null) {
+            // Discard
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        client.close();
+        server.shutdown();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String singleThreaded() throws IOException {
+        return client.makeRequest(url);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String multiThreaded() throws IOException {
+        return client.makeRequest(url);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.mavenpom.client;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Cost of building an {@link SSLClient}: parsing the bundle, filling the trust store, initializing the
+ * trust manager factory and {@link javax.net.ssl.SSLContext}, and building the OkHttp client.
+ * <p>
+ * The bundle content is read once per trial so file system noise stays out of the numbers; the
+ * clients are created under a label that is not a file, so no bundle watcher is started.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SSLClientConstructionBenchmark {
+    @Param({BenchmarkCertificates.BUNDLED, BenchmarkCertificates.SYNTHETIC})
+    public String bundle;
+
+    private byte[] content;
+    private Path snapshotDirectory;
+    private TrustStoreLoader snapshotLoader;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        content = BenchmarkCertificates.bundle(bundle);
+        snapshotDirectory = Files.createTempDirectory("jmh-truststore");
+        snapshotLoader = new TrustStoreLoader(snapshotDirectory);
+        // Write the snapshot up front so every measured call reads it
+        snapshotLoader.load(content, bundle);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(snapshotDirectory)) {
+            for (Path path : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public SSLClient parseBundle() {
+        return new SSLClient(bundle + ".pem", content, null, TrustStoreLoader.NO_SNAPSHOT, new NetworkTimings(),
+                RevocationChecker.getDefault(), null);
+    }
+
+    @Benchmark
+    public SSLClient loadSnapshot() {
+        return new SSLClient(bundle + ".pem", content, null, snapshotLoader, new NetworkTimings(),
+                RevocationChecker.getDefault(), null);
+    }
+}
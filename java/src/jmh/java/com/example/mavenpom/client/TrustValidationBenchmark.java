@@ -0,0 +1,64 @@
+package com.example.mavenpom.client;
+
+import okhttp3.tls.HandshakeCertificates;
+import okhttp3.tls.HeldCertificate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import javax.net.ssl.X509ExtendedTrustManager;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server chain validation with full PKIX path building against a {@link CachingTrustManager} hit,
+ * i.e. what each new TLS connection to a known host costs with and without the cache. The unit tests
+ * only check that hits skip the delegate; the saving itself is measured here.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TrustValidationBenchmark {
+    private static final String AUTH_TYPE = "ECDHE_ECDSA";
+
+    private X509ExtendedTrustManager pkix;
+    private CachingTrustManager cached;
+    private X509Certificate[] chain;
+
+    @Setup(Level.Trial)
+    public void setUp() throws CertificateException {
+        HeldCertificate root = BenchmarkCertificates.rootCertificate();
+        HeldCertificate intermediate = new HeldCertificate.Builder()
+                .certificateAuthority(0)
+                .commonName("Benchmark Intermediate CA")
+                .signedBy(root)
+                .build();
+        HeldCertificate leaf = BenchmarkCertificates.localhostCertificate(intermediate);
+        chain = new X509Certificate[]{leaf.certificate(), intermediate.certificate()};
+
+        pkix = (X509ExtendedTrustManager) new HandshakeCertificates.Builder()
+                .addTrustedCertificate(root.certificate())
+                .build()
+                .trustManager();
+        cached = new CachingTrustManager(pkix);
+        cached.checkServerTrusted(chain, AUTH_TYPE);
+    }
+
+    @Benchmark
+    public X509Certificate[] fullValidation() throws CertificateException {
+        pkix.checkServerTrusted(chain, AUTH_TYPE);
+        return chain;
+    }
+
+    @Benchmark
+    public X509Certificate[] cachedValidation() throws CertificateException {
+        cached.checkServerTrusted(chain, AUTH_TYPE);
+        return chain;
+    }
+}
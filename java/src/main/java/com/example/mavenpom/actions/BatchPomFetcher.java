@@ -0,0 +1,165 @@
+package com.example.mavenpom.actions;
+
+import com.example.mavenpom.client.HttpResponseException;
+import com.example.mavenpom.client.MavenRepository;
+import com.example.mavenpom.client.RepositoryMirrors;
+import com.example.mavenpom.client.SSLClient;
+import com.intellij.openapi.diagnostic.Logger;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Fetches the POMs of many coordinates concurrently.
+ * <p>
+ * All requests are handed to OkHttp at once and its dispatcher enforces the concurrency limits, so the
+ * batch runs over the shared connection pool of the underlying {@link SSLClient}: HTTP/2 multiplexes
+ * the requests over one connection where the repository supports it, and keep-alive connections are
+ * reused otherwise. Either way the TLS handshake is paid a handful of times, not once per POM.
+ * <p>
+ * Given {@link RepositoryMirrors}, every POM is asked of the best ranked repository first. Hedging each
+ * request would double the load of a batch, but a POM that repository does not have, or fails to
+ * serve, is fetched again from the next one in the ranking.
+ */
+public class BatchPomFetcher {
+    private static final Logger LOG = Logger.getInstance(BatchPomFetcher.class);
+
+    public static final String MAVEN_CENTRAL_URL = "https://repo.maven.apache.org/maven2/";
+    public static final int DEFAULT_MAX_REQUESTS = 64;
+    public static final int DEFAULT_MAX_REQUESTS_PER_HOST = 16;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    /** Repositories in the order they are tried, each with a client limited to this batch's concurrency. */
+    private final List<SSLClient> clients = new ArrayList<>();
+    private final List<String> repositoryUrls = new ArrayList<>();
+
+    public BatchPomFetcher(@NotNull SSLClient sslClient, @NotNull String repositoryUrl) {
+        this(sslClient, repositoryUrl, DEFAULT_MAX_REQUESTS, DEFAULT_MAX_REQUESTS_PER_HOST);
+    }
+
+    public BatchPomFetcher(@NotNull SSLClient sslClient, @NotNull String repositoryUrl,
+                           int maxRequests, int maxRequestsPerHost) {
+        checkLimits(maxRequests, maxRequestsPerHost);
+        clients.add(sslClient.withConcurrencyLimits(maxRequests, maxRequestsPerHost));
+        repositoryUrls.add(repositoryUrl);
+    }
+
+    /**
+     * Fetches from the repositories of {@code mirrors} in their current ranking.
+     */
+    public BatchPomFetcher(@NotNull RepositoryMirrors mirrors) {
+        this(mirrors, DEFAULT_MAX_REQUESTS, DEFAULT_MAX_REQUESTS_PER_HOST);
+    }
+
+    public BatchPomFetcher(@NotNull RepositoryMirrors mirrors, int maxRequests, int maxRequestsPerHost) {
+        checkLimits(maxRequests, maxRequestsPerHost);
+        for (MavenRepository repository : mirrors.rank()) {
+            clients.add(mirrors.getClient(repository).withConcurrencyLimits(maxRequests, maxRequestsPerHost));
+            repositoryUrls.add(repository.getUrl());
+        }
+    }
+
+    private static void checkLimits(int maxRequests, int maxRequestsPerHost) {
+        if (maxRequests < 1 || maxRequestsPerHost < 1) {
+            throw new IllegalArgumentException("Concurrency limits must be positive");
+        }
+    }
+
+    /**
+     * Starts fetching every coordinate and reports each result to {@code onResult} as soon as it is
+     * available, in completion order. The returned future completes with all results once the last
+     * fetch has finished; a failed fetch is reported as a failed {@link PomFetchResult}, it never fails
+     * the batch. Cancelling the returned future cancels every fetch that is still pending.
+     */
+    public CompletableFuture<List<PomFetchResult>> fetchAll(@NotNull Collection<MavenCoordinate> coordinates,
+                                                           @NotNull Consumer<PomFetchResult> onResult) {
+        Set<MavenCoordinate> unique = new LinkedHashSet<>(coordinates);
+        LOG.info("Fetching " + unique.size() + " POMs from " + String.join(", ", repositoryUrls));
+
+        List<PomFetchResult> results = Collections.synchronizedList(new ArrayList<>(unique.size()));
+        CompletableFuture<List<PomFetchResult>> batch = new CompletableFuture<>();
+        if (unique.isEmpty()) {
+            batch.complete(results);
+            return batch;
+        }
+
+        AtomicInteger remaining = new AtomicInteger(unique.size());
+        List<CompletableFuture<String>> pending = new ArrayList<>(unique.size());
+        for (MavenCoordinate coordinate : unique) {
+            CompletableFuture<String> fetch = new CompletableFuture<>();
+            fetchFrom(0, coordinate, fetch, null);
+            pending.add(fetch);
+            fetch.whenComplete((content, error) -> {
+                PomFetchResult result = error == null
+                    ? PomFetchResult.success(coordinate, content)
+                    : PomFetchResult.failure(coordinate, unwrap(error));
+                results.add(result);
+                try {
+                    onResult.accept(result);
+                } catch (RuntimeException e) {
+                    LOG.warn("Result listener failed for " + coordinate, e);
+                }
+                if (remaining.decrementAndGet() == 0) {
+                    batch.complete(new ArrayList<>(results));
+                }
+            });
+        }
+
+        batch.whenComplete((all, error) -> {
+            if (batch.isCancelled()) {
+                pending.forEach(fetch -> fetch.cancel(true));
+            }
+        });
+        return batch;
+    }
+
+    /**
+     * Asks the repository at {@code index} for the POM of {@code coordinate}, moving on to the next one
+     * when it fails. Cancelling {@code result} cancels the request in flight.
+     */
+    private void fetchFrom(int index, MavenCoordinate coordinate, CompletableFuture<String> result, Throwable previous) {
+        CompletableFuture<String> attempt;
+        try {
+            attempt = clients.get(index).makeRequestAsync(coordinate.getPomUrl(repositoryUrls.get(index)), REQUEST_TIMEOUT);
+        } catch (RuntimeException e) {
+            attempt = CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<String> started = attempt;
+        result.whenComplete((content, error) -> started.cancel(true));
+        started.whenComplete((content, error) -> {
+            if (error == null) {
+                result.complete(content);
+                return;
+            }
+            Throwable cause = unwrap(error);
+            // Report a real failure in preference to "not found" from another repository
+            Throwable reported = previous == null || (isNotFound(previous) && !isNotFound(cause)) ? cause : previous;
+            if (result.isDone() || cause instanceof CancellationException || index + 1 >= clients.size()) {
+                result.completeExceptionally(reported);
+                return;
+            }
+            LOG.debug("Fetching " + coordinate + " from " + repositoryUrls.get(index) + " failed (" + cause.getMessage()
+                + "), trying " + repositoryUrls.get(index + 1));
+            fetchFrom(index + 1, coordinate, result, reported);
+        });
+    }
+
+    private static boolean isNotFound(Throwable error) {
+        return error instanceof HttpResponseException && ((HttpResponseException) error).isNotFound();
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.mavenpom.actions;
+
+import com.example.mavenpom.client.RepositoryMirrors;
+import com.example.mavenpom.client.SSLClient;
+import com.intellij.openapi.diagnostic.Logger;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Builds effective POM models by following {@code <parent>} links and {@code import}-scoped BOMs.
+ * <p>
+ * Every POM is fetched and parsed at most once per resolver, and every effective model is computed
+ * at most once, so shared ancestors such as {@code org.apache:apache} or the Spring BOMs cost one
+ * request for the whole session. Concurrent lookups of the same POM wait for the single fetch in
+ * progress. Failed fetches are not remembered and are retried on the next lookup.
+ * <p>
+ * The merge follows Maven's rules where it matters for dependency lists: children override their
+ * parents, explicit management overrides imported BOMs, earlier BOM imports win over later ones, and
+ * {@code ${...}} references are interpolated from the merged properties.
+ */
+public class EffectivePomResolver {
+    private static final Logger LOG = Logger.getInstance(EffectivePomResolver.class);
+    private static final Pattern PROPERTY_REFERENCE = Pattern.compile("\\$\\{([^}]+)}");
+    private static final int MAX_INTERPOLATION_DEPTH = 10;
+
+    private final PomSource source;
+    private final ConcurrentMap<MavenCoordinate, CompletableFuture<PomModel>> rawModels = new ConcurrentHashMap<>();
+    private final ConcurrentMap<MavenCoordinate, PomModel> effectiveModels = new ConcurrentHashMap<>();
+
+    public EffectivePomResolver(@NotNull SSLClient sslClient, @NotNull String repositoryUrl) {
+        this(() -> sslClient, repositoryUrl);
+    }
+
+    /**
+     * @param clientSupplier looked up for every fetch, so a registry-managed client that gets replaced
+     *                       after a certificate change is picked up
+     */
+    public EffectivePomResolver(@NotNull Supplier<SSLClient> clientSupplier, @NotNull String repositoryUrl) {
+        this(coordinate -> clientSupplier.get().makeRequest(coordinate.getPomUrl(repositoryUrl)));
+    }
+
+    /**
+     * Resolves against mirrored repositories, each POM coming from whichever answers first.
+     *
+     * @param mirrorsSupplier looked up for every fetch, so a changed repository configuration is picked up
+     */
+    public EffectivePomResolver(@NotNull Supplier<RepositoryMirrors> mirrorsSupplier) {
+        this(coordinate -> mirrorsSupplier.get().fetch(coordinate.getPomPath()));
+    }
+
+    private EffectivePomResolver(PomSource source) {
+        this.source = source;
+    }
+
+    /**
+     * Returns the effective model of {@code coordinate}, with inherited and managed versions and scopes
+     * filled in on its dependencies.
+     */
+    public PomModel resolve(@NotNull MavenCoordinate coordinate) throws IOException {
+        return resolve(coordinate, new HashSet<>());
+    }
+
+    /**
+     * Returns the model of the POM exactly as published, fetching it if this resolver has not seen it yet.
+     */
+    public PomModel getRawModel(@NotNull MavenCoordinate coordinate) throws IOException {
+        CompletableFuture<PomModel> created = new CompletableFuture<>();
+        CompletableFuture<PomModel> existing = rawModels.putIfAbsent(coordinate, created);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        try {
+            String content = source.fetch(coordinate);
+            created.complete(PomParser.parse(content));
+        } catch (IOException | RuntimeException e) {
+            rawModels.remove(coordinate, created);
+            created.completeExceptionally(e);
+            throw e;
+        }
+        return created.join();
+    }
+
+    public int getCachedModelCount() {
+        return rawModels.size();
+    }
+
+    private PomModel resolve(MavenCoordinate coordinate, Set<MavenCoordinate> inProgress) throws IOException {
+        PomModel cached = effectiveModels.get(coordinate);
+        if (cached != null) {
+            return cached;
+        }
+        if (!inProgress.add(coordinate)) {
+            throw new IOException("Cycle in parent or BOM chain at " + coordinate);
+        }
+
+        try {
+            PomModel effective = buildEffective(getRawModel(coordinate), inProgress);
+            PomModel previous = effectiveModels.putIfAbsent(coordinate, effective);
+            return previous != null ? previous : effective;
+        } finally {
+            inProgress.remove(coordinate);
+        }
+    }
+
+    private PomModel buildEffective(PomModel raw, Set<MavenCoordinate> inProgress) throws IOException {
+        PomModel parent = raw.getParent() == null ? null : resolve(raw.getParent(), inProgress);
+
+        Map<String, String> properties = new LinkedHashMap<>();
+        if (parent != null) {
+            properties.putAll(parent.getProperties());
+            properties.put("project.parent.groupId", parent.getCoordinate().getGroupId());
+            properties.put("project.parent.artifactId", parent.getCoordinate().getArtifactId());
+            properties.put("project.parent.version", parent.getCoordinate().getVersion());
+        }
+        properties.putAll(raw.getProperties());
+        properties.put("project.groupId", raw.getCoordinate().getGroupId());
+        properties.put("project.artifactId", raw.getCoordinate().getArtifactId());
+        properties.put("project.version", raw.getCoordinate().getVersion());
+
+        Map<String, PomDependency> managed = new LinkedHashMap<>();
+        if (parent != null) {
+            parent.getDependencyManagement().forEach(d -> managed.put(d.getManagementKey(), d));
+        }
+        List<PomDependency> imports = new ArrayList<>();
+        for (PomDependency declared : raw.getDependencyManagement()) {
+            PomDependency dependency = declared.interpolate(value -> interpolate(value, properties));
+            if (dependency.isBomImport()) {
+                imports.add(dependency);
+            } else {
+                managed.put(dependency.getManagementKey(), dependency);
+            }
+        }
+        for (PomDependency bomImport : imports) {
+            MavenCoordinate bom = bomImport.toCoordinate();
+            if (bom == null) {
+                LOG.warn("Skipping BOM import without version: " + bomImport);
+                continue;
+            }
+            for (PomDependency fromBom : resolve(bom, inProgress).getDependencyManagement()) {
+                managed.putIfAbsent(fromBom.getManagementKey(), fromBom);
+            }
+        }
+
+        Map<String, PomDependency> dependencies = new LinkedHashMap<>();
+        if (parent != null) {
+            parent.getDependencies().forEach(d -> dependencies.put(d.getManagementKey(), d));
+        }
+        for (PomDependency declared : raw.getDependencies()) {
+            PomDependency dependency = declared.interpolate(value -> interpolate(value, properties));
+            dependencies.put(dependency.getManagementKey(), dependency);
+        }
+        List<PomDependency> resolved = new ArrayList<>(dependencies.size());
+        for (PomDependency dependency : dependencies.values()) {
+            resolved.add(dependency.withManagement(managed.get(dependency.getManagementKey())));
+        }
+
+        return new PomModel(raw.getCoordinate(), raw.getPackaging(), raw.getParent(), properties,
+            new ArrayList<>(managed.values()), resolved);
+    }
+
+    static String interpolate(String value, Map<String, String> properties) {
+        if (value == null || value.indexOf('$') < 0) {
+            return value;
+        }
+        String result = value;
+        for (int depth = 0; depth < MAX_INTERPOLATION_DEPTH && result.contains("${"); depth++) {
+            Matcher matcher = PROPERTY_REFERENCE.matcher(result);
+            StringBuilder interpolated = new StringBuilder();
+            boolean replaced = false;
+            while (matcher.find()) {
+                String replacement = properties.get(matcher.group(1));
+                if (replacement != null) {
+                    replaced = true;
+                }
+                matcher.appendReplacement(interpolated,
+                    Matcher.quoteReplacement(replacement != null ? replacement : matcher.group()));
+            }
+            matcher.appendTail(interpolated);
+            result = interpolated.toString();
+            if (!replaced) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private static PomModel await(CompletableFuture<PomModel> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        }
+    }
+
+    @FunctionalInterface
+    private interface PomSource {
+        String fetch(MavenCoordinate coordinate) throws IOException;
+    }
+}
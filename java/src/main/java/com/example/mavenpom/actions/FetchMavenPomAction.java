@@ -1,18 +1,115 @@
 package com.example.mavenpom.actions;
 
-import com.example.mavenpom.client.SSLClient;
+import com.example.mavenpom.client.ArtifactDownloader;
+import com.example.mavenpom.client.DownloadResult;
+import com.example.mavenpom.client.HttpResponseException;
+import com.example.mavenpom.client.MavenRepository;
+import com.example.mavenpom.client.RepositoryMirrors;
+import com.example.mavenpom.index.CoordinateIndex;
+import com.example.mavenpom.settings.MavenRepositorySettings;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
 public class FetchMavenPomAction {
     private static final Logger LOG = Logger.getInstance(FetchMavenPomAction.class);
-    private static final String MAVEN_POM_URL = 
-        "https://repo.maven.apache.org/maven2/org/apache/maven/plugins/maven-clean-plugin/2.5/maven-clean-plugin-2.5.pom";
+    public static final MavenCoordinate MAVEN_POM_COORDINATE =
+        MavenCoordinate.parse("org.apache.maven.plugins:maven-clean-plugin:2.5");
+    private static final Duration FETCH_TIMEOUT = Duration.ofSeconds(30);
+    // Shared so parents and BOMs are fetched once per IDE session, across projects and tool windows
+    private static final EffectivePomResolver POM_RESOLVER = new EffectivePomResolver(
+        () -> MavenRepositorySettings.getInstance().getMirrors());
 
     public String fetchPom(@NotNull Project project) throws Exception {
         LOG.info("Fetching Maven POM for project: " + project.getName());
-        SSLClient sslClient = new SSLClient();
-        return sslClient.makeRequest(MAVEN_POM_URL);
+        return MavenRepositorySettings.getInstance().getMirrors().fetch(MAVEN_POM_COORDINATE.getPomPath());
+    }
+
+    public CompletableFuture<String> fetchPomAsync(@NotNull Project project) {
+        return fetchPomAsync(project, MAVEN_POM_COORDINATE);
+    }
+
+    /**
+     * Fetches the POM of {@code coordinate}. Coordinates that turn out to exist are added to the
+     * {@link CoordinateIndex}, so they are suggested from then on.
+     */
+    public CompletableFuture<String> fetchPomAsync(@NotNull Project project, @NotNull MavenCoordinate coordinate) {
+        LOG.info("Fetching Maven POM of " + coordinate + " asynchronously for project: " + project.getName());
+        CompletableFuture<String> fetch =
+            MavenRepositorySettings.getInstance().getMirrors().fetchAsync(coordinate.getPomPath(), FETCH_TIMEOUT);
+        // A side effect rather than a dependent future, so cancelling the returned future still cancels the fetch
+        fetch.whenComplete((pom, failure) -> {
+            if (failure == null) {
+                CoordinateIndex.getInstance().add(coordinate.getGroupId(), coordinate.getArtifactId(),
+                    List.of(coordinate.getVersion()));
+            }
+        });
+        return fetch;
+    }
+
+    /**
+     * Streams the POM of {@code coordinate} to {@code chunkConsumer} as it arrives, at most
+     * {@code maxChars} characters at a time, stopping once the consumer returns {@code false}. Like
+     * {@link #fetchPomAsync(Project, MavenCoordinate)}, a coordinate that turns out to exist is indexed.
+     *
+     * @return the number of characters streamed
+     */
+    public CompletableFuture<Long> streamPomAsync(@NotNull Project project, @NotNull MavenCoordinate coordinate,
+                                                  int maxChars, @NotNull Predicate<String> chunkConsumer) {
+        LOG.info("Streaming Maven POM of " + coordinate + " for project: " + project.getName());
+        CompletableFuture<Long> stream =
+            MavenRepositorySettings.getInstance().getMirrors().streamAsync(coordinate.getPomPath(), maxChars, chunkConsumer);
+        stream.whenComplete((chars, failure) -> {
+            if (failure == null) {
+                CoordinateIndex.getInstance().add(coordinate.getGroupId(), coordinate.getArtifactId(),
+                    List.of(coordinate.getVersion()));
+            }
+        });
+        return stream;
+    }
+
+    public CompletableFuture<List<PomFetchResult>> fetchPoms(@NotNull Project project,
+                                                            @NotNull Collection<MavenCoordinate> coordinates,
+                                                            @NotNull Consumer<PomFetchResult> onResult) {
+        LOG.info("Fetching " + coordinates.size() + " Maven POMs for project: " + project.getName());
+        // Batches go to the best ranked repository and only fall back per POM; hedging every request would double the load
+        return new BatchPomFetcher(MavenRepositorySettings.getInstance().getMirrors()).fetchAll(coordinates, onResult);
+    }
+
+    /**
+     * Downloads the {@code extension} artifact of {@code coordinate}, e.g. its {@code jar}, from the
+     * best ranked repository that has it.
+     */
+    public DownloadResult downloadArtifact(@NotNull Project project, @NotNull MavenCoordinate coordinate,
+                                           @NotNull String extension, @NotNull Path target) throws IOException {
+        LOG.info("Downloading " + extension + " of " + coordinate + " for project: " + project.getName());
+        RepositoryMirrors mirrors = MavenRepositorySettings.getInstance().getMirrors();
+        IOException notFound = new IOException("no repositories configured");
+        for (MavenRepository repository : mirrors.rank()) {
+            try {
+                return new ArtifactDownloader(mirrors.getClient(repository))
+                    .download(repository.resolve(coordinate.getArtifactPath(extension)), target);
+            } catch (HttpResponseException e) {
+                if (!e.isNotFound()) {
+                    throw e;
+                }
+                notFound = e;
+            }
+        }
+        throw notFound;
+    }
+
+    public PomModel resolveEffectivePom(@NotNull Project project, @NotNull MavenCoordinate coordinate) throws IOException {
+        LOG.info("Resolving effective POM of " + coordinate + " for project: " + project.getName());
+        return POM_RESOLVER.resolve(coordinate);
     }
-} 
\ No newline at end of file
+} 
\ No newline at end of file
@@ -0,0 +1,87 @@
+package com.example.mavenpom.actions;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+
+/**
+ * A {@code groupId:artifactId:version} triple and the repository layout paths derived from it.
+ */
+public final class MavenCoordinate {
+    private final String groupId;
+    private final String artifactId;
+    private final String version;
+
+    public MavenCoordinate(@NotNull String groupId, @NotNull String artifactId, @NotNull String version) {
+        if (groupId.isEmpty() || artifactId.isEmpty() || version.isEmpty()) {
+            throw new IllegalArgumentException(
+                "Coordinate parts cannot be empty: " + groupId + ":" + artifactId + ":" + version);
+        }
+        this.groupId = groupId;
+        this.artifactId = artifactId;
+        this.version = version;
+    }
+
+    public static MavenCoordinate parse(@NotNull String coordinate) {
+        String[] parts = coordinate.trim().split(":");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Expected groupId:artifactId:version but got: " + coordinate);
+        }
+        return new MavenCoordinate(parts[0].trim(), parts[1].trim(), parts[2].trim());
+    }
+
+    public String getGroupId() {
+        return groupId;
+    }
+
+    public String getArtifactId() {
+        return artifactId;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public boolean isSnapshot() {
+        return version.endsWith("-SNAPSHOT");
+    }
+
+    /**
+     * Path of the POM relative to a repository root, e.g.
+     * {@code org/apache/maven/plugins/maven-clean-plugin/2.5/maven-clean-plugin-2.5.pom}.
+     */
+    public String getPomPath() {
+        return getArtifactPath("pom");
+    }
+
+    public String getArtifactPath(@NotNull String extension) {
+        return groupId.replace('.', '/') + "/" + artifactId + "/" + version + "/"
+            + artifactId + "-" + version + "." + extension;
+    }
+
+    public String getPomUrl(@NotNull String repositoryUrl) {
+        return repositoryUrl.endsWith("/") ? repositoryUrl + getPomPath() : repositoryUrl + "/" + getPomPath();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MavenCoordinate)) {
+            return false;
+        }
+        MavenCoordinate that = (MavenCoordinate) o;
+        return groupId.equals(that.groupId) && artifactId.equals(that.artifactId) && version.equals(that.version);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(groupId, artifactId, version);
+    }
+
+    @Override
+    public String toString() {
+        return groupId + ":" + artifactId + ":" + version;
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.mavenpom.actions;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+
+/**
+ * A {@code <dependency>} entry from a POM, either under {@code <dependencies>} or
+ * {@code <dependencyManagement>}. Version and scope may be missing until management is applied.
+ */
+public final class PomDependency {
+    private final String groupId;
+    private final String artifactId;
+    private final String version;
+    private final String type;
+    private final String classifier;
+    private final String scope;
+    private final boolean optional;
+
+    public PomDependency(@NotNull String groupId, @NotNull String artifactId, @Nullable String version,
+                         @Nullable String type, @Nullable String classifier, @Nullable String scope,
+                         boolean optional) {
+        this.groupId = groupId;
+        this.artifactId = artifactId;
+        this.version = version;
+        this.type = type == null ? "jar" : type;
+        this.classifier = classifier;
+        this.scope = scope;
+        this.optional = optional;
+    }
+
+    @NotNull
+    public String getGroupId() {
+        return groupId;
+    }
+
+    @NotNull
+    public String getArtifactId() {
+        return artifactId;
+    }
+
+    @Nullable
+    public String getVersion() {
+        return version;
+    }
+
+    @NotNull
+    public String getType() {
+        return type;
+    }
+
+    @Nullable
+    public String getClassifier() {
+        return classifier;
+    }
+
+    @Nullable
+    public String getScope() {
+        return scope;
+    }
+
+    public boolean isOptional() {
+        return optional;
+    }
+
+    /**
+     * True for a {@code <scope>import</scope>} BOM entry in {@code <dependencyManagement>}.
+     */
+    public boolean isBomImport() {
+        return "import".equals(scope) && "pom".equals(type);
+    }
+
+    /**
+     * The identity Maven uses to match a dependency with its managed counterpart:
+     * {@code groupId:artifactId:type[:classifier]}.
+     */
+    @NotNull
+    public String getManagementKey() {
+        String key = groupId + ":" + artifactId + ":" + type;
+        return classifier == null ? key : key + ":" + classifier;
+    }
+
+    @Nullable
+    public MavenCoordinate toCoordinate() {
+        if (version == null || version.isEmpty()) {
+            return null;
+        }
+        return new MavenCoordinate(groupId, artifactId, version);
+    }
+
+    PomDependency interpolate(UnaryOperator<String> interpolator) {
+        return new PomDependency(interpolator.apply(groupId), interpolator.apply(artifactId),
+            version == null ? null : interpolator.apply(version), interpolator.apply(type),
+            classifier == null ? null : interpolator.apply(classifier),
+            scope == null ? null : interpolator.apply(scope), optional);
+    }
+
+    /**
+     * Fills in the version and scope from the managed declaration where this one leaves them out.
+     */
+    PomDependency withManagement(@Nullable PomDependency managed) {
+        if (managed == null || (version != null && scope != null)) {
+            return this;
+        }
+        return new PomDependency(groupId, artifactId, version != null ? version : managed.version,
+            type, classifier, scope != null ? scope : managed.scope, optional);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PomDependency)) {
+            return false;
+        }
+        PomDependency that = (PomDependency) o;
+        return optional == that.optional && groupId.equals(that.groupId) && artifactId.equals(that.artifactId)
+            && Objects.equals(version, that.version) && type.equals(that.type)
+            && Objects.equals(classifier, that.classifier) && Objects.equals(scope, that.scope);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(groupId, artifactId, version, type, classifier, scope, optional);
+    }
+
+    @Override
+    public String toString() {
+        String id = groupId + ":" + artifactId + ":" + (version == null ? "?" : version);
+        return scope == null ? id : id + " (" + scope + ")";
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.mavenpom.actions;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Outcome of fetching a single POM as part of a batch: either its content or the error that stopped it.
+ */
+public final class PomFetchResult {
+    private final MavenCoordinate coordinate;
+    private final String content;
+    private final Throwable error;
+
+    private PomFetchResult(MavenCoordinate coordinate, String content, Throwable error) {
+        this.coordinate = coordinate;
+        this.content = content;
+        this.error = error;
+    }
+
+    static PomFetchResult success(@NotNull MavenCoordinate coordinate, @NotNull String content) {
+        return new PomFetchResult(coordinate, content, null);
+    }
+
+    static PomFetchResult failure(@NotNull MavenCoordinate coordinate, @NotNull Throwable error) {
+        return new PomFetchResult(coordinate, null, error);
+    }
+
+    @NotNull
+    public MavenCoordinate getCoordinate() {
+        return coordinate;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    @Nullable
+    public String getContent() {
+        return content;
+    }
+
+    @Nullable
+    public Throwable getError() {
+        return error;
+    }
+}
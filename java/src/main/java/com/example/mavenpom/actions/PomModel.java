@@ -0,0 +1,72 @@
+package com.example.mavenpom.actions;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The parts of a POM needed to work out its dependencies: coordinates, parent, properties,
+ * dependency management and dependencies. Instances are immutable.
+ * <p>
+ * {@link PomParser} produces the raw model of a single file; {@link EffectivePomResolver} produces an
+ * effective model where inheritance, BOM imports and property interpolation have been applied.
+ */
+public final class PomModel {
+    private final MavenCoordinate coordinate;
+    private final String packaging;
+    private final MavenCoordinate parent;
+    private final Map<String, String> properties;
+    private final List<PomDependency> dependencyManagement;
+    private final List<PomDependency> dependencies;
+
+    PomModel(@NotNull MavenCoordinate coordinate, @Nullable String packaging, @Nullable MavenCoordinate parent,
+             @NotNull Map<String, String> properties, @NotNull List<PomDependency> dependencyManagement,
+             @NotNull List<PomDependency> dependencies) {
+        this.coordinate = coordinate;
+        this.packaging = packaging == null ? "jar" : packaging;
+        this.parent = parent;
+        this.properties = Collections.unmodifiableMap(new LinkedHashMap<>(properties));
+        this.dependencyManagement = List.copyOf(dependencyManagement);
+        this.dependencies = List.copyOf(dependencies);
+    }
+
+    @NotNull
+    public MavenCoordinate getCoordinate() {
+        return coordinate;
+    }
+
+    @NotNull
+    public String getPackaging() {
+        return packaging;
+    }
+
+    @Nullable
+    public MavenCoordinate getParent() {
+        return parent;
+    }
+
+    @NotNull
+    public Map<String, String> getProperties() {
+        return properties;
+    }
+
+    @NotNull
+    public List<PomDependency> getDependencyManagement() {
+        return dependencyManagement;
+    }
+
+    @NotNull
+    public List<PomDependency> getDependencies() {
+        return dependencies;
+    }
+
+    @Override
+    public String toString() {
+        return coordinate + " (" + dependencies.size() + " dependencies, "
+            + dependencyManagement.size() + " managed)";
+    }
+}
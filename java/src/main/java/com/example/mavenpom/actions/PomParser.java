@@ -0,0 +1,151 @@
+package com.example.mavenpom.actions;
+
+import org.jetbrains.annotations.NotNull;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pull parser that reads a POM into a {@link PomModel} in a single pass without building a DOM.
+ * <p>
+ * Only the elements the model needs are kept; everything else, including build plugins and
+ * profiles, is skipped as it streams past. DTDs and external entities are disabled.
+ */
+public final class PomParser {
+    private static final XMLInputFactory FACTORY = createFactory();
+
+    private static final String PROJECT = "project";
+    private static final String PARENT = "project/parent";
+    private static final String PROPERTIES = "project/properties";
+    private static final String DEPENDENCY = "project/dependencies/dependency";
+    private static final String MANAGED_DEPENDENCY = "project/dependencyManagement/dependencies/dependency";
+
+    private PomParser() {
+    }
+
+    public static PomModel parse(@NotNull String content) throws IOException {
+        return parse(new StringReader(content));
+    }
+
+    public static PomModel parse(@NotNull InputStream in) throws IOException {
+        try {
+            return parse(FACTORY.createXMLStreamReader(in));
+        } catch (XMLStreamException e) {
+            throw new IOException("Malformed POM: " + e.getMessage(), e);
+        }
+    }
+
+    public static PomModel parse(@NotNull Reader in) throws IOException {
+        try {
+            return parse(FACTORY.createXMLStreamReader(in));
+        } catch (XMLStreamException e) {
+            throw new IOException("Malformed POM: " + e.getMessage(), e);
+        }
+    }
+
+    private static PomModel parse(XMLStreamReader reader) throws XMLStreamException, IOException {
+        Map<String, String> project = new HashMap<>();
+        Map<String, String> parent = new HashMap<>();
+        Map<String, String> properties = new LinkedHashMap<>();
+        List<PomDependency> dependencies = new ArrayList<>();
+        List<PomDependency> managed = new ArrayList<>();
+        Map<String, String> dependency = null;
+
+        List<String> stack = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        String path = "";
+
+        try {
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        stack.add(reader.getLocalName());
+                        path = path.isEmpty() ? reader.getLocalName() : path + "/" + reader.getLocalName();
+                        text.setLength(0);
+                        if (path.equals(DEPENDENCY) || path.equals(MANAGED_DEPENDENCY)) {
+                            dependency = new HashMap<>();
+                        }
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                        text.append(reader.getText());
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        String name = stack.remove(stack.size() - 1);
+                        String owner = stack.isEmpty() ? "" : path.substring(0, path.length() - name.length() - 1);
+                        String value = text.toString().trim();
+
+                        if (owner.equals(PROJECT)) {
+                            project.put(name, value);
+                        } else if (owner.equals(PARENT)) {
+                            parent.put(name, value);
+                        } else if (owner.equals(PROPERTIES)) {
+                            properties.put(name, value);
+                        } else if (dependency != null && (owner.equals(DEPENDENCY) || owner.equals(MANAGED_DEPENDENCY))) {
+                            dependency.put(name, value);
+                        } else if (dependency != null && path.equals(DEPENDENCY)) {
+                            addDependency(dependencies, dependency);
+                            dependency = null;
+                        } else if (dependency != null && path.equals(MANAGED_DEPENDENCY)) {
+                            addDependency(managed, dependency);
+                            dependency = null;
+                        }
+
+                        path = owner;
+                        text.setLength(0);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+
+        MavenCoordinate parentCoordinate = null;
+        if (parent.containsKey("groupId") && parent.containsKey("artifactId") && parent.containsKey("version")) {
+            parentCoordinate = new MavenCoordinate(parent.get("groupId"), parent.get("artifactId"), parent.get("version"));
+        }
+
+        // groupId and version are inherited from the parent when the POM leaves them out
+        String groupId = project.getOrDefault("groupId", parent.get("groupId"));
+        String version = project.getOrDefault("version", parent.get("version"));
+        String artifactId = project.get("artifactId");
+        if (groupId == null || artifactId == null || version == null) {
+            throw new IOException("POM does not declare groupId, artifactId and version");
+        }
+
+        return new PomModel(new MavenCoordinate(groupId, artifactId, version), project.get("packaging"),
+            parentCoordinate, properties, managed, dependencies);
+    }
+
+    private static void addDependency(List<PomDependency> target, Map<String, String> fields) {
+        String groupId = fields.get("groupId");
+        String artifactId = fields.get("artifactId");
+        if (groupId == null || artifactId == null) {
+            return;
+        }
+        target.add(new PomDependency(groupId, artifactId, fields.get("version"), fields.get("type"),
+            fields.get("classifier"), fields.get("scope"), "true".equals(fields.get("optional"))));
+    }
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+}
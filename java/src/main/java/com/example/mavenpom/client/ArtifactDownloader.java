@@ -0,0 +1,530 @@
+package com.example.mavenpom.client;
+
+import okhttp3.CacheControl;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Downloads large artifacts such as JARs with parallel HTTP range requests, resuming where an
+ * earlier attempt stopped.
+ * <ul>
+ *   <li>A {@code HEAD} request tells the length, whether the server accepts byte ranges and a
+ *   validator ({@code ETag} or {@code Last-Modified}) that every range request repeats in
+ *   {@code If-Range}. Files larger than one chunk are split into chunks fetched in parallel; anything
+ *   else is a single stream.</li>
+ *   <li>Bytes are written at their offset with positional {@link FileChannel} writes into a sibling
+ *   {@code .part} file, so chunks never wait for each other to reach the disk.</li>
+ *   <li>SHA-1 and SHA-256 are computed while the bytes stream in, see {@link OrderedDigest}. No chunk
+ *   is started more than {@code parallelism} chunks ahead of the first one still being digested,
+ *   which bounds the memory spent on out-of-order bytes to that many chunks.</li>
+ *   <li>A chunk that fails is requested again from the first byte it is missing. Chunks that completed
+ *   are recorded in a {@code .part.state} file, so a download that failed for good picks up from
+ *   there on the next call, provided the validator still matches.</li>
+ *   <li>The result is checked against the {@code .sha256} and {@code .sha1} files published next to the
+ *   artifact, which are fetched while the artifact downloads. Only a verified file is moved to the
+ *   target.</li>
+ * </ul>
+ */
+public class ArtifactDownloader {
+    private static final ClientLogger LOG = ClientLogger.getInstance(ArtifactDownloader.class);
+
+    public static final long DEFAULT_CHUNK_SIZE = 4L * 1024 * 1024;
+    public static final int DEFAULT_PARALLELISM = 4;
+    static final int MAX_ATTEMPTS = 3;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // Range offsets refer to the stored bytes, and a multi-megabyte archive has no business in the HTTP cache
+    private static final CacheControl NO_STORE = new CacheControl.Builder().noStore().build();
+    private static final Pattern CONTENT_RANGE = Pattern.compile("bytes (\\d+)-(\\d+)/(\\d+|\\*)");
+    private static final Pattern SHA1_HEX = Pattern.compile("[0-9a-fA-F]{40}");
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-fA-F]{64}");
+
+    private final SSLClient client;
+    private final long chunkSize;
+    private final int parallelism;
+
+    public ArtifactDownloader(@NotNull SSLClient client) {
+        this(client, DEFAULT_CHUNK_SIZE, DEFAULT_PARALLELISM);
+    }
+
+    public ArtifactDownloader(@NotNull SSLClient client, long chunkSize, int parallelism) {
+        if (chunkSize <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("Chunk size and parallelism must be positive");
+        }
+        this.client = client.withConcurrencyLimits(parallelism, parallelism);
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Downloads {@code url} to {@code target}, which is only replaced once the content is complete and
+     * matches the published checksums.
+     *
+     * @throws HttpResponseException if the server does not have the artifact
+     * @throws ChecksumException     if the content does not match a published checksum; the partial
+     *                               download is discarded so the next call starts over
+     */
+    public DownloadResult download(@NotNull String url, @NotNull Path target) throws IOException {
+        HttpUrl httpUrl = HttpUrl.parse(url);
+        if (httpUrl == null) {
+            throw new IllegalArgumentException("Invalid URL: " + url);
+        }
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        Path stateFile = target.resolveSibling(target.getFileName() + ".part.state");
+
+        Probe probe = probe(httpUrl);
+        CompletableFuture<String> sha256 = checksum(url + ".sha256");
+        CompletableFuture<String> sha1 = checksum(url + ".sha1");
+
+        Download download = new Download(httpUrl, probe, stateFile);
+        BitSet resumed = download.loadState(partial);
+        if (resumed.isEmpty()) {
+            Files.deleteIfExists(partial);
+        }
+        try (FileChannel channel = FileChannel.open(partial,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            download.run(channel, resumed);
+        } catch (IOException | RuntimeException e) {
+            sha256.cancel(true);
+            sha1.cancel(true);
+            throw e;
+        }
+
+        String actualSha1 = download.digest.sha1Hex();
+        String actualSha256 = download.digest.sha256Hex();
+        boolean verified;
+        try {
+            verified = verify(url, "SHA-256", awaitChecksum(sha256, SHA256_HEX), actualSha256)
+                    | verify(url, "SHA-1", awaitChecksum(sha1, SHA1_HEX), actualSha1);
+        } catch (ChecksumException e) {
+            Files.deleteIfExists(partial);
+            Files.deleteIfExists(stateFile);
+            throw e;
+        }
+        if (!verified) {
+            LOG.info("No checksum published for " + url + ", keeping it unverified");
+        }
+
+        Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.deleteIfExists(stateFile);
+        return new DownloadResult(target, download.size(), actualSha1, actualSha256, verified,
+                download.starts.length, download.resumedBytes);
+    }
+
+    private Probe probe(HttpUrl url) throws IOException {
+        Request request = new Request.Builder()
+                .url(url)
+                .head()
+                .header("Accept-Encoding", "identity")
+                .cacheControl(NO_STORE)
+                .build();
+        try (Response response = client.newCall(request).execute()) {
+            if (response.code() == 404 || response.code() == 410) {
+                throw new HttpResponseException(response.code());
+            }
+            if (!response.isSuccessful()) {
+                // Some servers refuse HEAD; the GET will tell what is wrong, if anything
+                LOG.info("HEAD " + url + " answered " + response.code() + ", downloading as a single stream");
+                return new Probe(-1, false, null);
+            }
+            String etag = response.header("ETag");
+            // A weak ETag does not promise byte-identical content, so it cannot guard a range request
+            String validator = etag != null && !etag.startsWith("W/") ? etag : response.header("Last-Modified");
+            return new Probe(parseLength(response.header("Content-Length")),
+                    "bytes".equalsIgnoreCase(response.header("Accept-Ranges")), validator);
+        }
+    }
+
+    private static long parseLength(@Nullable String contentLength) {
+        if (contentLength == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(contentLength.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Fetches a published checksum file; a missing one completes with {@code null}.
+     */
+    private CompletableFuture<String> checksum(String url) {
+        return client.makeRequestAsync(url).handle((body, failure) -> {
+            if (failure == null) {
+                return body;
+            }
+            Throwable cause = failure.getCause() != null ? failure.getCause() : failure;
+            if (!(cause instanceof HttpResponseException && ((HttpResponseException) cause).isNotFound())) {
+                LOG.info("Could not fetch " + url + ": " + cause.getMessage());
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Returns the hex digest of a checksum file, which holds either the bare digest or the digest
+     * followed by a file name, or {@code null} when there is no usable checksum.
+     */
+    @Nullable
+    private static String awaitChecksum(CompletableFuture<String> checksum, Pattern format) throws IOException {
+        String body;
+        try {
+            body = checksum.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            checksum.cancel(true);
+            throw new InterruptedIOException("Interrupted while fetching checksum");
+        } catch (ExecutionException | CancellationException e) {
+            return null;
+        }
+        if (body == null || body.isBlank()) {
+            return null;
+        }
+        String digest = body.trim().split("\\s+", 2)[0];
+        return format.matcher(digest).matches() ? digest : null;
+    }
+
+    private static boolean verify(String url, String algorithm, @Nullable String expected, String actual)
+            throws ChecksumException {
+        if (expected == null) {
+            return false;
+        }
+        if (!expected.equalsIgnoreCase(actual)) {
+            throw new ChecksumException(url, algorithm, expected.toLowerCase(), actual);
+        }
+        return true;
+    }
+
+    private static final class Probe {
+        final long length;
+        final boolean acceptsRanges;
+        @Nullable
+        final String validator;
+
+        Probe(long length, boolean acceptsRanges, @Nullable String validator) {
+            this.length = length;
+            this.acceptsRanges = acceptsRanges;
+            this.validator = validator;
+        }
+    }
+
+    /**
+     * One download of one URL. Every chunk is fetched by at most one call at a time, and
+     * {@code positions} holds the next offset each chunk needs, which is where a retry starts.
+     */
+    private final class Download {
+        final HttpUrl url;
+        final Probe probe;
+        final Path stateFile;
+        final long[] starts;
+        final long[] ends;
+        final AtomicLongArray positions;
+        final CompletableFuture<Void> finished = new CompletableFuture<>();
+        private final BitSet completed = new BitSet();
+        private final List<Call> calls = new ArrayList<>();
+        private FileChannel channel;
+        OrderedDigest digest;
+        long resumedBytes;
+        private int next;
+
+        Download(HttpUrl url, Probe probe, Path stateFile) {
+            this.url = url;
+            this.probe = probe;
+            this.stateFile = stateFile;
+            int chunks = probe.acceptsRanges && probe.length > chunkSize
+                    ? (int) ((probe.length + chunkSize - 1) / chunkSize) : 1;
+            starts = new long[chunks];
+            ends = new long[chunks];
+            for (int i = 0; i < chunks; i++) {
+                starts[i] = i * chunkSize;
+                ends[i] = i == chunks - 1 ? (probe.length >= 0 ? probe.length : Long.MAX_VALUE) : (i + 1) * chunkSize;
+            }
+            positions = new AtomicLongArray(starts);
+        }
+
+        boolean isResumable() {
+            return starts.length > 1 && probe.validator != null;
+        }
+
+        /**
+         * Returns the chunks an earlier download of the same content completed, or none when there is
+         * no such download or the content has changed since.
+         */
+        BitSet loadState(Path partial) {
+            BitSet resumed = new BitSet();
+            if (!isResumable() || !Files.exists(stateFile) || !Files.exists(partial)) {
+                return resumed;
+            }
+            Properties state = new Properties();
+            try (InputStream in = Files.newInputStream(stateFile)) {
+                state.load(in);
+                if (!url.toString().equals(state.getProperty("url"))
+                        || !probe.validator.equals(state.getProperty("validator"))
+                        || probe.length != Long.parseLong(state.getProperty("length", "-1"))
+                        || chunkSize != Long.parseLong(state.getProperty("chunkSize", "-1"))) {
+                    LOG.info("Partial download of " + url + " is for different content, starting over");
+                    return resumed;
+                }
+                for (String chunk : state.getProperty("completed", "").split(",")) {
+                    if (!chunk.isEmpty()) {
+                        resumed.set(Integer.parseInt(chunk));
+                    }
+                }
+                if (!resumed.isEmpty()
+                        && (resumed.length() > starts.length || Files.size(partial) < ends[resumed.length() - 1])) {
+                    LOG.info("Partial download of " + url + " does not match its state, starting over");
+                    resumed.clear();
+                }
+            } catch (IOException | RuntimeException e) {
+                LOG.info("Ignoring unreadable download state " + stateFile + ": " + e.getMessage());
+                resumed.clear();
+            }
+            return resumed;
+        }
+
+        void run(FileChannel channel, BitSet resumed) throws IOException {
+            this.channel = channel;
+            digest = new OrderedDigest(starts, ends, channel);
+            for (int chunk = resumed.nextSetBit(0); chunk >= 0; chunk = resumed.nextSetBit(chunk + 1)) {
+                synchronized (this) {
+                    completed.set(chunk);
+                }
+                resumedBytes += ends[chunk] - starts[chunk];
+                digest.completeOnDisk(chunk);
+            }
+            if (resumedBytes > 0) {
+                LOG.info("Resuming download of " + url + " with " + resumedBytes + " bytes already on disk");
+            }
+            if (digest.isDone()) {
+                finished.complete(null);
+            } else {
+                schedule();
+            }
+
+            try {
+                finished.get();
+            } catch (ExecutionException e) {
+                cancelCalls();
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IOException("Failed to download " + url, cause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                finished.cancel(true);
+                cancelCalls();
+                throw new InterruptedIOException("Interrupted while downloading " + url);
+            }
+        }
+
+        long size() {
+            return probe.length >= 0 ? probe.length : positions.get(0);
+        }
+
+        /**
+         * Starts the chunks that fit in the window after the first chunk that is not yet digested.
+         */
+        private void schedule() {
+            List<Integer> launch = new ArrayList<>();
+            synchronized (this) {
+                int limit = Math.min(starts.length, digest.getDigestedChunkCount() + parallelism);
+                while (next < limit) {
+                    int chunk = next++;
+                    if (!completed.get(chunk)) {
+                        launch.add(chunk);
+                    }
+                }
+            }
+            for (int chunk : launch) {
+                fetch(chunk, 1);
+            }
+        }
+
+        private void fetch(int chunk, int attempt) {
+            long from = positions.get(chunk);
+            boolean ranged = starts.length > 1 || from > 0;
+            Request.Builder builder = new Request.Builder()
+                    .url(url)
+                    .header("Accept-Encoding", "identity")
+                    .cacheControl(NO_STORE);
+            if (ranged) {
+                builder.header("Range", "bytes=" + from + "-" + (ends[chunk] == Long.MAX_VALUE ? "" : ends[chunk] - 1));
+                if (probe.validator != null) {
+                    builder.header("If-Range", probe.validator);
+                }
+            }
+            Call call = client.newCall(builder.build());
+            synchronized (this) {
+                if (finished.isDone()) {
+                    return;
+                }
+                calls.add(call);
+            }
+            call.enqueue(new Callback() {
+                @Override
+                public void onFailure(@NotNull Call call, @NotNull IOException e) {
+                    retry(chunk, attempt, e);
+                }
+
+                @Override
+                public void onResponse(@NotNull Call call, @NotNull Response response) {
+                    try (response) {
+                        receive(chunk, from, ranged, response);
+                    } catch (IOException e) {
+                        retry(chunk, attempt, e);
+                        return;
+                    }
+                    chunkDone(chunk);
+                }
+            });
+        }
+
+        private void receive(int chunk, long from, boolean ranged, Response response) throws IOException {
+            if (ranged) {
+                if (response.code() != 206) {
+                    throw response.isSuccessful()
+                            ? new IOException("Server ignored the range request or the artifact changed: " + url)
+                            : new HttpResponseException(response.code());
+                }
+                String contentRange = response.header("Content-Range");
+                Matcher matcher = contentRange == null ? null : CONTENT_RANGE.matcher(contentRange);
+                if (matcher == null || !matcher.matches() || Long.parseLong(matcher.group(1)) != from) {
+                    throw new IOException("Unexpected Content-Range for offset " + from + ": " + contentRange);
+                }
+            } else if (!response.isSuccessful()) {
+                throw new HttpResponseException(response.code());
+            }
+            ResponseBody body = response.body();
+            if (body == null) {
+                throw new IOException("Response body is null");
+            }
+
+            BufferedSource source = body.source();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long end = ends[chunk];
+            long position = from;
+            while (position < end) {
+                int read = source.read(buffer, 0, (int) Math.min(buffer.length, end - position));
+                if (read == -1) {
+                    break;
+                }
+                ByteBuffer data = ByteBuffer.wrap(buffer, 0, read);
+                long offset = position;
+                while (data.hasRemaining()) {
+                    offset += channel.write(data, offset);
+                }
+                digest.update(chunk, buffer, 0, read);
+                position += read;
+                positions.set(chunk, position);
+            }
+            if (end != Long.MAX_VALUE && position < end) {
+                throw new EOFException("Response for " + url + " ended at offset " + position + " of " + end);
+            }
+        }
+
+        private void retry(int chunk, int attempt, IOException error) {
+            if (finished.isDone()) {
+                return;
+            }
+            boolean notFound = error instanceof HttpResponseException && ((HttpResponseException) error).isNotFound();
+            // Without range support a stream can only be retried while none of it has been digested
+            boolean resumable = probe.acceptsRanges || positions.get(chunk) == starts[chunk];
+            if (attempt >= MAX_ATTEMPTS || notFound || !resumable) {
+                finished.completeExceptionally(error);
+                return;
+            }
+            LOG.info("Chunk " + chunk + " of " + url + " failed at offset " + positions.get(chunk)
+                    + " (attempt " + attempt + "), resuming: " + error.getMessage());
+            fetch(chunk, attempt + 1);
+        }
+
+        private void chunkDone(int chunk) {
+            try {
+                // Saved first: once the digest has every chunk the caller may delete the state file
+                saveState(chunk);
+                digest.complete(chunk);
+            } catch (IOException e) {
+                finished.completeExceptionally(e);
+                return;
+            }
+            if (digest.isDone()) {
+                finished.complete(null);
+            } else {
+                schedule();
+            }
+        }
+
+        /**
+         * Records the completed chunks next to the partial file. The file is replaced atomically, so a
+         * crash leaves either the previous or the new state.
+         */
+        private synchronized void saveState(int chunk) throws IOException {
+            completed.set(chunk);
+            if (!isResumable()) {
+                return;
+            }
+            StringBuilder chunks = new StringBuilder();
+            for (int i = completed.nextSetBit(0); i >= 0; i = completed.nextSetBit(i + 1)) {
+                chunks.append(chunks.length() == 0 ? "" : ",").append(i);
+            }
+            Properties state = new Properties();
+            state.setProperty("url", url.toString());
+            state.setProperty("validator", probe.validator);
+            state.setProperty("length", Long.toString(probe.length));
+            state.setProperty("chunkSize", Long.toString(chunkSize));
+            state.setProperty("completed", chunks.toString());
+            Path temp = stateFile.resolveSibling(stateFile.getFileName() + ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                state.store(out, null);
+            }
+            Files.move(temp, stateFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        private void cancelCalls() {
+            List<Call> running;
+            synchronized (this) {
+                running = new ArrayList<>(calls);
+            }
+            for (Call call : running) {
+                call.cancel();
+            }
+        }
+    }
+}
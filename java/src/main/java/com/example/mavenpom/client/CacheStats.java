@@ -0,0 +1,41 @@
+package com.example.mavenpom.client;
+
+/**
+ * Snapshot of the disk cache counters of an {@link SSLClient}.
+ * <p>
+ * A hit is a response served from disk, either straight away or after a {@code 304 Not Modified}
+ * revalidation; a revalidation therefore counts as both a hit and a network request.
+ */
+public final class CacheStats {
+    private final int requestCount;
+    private final int hitCount;
+    private final int networkCount;
+
+    CacheStats(int requestCount, int hitCount, int networkCount) {
+        this.requestCount = requestCount;
+        this.hitCount = hitCount;
+        this.networkCount = networkCount;
+    }
+
+    public int getRequestCount() {
+        return requestCount;
+    }
+
+    public int getHitCount() {
+        return hitCount;
+    }
+
+    public int getMissCount() {
+        return Math.max(0, requestCount - hitCount);
+    }
+
+    public int getNetworkCount() {
+        return networkCount;
+    }
+
+    @Override
+    public String toString() {
+        return "requests=" + requestCount + ", hits=" + hitCount + ", misses=" + getMissCount()
+                + ", network=" + networkCount;
+    }
+}
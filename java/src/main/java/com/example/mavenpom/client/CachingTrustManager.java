@@ -0,0 +1,185 @@
+package com.example.mavenpom.client;
+
+import org.jetbrains.annotations.NotNull;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.X509ExtendedTrustManager;
+import java.net.Socket;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.util.HexFormat;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers server chains that passed full PKIX validation so the same chain is not validated again
+ * on every handshake.
+ * <p>
+ * TLS-intercepting proxies present the same few chains all day, and each handshake would otherwise
+ * rebuild and verify the whole path. Entries are keyed by the SHA-256 fingerprints of every certificate
+ * in the chain, the key exchange type and, when the handshake asks the trust manager to verify the
+ * endpoint identity, the peer host. An entry lives for at most {@link #DEFAULT_TTL_MS} and never past
+ * the earliest {@code notAfter} in its chain. Anything not found, expired or different falls through
+ * to the delegate, and only chains the delegate accepts are cached; rejections are never cached.
+ * <p>
+ * A new instance is created for every loaded trust store, so reloading the bundle starts with an
+ * empty cache.
+ */
+public class CachingTrustManager extends X509ExtendedTrustManager {
+    static final long DEFAULT_TTL_MS = TimeUnit.MINUTES.toMillis(30);
+    static final int MAX_ENTRIES = 256;
+
+    private final X509ExtendedTrustManager delegate;
+    private final long ttlMs;
+    private final ConcurrentMap<String, Long> verifiedUntil = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public CachingTrustManager(@NotNull X509ExtendedTrustManager delegate) {
+        this(delegate, DEFAULT_TTL_MS);
+    }
+
+    public CachingTrustManager(@NotNull X509ExtendedTrustManager delegate, long ttlMs) {
+        this.delegate = delegate;
+        this.ttlMs = ttlMs;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType, Socket socket) throws CertificateException {
+        String key = cacheKey(chain, authType, peerHost(socket));
+        if (!isCached(key)) {
+            delegate.checkServerTrusted(chain, authType, socket);
+            remember(key, chain);
+        }
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType, SSLEngine engine) throws CertificateException {
+        String key = cacheKey(chain, authType, peerHost(engine));
+        if (!isCached(key)) {
+            delegate.checkServerTrusted(chain, authType, engine);
+            remember(key, chain);
+        }
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+        String key = cacheKey(chain, authType, null);
+        if (!isCached(key)) {
+            delegate.checkServerTrusted(chain, authType);
+            remember(key, chain);
+        }
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType, Socket socket) throws CertificateException {
+        delegate.checkClientTrusted(chain, authType, socket);
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType, SSLEngine engine) throws CertificateException {
+        delegate.checkClientTrusted(chain, authType, engine);
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+        delegate.checkClientTrusted(chain, authType);
+    }
+
+    @Override
+    public X509Certificate[] getAcceptedIssuers() {
+        return delegate.getAcceptedIssuers();
+    }
+
+    private boolean isCached(String key) {
+        if (key != null) {
+            Long until = verifiedUntil.get(key);
+            if (until != null && System.currentTimeMillis() < until) {
+                hits.incrementAndGet();
+                return true;
+            }
+        }
+        misses.incrementAndGet();
+        return false;
+    }
+
+    private void remember(String key, X509Certificate[] chain) {
+        if (key == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long until = now + ttlMs;
+        for (X509Certificate certificate : chain) {
+            until = Math.min(until, certificate.getNotAfter().getTime());
+        }
+        if (until <= now) {
+            return;
+        }
+        if (verifiedUntil.size() >= MAX_ENTRIES) {
+            verifiedUntil.values().removeIf(expiry -> expiry <= now);
+            if (verifiedUntil.size() >= MAX_ENTRIES) {
+                verifiedUntil.clear();
+            }
+        }
+        verifiedUntil.put(key, until);
+    }
+
+    /**
+     * Returns {@code null} when the chain cannot be fingerprinted, which disables caching for it.
+     */
+    private static String cacheKey(X509Certificate[] chain, String authType, String peerHost) {
+        if (chain == null || chain.length == 0) {
+            return null;
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            StringBuilder key = new StringBuilder(authType).append('|').append(peerHost == null ? "" : peerHost);
+            for (X509Certificate certificate : chain) {
+                key.append('|').append(HexFormat.of().formatHex(digest.digest(certificate.getEncoded())));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException | CertificateException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The host only matters when the trust manager itself performs endpoint identification; OkHttp
+     * verifies host names separately after the handshake.
+     */
+    private static String peerHost(Socket socket) {
+        if (socket instanceof SSLSocket) {
+            SSLParameters parameters = ((SSLSocket) socket).getSSLParameters();
+            if (parameters != null && parameters.getEndpointIdentificationAlgorithm() != null) {
+                return ((SSLSocket) socket).getHandshakeSession() == null
+                    ? String.valueOf(socket.getInetAddress())
+                    : ((SSLSocket) socket).getHandshakeSession().getPeerHost();
+            }
+        }
+        return null;
+    }
+
+    private static String peerHost(SSLEngine engine) {
+        if (engine != null) {
+            SSLParameters parameters = engine.getSSLParameters();
+            if (parameters != null && parameters.getEndpointIdentificationAlgorithm() != null) {
+                return engine.getPeerHost();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.mavenpom.client;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * Application interceptor that signals when a call actually starts running. Enqueued calls beyond the
+ * dispatcher's limits first wait in its queue, and OkHttp's {@code callStart} event already fires at
+ * enqueue time, so this is the first point at which the call is really on its way.
+ * <p>
+ * {@link RequestCoalescer} starts its per-caller timeouts from here, the way OkHttp's own call timeout
+ * counts from execution rather than from enqueueing.
+ */
+final class CallStartInterceptor implements Interceptor {
+
+    /**
+     * Tags {@code request} so that {@code onStart} runs once its call starts.
+     */
+    static Request.Builder onStart(Request.Builder request, Runnable onStart) {
+        return request.tag(StartSignal.class, new StartSignal(onStart));
+    }
+
+    @NotNull
+    @Override
+    public Response intercept(@NotNull Chain chain) throws IOException {
+        StartSignal signal = chain.request().tag(StartSignal.class);
+        if (signal != null) {
+            signal.onStart.run();
+        }
+        return chain.proceed(chain.request());
+    }
+
+    private static final class StartSignal {
+        final Runnable onStart;
+
+        StartSignal(Runnable onStart) {
+            this.onStart = onStart;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.mavenpom.client;
+
+import java.io.IOException;
+
+/**
+ * A download completed but its content does not match the checksum published next to it.
+ */
+public class ChecksumException extends IOException {
+    private final String algorithm;
+    private final String expected;
+    private final String actual;
+
+    public ChecksumException(String url, String algorithm, String expected, String actual) {
+        super(algorithm + " mismatch for " + url + ": expected " + expected + " but was " + actual);
+        this.algorithm = algorithm;
+        this.expected = expected;
+        this.actual = actual;
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public String getExpected() {
+        return expected;
+    }
+
+    public String getActual() {
+        return actual;
+    }
+}
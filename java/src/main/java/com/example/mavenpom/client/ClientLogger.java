@@ -0,0 +1,60 @@
+package com.example.mavenpom.client;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Logger for the client core, with the methods of the IDE's {@code com.intellij.openapi.diagnostic.Logger}
+ * that this code uses, backed by {@code java.util.logging}.
+ * <p>
+ * The client and index packages must also run outside the IDE, e.g. in the prefetch command line tool,
+ * so they cannot depend on the IDE's logger. Inside the IDE, {@code java.util.logging} records end up
+ * in {@code idea.log} like those of the IDE's own logger.
+ */
+public final class ClientLogger {
+    private final Logger logger;
+
+    private ClientLogger(Logger logger) {
+        this.logger = logger;
+    }
+
+    public static ClientLogger getInstance(Class<?> type) {
+        return new ClientLogger(Logger.getLogger(type.getName()));
+    }
+
+    public boolean isDebugEnabled() {
+        return logger.isLoggable(Level.FINE);
+    }
+
+    public void debug(String message) {
+        logger.fine(message);
+    }
+
+    public void debug(String message, Throwable t) {
+        logger.log(Level.FINE, message, t);
+    }
+
+    public void info(String message) {
+        logger.info(message);
+    }
+
+    public void info(String message, Throwable t) {
+        logger.log(Level.INFO, message, t);
+    }
+
+    public void warn(String message) {
+        logger.warning(message);
+    }
+
+    public void warn(String message, Throwable t) {
+        logger.log(Level.WARNING, message, t);
+    }
+
+    public void error(String message) {
+        logger.severe(message);
+    }
+
+    public void error(String message, Throwable t) {
+        logger.log(Level.SEVERE, message, t);
+    }
+}
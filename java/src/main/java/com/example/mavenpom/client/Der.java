@@ -0,0 +1,221 @@
+package com.example.mavenpom.client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Just enough ASN.1 DER to build OCSP requests and read the fields of OCSP responses and certificate
+ * extensions that the JDK does not expose. Signatures are never checked here; that is left to the JDK.
+ */
+final class Der {
+    static final int INTEGER = 0x02;
+    static final int BIT_STRING = 0x03;
+    static final int OCTET_STRING = 0x04;
+    static final int OBJECT_IDENTIFIER = 0x06;
+    static final int ENUMERATED = 0x0a;
+    static final int GENERALIZED_TIME = 0x18;
+    static final int SEQUENCE = 0x30;
+    private static final int CONSTRUCTED = 0x20;
+    private static final int CONTEXT = 0x80;
+    private static final int MAX_LENGTH_BYTES = 4;
+
+    private Der() {
+    }
+
+    static int context(int number) {
+        return CONTEXT | number;
+    }
+
+    static int contextConstructed(int number) {
+        return CONTEXT | CONSTRUCTED | number;
+    }
+
+    static byte[] encode(int tag, byte[]... contents) {
+        int length = 0;
+        for (byte[] content : contents) {
+            length += content.length;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(length + 6);
+        out.write(tag);
+        if (length < 0x80) {
+            out.write(length);
+        } else {
+            byte[] lengthBytes = BigInteger.valueOf(length).toByteArray();
+            int skip = lengthBytes[0] == 0 ? 1 : 0;
+            out.write(0x80 | (lengthBytes.length - skip));
+            out.write(lengthBytes, skip, lengthBytes.length - skip);
+        }
+        for (byte[] content : contents) {
+            out.writeBytes(content);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Reads the elements of one level of DER, in order.
+     */
+    static final class Reader {
+        private final byte[] data;
+        private final int end;
+        private int position;
+
+        Reader(byte[] data) {
+            this(data, 0, data.length);
+        }
+
+        private Reader(byte[] data, int start, int end) {
+            this.data = data;
+            this.position = start;
+            this.end = end;
+        }
+
+        boolean hasNext() {
+            return position < end;
+        }
+
+        int peekTag() throws IOException {
+            if (position >= end) {
+                throw new IOException("Truncated DER");
+            }
+            return data[position] & 0xff;
+        }
+
+        Element next() throws IOException {
+            int start = position;
+            int tag = peekTag();
+            if ((tag & 0x1f) == 0x1f) {
+                throw new IOException("Multi-byte DER tags are not supported");
+            }
+            int offset = position + 1;
+            if (offset >= end) {
+                throw new IOException("Truncated DER");
+            }
+            int first = data[offset++] & 0xff;
+            int length;
+            if (first < 0x80) {
+                length = first;
+            } else {
+                int count = first & 0x7f;
+                if (count == 0 || count > MAX_LENGTH_BYTES || offset + count > end) {
+                    throw new IOException("Invalid DER length");
+                }
+                length = 0;
+                for (int i = 0; i < count; i++) {
+                    length = (length << 8) | (data[offset++] & 0xff);
+                }
+                if (length < 0) {
+                    throw new IOException("Invalid DER length");
+                }
+            }
+            if (length > end - offset) {
+                throw new IOException("DER element exceeds its container");
+            }
+            position = offset + length;
+            return new Element(data, tag, start, offset, position);
+        }
+
+        Element next(int expectedTag) throws IOException {
+            Element element = next();
+            if (element.tag != expectedTag) {
+                throw new IOException(String.format("Expected DER tag 0x%02x but found 0x%02x", expectedTag, element.tag));
+            }
+            return element;
+        }
+
+        /**
+         * Returns the next element if it has {@code tag}, and {@code null} without consuming anything
+         * otherwise.
+         */
+        Element optional(int tag) throws IOException {
+            return hasNext() && peekTag() == tag ? next() : null;
+        }
+    }
+
+    static final class Element {
+        final int tag;
+        private final byte[] data;
+        private final int start;
+        private final int contentStart;
+        private final int end;
+
+        private Element(byte[] data, int tag, int start, int contentStart, int end) {
+            this.data = data;
+            this.tag = tag;
+            this.start = start;
+            this.contentStart = contentStart;
+            this.end = end;
+        }
+
+        boolean isConstructed() {
+            return (tag & CONSTRUCTED) != 0;
+        }
+
+        byte[] content() {
+            return Arrays.copyOfRange(data, contentStart, end);
+        }
+
+        byte[] encoded() {
+            return Arrays.copyOfRange(data, start, end);
+        }
+
+        Reader reader() {
+            return new Reader(data, contentStart, end);
+        }
+
+        BigInteger integer() {
+            return new BigInteger(content());
+        }
+
+        String string() {
+            return new String(data, contentStart, end - contentStart, StandardCharsets.ISO_8859_1);
+        }
+
+        String oid() throws IOException {
+            if (end == contentStart) {
+                throw new IOException("Empty object identifier");
+            }
+            StringBuilder oid = new StringBuilder();
+            long value = 0;
+            boolean first = true;
+            for (int i = contentStart; i < end; i++) {
+                value = (value << 7) | (data[i] & 0x7f);
+                if ((data[i] & 0x80) != 0) {
+                    continue;
+                }
+                if (first) {
+                    int arc = (int) Math.min(2, value / 40);
+                    oid.append(arc).append('.').append(value - 40L * arc);
+                    first = false;
+                } else {
+                    oid.append('.').append(value);
+                }
+                value = 0;
+            }
+            return oid.toString();
+        }
+
+        /**
+         * Decodes a GeneralizedTime in UTC, with optional fractional seconds, to epoch milliseconds.
+         */
+        long time() throws IOException {
+            String text = string();
+            if (text.length() < 15 || !text.endsWith("Z")) {
+                throw new IOException("Unsupported GeneralizedTime: " + text);
+            }
+            try {
+                LocalDateTime time = LocalDateTime.of(
+                        Integer.parseInt(text.substring(0, 4)), Integer.parseInt(text.substring(4, 6)),
+                        Integer.parseInt(text.substring(6, 8)), Integer.parseInt(text.substring(8, 10)),
+                        Integer.parseInt(text.substring(10, 12)), Integer.parseInt(text.substring(12, 14)));
+                return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+            } catch (RuntimeException e) {
+                throw new IOException("Invalid GeneralizedTime: " + text, e);
+            }
+        }
+    }
+}
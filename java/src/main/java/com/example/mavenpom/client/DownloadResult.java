@@ -0,0 +1,77 @@
+package com.example.mavenpom.client;
+
+import java.nio.file.Path;
+
+/**
+ * Outcome of an {@link ArtifactDownloader} download: where the file ended up, its checksums and how
+ * it was transferred.
+ */
+public final class DownloadResult {
+    private final Path path;
+    private final long size;
+    private final String sha1;
+    private final String sha256;
+    private final boolean verified;
+    private final int chunkCount;
+    private final long resumedBytes;
+
+    DownloadResult(Path path, long size, String sha1, String sha256, boolean verified, int chunkCount, long resumedBytes) {
+        this.path = path;
+        this.size = size;
+        this.sha1 = sha1;
+        this.sha256 = sha256;
+        this.verified = verified;
+        this.chunkCount = chunkCount;
+        this.resumedBytes = resumedBytes;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Lower-case hex SHA-1 of the content.
+     */
+    public String getSha1() {
+        return sha1;
+    }
+
+    /**
+     * Lower-case hex SHA-256 of the content.
+     */
+    public String getSha256() {
+        return sha256;
+    }
+
+    /**
+     * Whether at least one published checksum was found and matched. A mismatch never produces a
+     * result; it fails the download with {@link ChecksumException}.
+     */
+    public boolean isVerified() {
+        return verified;
+    }
+
+    /**
+     * Number of byte ranges the file was split into; 1 for a single stream.
+     */
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    /**
+     * Bytes taken over from an earlier, interrupted download instead of being transferred again.
+     */
+    public long getResumedBytes() {
+        return resumedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return path + " (" + size + " bytes, " + chunkCount + " chunks, " + resumedBytes + " resumed, "
+                + (verified ? "verified" : "unverified") + ")";
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.mavenpom.client;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency histograms and connection counters for a single host, see {@link NetworkTimings}.
+ */
+public final class HostTimings {
+    private final String host;
+    private final Map<NetworkTimings.Phase, LatencyHistogram> histograms = new EnumMap<>(NetworkTimings.Phase.class);
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong failedCalls = new AtomicLong();
+    private final AtomicLong newConnections = new AtomicLong();
+    private final AtomicLong reusedConnections = new AtomicLong();
+    private final AtomicLong handshakes = new AtomicLong();
+    private final AtomicLong resumedSessions = new AtomicLong();
+
+    HostTimings(String host) {
+        this.host = host;
+        // Filled once up front so concurrent readers never see the map change
+        for (NetworkTimings.Phase phase : NetworkTimings.Phase.values()) {
+            histograms.put(phase, new LatencyHistogram());
+        }
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public LatencyHistogram getHistogram(NetworkTimings.Phase phase) {
+        return histograms.get(phase);
+    }
+
+    public long getCallCount() {
+        return calls.get();
+    }
+
+    public long getFailedCount() {
+        return failedCalls.get();
+    }
+
+    public long getNewConnectionCount() {
+        return newConnections.get();
+    }
+
+    public long getReusedConnectionCount() {
+        return reusedConnections.get();
+    }
+
+    public long getHandshakeCount() {
+        return handshakes.get();
+    }
+
+    /**
+     * Handshakes that resumed a cached TLS session instead of doing a full key exchange.
+     */
+    public long getResumedSessionCount() {
+        return resumedSessions.get();
+    }
+
+    void record(NetworkTimings.Phase phase, long nanos) {
+        histograms.get(phase).record(nanos);
+    }
+
+    void callEnded(boolean failed) {
+        calls.incrementAndGet();
+        if (failed) {
+            failedCalls.incrementAndGet();
+        }
+    }
+
+    void connectionAcquired(boolean reused) {
+        (reused ? reusedConnections : newConnections).incrementAndGet();
+    }
+
+    void handshakeCompleted(boolean resumed) {
+        handshakes.incrementAndGet();
+        if (resumed) {
+            resumedSessions.incrementAndGet();
+        }
+    }
+}
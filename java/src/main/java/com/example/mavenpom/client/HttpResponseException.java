@@ -0,0 +1,26 @@
+package com.example.mavenpom.client;
+
+import java.io.IOException;
+
+/**
+ * A request reached the server but was answered with a non-successful status code.
+ */
+public class HttpResponseException extends IOException {
+    private final int code;
+
+    public HttpResponseException(int code) {
+        super("Unexpected response code: " + code);
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * Whether the repository answered that it does not have the resource, as opposed to failing.
+     */
+    public boolean isNotFound() {
+        return code == 404 || code == 410;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.mavenpom.client;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+
+/**
+ * Network interceptor that rewrites the caching headers of repository responses to match Maven's
+ * publishing rules, which repository managers rarely express themselves.
+ * <ul>
+ *   <li>Released artifacts are immutable once deployed, so they are stored as fresh for a year and
+ *   served from the disk cache without touching the network.</li>
+ *   <li>SNAPSHOT artifacts and {@code maven-metadata.xml} change in place, so they are stored with
+ *   {@code no-cache} and revalidated on every use through ETag/If-Modified-Since.</li>
+ *   <li>Anything else, such as search results, directory listings or repository manager pages,
+ *   keeps the headers the server sent.</li>
+ * </ul>
+ * A released artifact is recognised by its layout: a file named {@code <artifactId>-<version>...} in
+ * the {@code <artifactId>/<version>/} directory, with one of {@link #RELEASE_EXTENSIONS}.
+ */
+class MavenCachePolicyInterceptor implements Interceptor {
+    static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    static final String REVALIDATE = "no-cache";
+    /** POMs, jars, their checksums and their signatures. */
+    static final String[] RELEASE_EXTENSIONS = {".pom", ".jar", ".md5", ".sha1", ".sha256", ".sha512", ".asc"};
+
+    @NotNull
+    @Override
+    public Response intercept(@NotNull Chain chain) throws IOException {
+        Request request = chain.request();
+        Response response = chain.proceed(request);
+        if (!"GET".equals(request.method()) || response.code() != 200) {
+            return response;
+        }
+
+        String cacheControl = cacheControlFor(request.url().encodedPath());
+        if (cacheControl == null) {
+            return response;
+        }
+        return response.newBuilder()
+                .removeHeader("Pragma")
+                .removeHeader("Expires")
+                .header("Cache-Control", cacheControl)
+                .build();
+    }
+
+    /**
+     * Returns the {@code Cache-Control} to store the response at {@code path} with, or {@code null} to
+     * keep the server's headers.
+     */
+    @Nullable
+    static String cacheControlFor(String path) {
+        // Also covers checksum sidecars such as maven-metadata.xml.sha1
+        if (path.contains("/maven-metadata") || path.contains("-SNAPSHOT/")) {
+            return REVALIDATE;
+        }
+        return isReleaseArtifact(path) ? IMMUTABLE : null;
+    }
+
+    static boolean isReleaseArtifact(String path) {
+        String[] segments = path.split("/");
+        if (segments.length < 3 || !hasReleaseExtension(segments[segments.length - 1])) {
+            return false;
+        }
+        String artifactId = segments[segments.length - 3];
+        String version = segments[segments.length - 2];
+        return !artifactId.isEmpty() && !version.isEmpty()
+                && segments[segments.length - 1].startsWith(artifactId + "-" + version);
+    }
+
+    private static boolean hasReleaseExtension(String fileName) {
+        for (String extension : RELEASE_EXTENSIONS) {
+            if (fileName.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
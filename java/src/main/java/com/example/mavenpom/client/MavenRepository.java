@@ -0,0 +1,71 @@
+package com.example.mavenpom.client;
+
+import okhttp3.HttpUrl;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+
+/**
+ * A Maven repository endpoint: its base URL and the certificate bundle its server is trusted with.
+ */
+public final class MavenRepository {
+    private final String id;
+    private final String url;
+    private final String certPath;
+
+    /**
+     * @param certPath certificate bundle passed to {@link SSLClient}, or {@code null} for the bundled one
+     */
+    public MavenRepository(@NotNull String id, @NotNull String url, @Nullable String certPath) {
+        if (HttpUrl.parse(url) == null) {
+            throw new IllegalArgumentException("Invalid repository URL: " + url);
+        }
+        this.id = id;
+        this.url = url.endsWith("/") ? url : url + "/";
+        this.certPath = certPath == null || certPath.isEmpty() ? null : certPath;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    @Nullable
+    public String getCertPath() {
+        return certPath;
+    }
+
+    /**
+     * Returns the URL of {@code path}, a repository-relative path such as
+     * {@link com.example.mavenpom.actions.MavenCoordinate#getPomPath()}.
+     */
+    public String resolve(@NotNull String path) {
+        return url + (path.startsWith("/") ? path.substring(1) : path);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MavenRepository)) {
+            return false;
+        }
+        MavenRepository that = (MavenRepository) o;
+        return id.equals(that.id) && url.equals(that.url) && Objects.equals(certPath, that.certPath);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, url, certPath);
+    }
+
+    @Override
+    public String toString() {
+        return id + " (" + url + ")";
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.mavenpom.client;
+
+import okhttp3.EventListener;
+import okhttp3.HttpUrl;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Per-host latency histograms for every phase of an HTTP call, fed by an OkHttp {@link EventListener}.
+ * <p>
+ * Install {@link #listenerFactory()} on a client and every call records how long DNS, connecting, the
+ * TLS handshake, waiting for the response headers and reading the body took, along with whether the
+ * pooled connection and the TLS session were reused. {@link #formatReport()} renders the p50, p95 and
+ * p99 of each phase so slow repositories and cold connections are easy to spot.
+ */
+public final class NetworkTimings {
+    /**
+     * The measured parts of a call. {@link #CONNECT} covers everything needed for a usable connection:
+     * TCP, a proxy {@code CONNECT} tunnel when there is one, and the TLS handshake, which is also
+     * measured on its own as {@link #TLS}.
+     */
+    public enum Phase {
+        DNS("dns"),
+        CONNECT("connect"),
+        TLS("tls"),
+        TTFB("ttfb"),
+        BODY("body"),
+        TOTAL("total");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private static final double[] REPORTED_PERCENTILES = {50, 95, 99};
+
+    private final ConcurrentMap<String, HostTimings> hosts = new ConcurrentHashMap<>();
+    private final EventListener.Factory listenerFactory = call -> new TimingEventListener(this, call);
+
+    public EventListener.Factory listenerFactory() {
+        return listenerFactory;
+    }
+
+    /**
+     * Returns the timings of {@code host}, as {@code host} or {@code host:port} for non-default
+     * ports, or {@code null} when no call to it has completed yet.
+     */
+    @Nullable
+    public HostTimings getHost(String host) {
+        return hosts.get(host);
+    }
+
+    public List<HostTimings> getHosts() {
+        List<HostTimings> result = new ArrayList<>(hosts.values());
+        result.sort(Comparator.comparing(HostTimings::getHost));
+        return result;
+    }
+
+    public void reset() {
+        hosts.clear();
+    }
+
+    /**
+     * Renders one block per host with the call and reuse counters followed by a percentile table.
+     */
+    public String formatReport() {
+        List<HostTimings> snapshot = getHosts();
+        if (snapshot.isEmpty()) {
+            return "No requests recorded yet.";
+        }
+
+        StringBuilder report = new StringBuilder();
+        for (HostTimings host : snapshot) {
+            report.append(host.getHost()).append('\n');
+            report.append(String.format(Locale.ROOT,
+                    "  calls %d, failed %d; connections %d new, %d reused; TLS %d handshakes, %d resumed%n",
+                    host.getCallCount(), host.getFailedCount(),
+                    host.getNewConnectionCount(), host.getReusedConnectionCount(),
+                    host.getHandshakeCount(), host.getResumedSessionCount()));
+            report.append(String.format(Locale.ROOT, "  %-8s %7s %9s %9s %9s%n", "phase", "count", "p50 ms", "p95 ms", "p99 ms"));
+            for (Phase phase : Phase.values()) {
+                LatencyHistogram histogram = host.getHistogram(phase);
+                long count = histogram.getCount();
+                if (count == 0) {
+                    continue;
+                }
+                report.append(String.format(Locale.ROOT, "  %-8s %7d", phase.getLabel(), count));
+                for (double percentile : REPORTED_PERCENTILES) {
+                    report.append(String.format(Locale.ROOT, " %9.1f", histogram.getPercentileMillis(percentile)));
+                }
+                report.append('\n');
+            }
+        }
+        return report.toString();
+    }
+
+    HostTimings forUrl(HttpUrl url) {
+        String key = url.port() == HttpUrl.defaultPort(url.scheme()) ? url.host() : url.host() + ":" + url.port();
+        return hosts.computeIfAbsent(key, HostTimings::new);
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.mavenpom.client;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds OCSP requests and reads the status and validity period of OCSP responses (RFC 6960), and
+ * finds the OCSP responders and CRL distribution points a certificate names.
+ * <p>
+ * Nothing here proves that a response is authentic; responses must also pass the JDK's
+ * {@link java.security.cert.PKIXRevocationChecker} before they are trusted.
+ */
+final class OcspMessages {
+    static final int GOOD = 0;
+    static final int REVOKED = 1;
+    static final int UNKNOWN = 2;
+
+    private static final String AUTHORITY_INFO_ACCESS = "1.3.6.1.5.5.7.1.1";
+    private static final String CRL_DISTRIBUTION_POINTS = "2.5.29.31";
+    private static final String OCSP_ACCESS_METHOD = "1.3.6.1.5.5.7.48.1";
+    private static final String BASIC_RESPONSE = "1.3.6.1.5.5.7.48.1.1";
+    private static final int URI_NAME = Der.context(6);
+    private static final int SUCCESSFUL = 0;
+    // AlgorithmIdentifier for SHA-1 with NULL parameters, the hash every responder supports for CertID
+    private static final byte[] SHA1_ALGORITHM = {0x30, 0x09, 0x06, 0x05, 0x2b, 0x0e, 0x03, 0x02, 0x1a, 0x05, 0x00};
+
+    private OcspMessages() {
+    }
+
+    /**
+     * The parts of a single response that matter for caching.
+     */
+    static final class Status {
+        final int status;
+        final long thisUpdate;
+        /** Epoch milliseconds, or -1 when the responder did not say when newer information is due. */
+        final long nextUpdate;
+
+        Status(int status, long thisUpdate, long nextUpdate) {
+            this.status = status;
+            this.thisUpdate = thisUpdate;
+            this.nextUpdate = nextUpdate;
+        }
+    }
+
+    static byte[] request(X509Certificate certificate, X509Certificate issuer) throws IOException {
+        byte[] certId = Der.encode(Der.SEQUENCE,
+                SHA1_ALGORITHM,
+                Der.encode(Der.OCTET_STRING, sha1(issuer.getSubjectX500Principal().getEncoded())),
+                Der.encode(Der.OCTET_STRING, sha1(publicKeyBits(issuer))),
+                Der.encode(Der.INTEGER, certificate.getSerialNumber().toByteArray()));
+        // OCSPRequest { TBSRequest { requestList { Request { CertID } } } }, without a nonce so the
+        // response can be cached and shared
+        return Der.encode(Der.SEQUENCE, Der.encode(Der.SEQUENCE, Der.encode(Der.SEQUENCE, Der.encode(Der.SEQUENCE, certId))));
+    }
+
+    /**
+     * Returns the single response for {@code certificate}.
+     *
+     * @throws IOException when the response is malformed, unsuccessful or does not cover the certificate
+     */
+    static Status parse(byte[] response, X509Certificate certificate) throws IOException {
+        Der.Reader ocspResponse = new Der.Reader(response).next(Der.SEQUENCE).reader();
+        int responseStatus = ocspResponse.next(Der.ENUMERATED).integer().intValue();
+        if (responseStatus != SUCCESSFUL) {
+            throw new IOException("OCSP responder answered with status " + responseStatus);
+        }
+        Der.Reader responseBytes = ocspResponse.next(Der.contextConstructed(0)).reader().next(Der.SEQUENCE).reader();
+        String responseType = responseBytes.next(Der.OBJECT_IDENTIFIER).oid();
+        if (!BASIC_RESPONSE.equals(responseType)) {
+            throw new IOException("Unsupported OCSP response type " + responseType);
+        }
+        Der.Reader basicResponse = new Der.Reader(responseBytes.next(Der.OCTET_STRING).content()).next(Der.SEQUENCE).reader();
+        Der.Reader responseData = basicResponse.next(Der.SEQUENCE).reader();
+        responseData.optional(Der.contextConstructed(0));
+        responseData.next();
+        responseData.next(Der.GENERALIZED_TIME);
+
+        BigInteger serialNumber = certificate.getSerialNumber();
+        Der.Reader responses = responseData.next(Der.SEQUENCE).reader();
+        while (responses.hasNext()) {
+            Der.Reader singleResponse = responses.next(Der.SEQUENCE).reader();
+            Der.Reader certId = singleResponse.next(Der.SEQUENCE).reader();
+            certId.next(Der.SEQUENCE);
+            certId.next(Der.OCTET_STRING);
+            certId.next(Der.OCTET_STRING);
+            if (!serialNumber.equals(certId.next(Der.INTEGER).integer())) {
+                continue;
+            }
+            int status = singleResponse.next().tag & 0x1f;
+            if (status > UNKNOWN) {
+                throw new IOException("Invalid OCSP certificate status " + status);
+            }
+            long thisUpdate = singleResponse.next(Der.GENERALIZED_TIME).time();
+            Der.Element nextUpdate = singleResponse.optional(Der.contextConstructed(0));
+            return new Status(status, thisUpdate,
+                    nextUpdate == null ? -1 : nextUpdate.reader().next(Der.GENERALIZED_TIME).time());
+        }
+        throw new IOException("OCSP response does not cover serial number " + serialNumber.toString(16));
+    }
+
+    static List<String> responderUrls(X509Certificate certificate) throws IOException {
+        List<String> urls = new ArrayList<>();
+        Der.Reader descriptions = extension(certificate, AUTHORITY_INFO_ACCESS);
+        while (descriptions != null && descriptions.hasNext()) {
+            Der.Reader description = descriptions.next(Der.SEQUENCE).reader();
+            String method = description.next(Der.OBJECT_IDENTIFIER).oid();
+            Der.Element location = description.next();
+            if (OCSP_ACCESS_METHOD.equals(method) && location.tag == URI_NAME && isHttp(location.string())) {
+                urls.add(location.string());
+            }
+        }
+        return urls;
+    }
+
+    static List<String> crlUrls(X509Certificate certificate) throws IOException {
+        List<String> urls = new ArrayList<>();
+        Der.Reader points = extension(certificate, CRL_DISTRIBUTION_POINTS);
+        if (points != null) {
+            collectUris(points, urls);
+        }
+        return urls;
+    }
+
+    private static void collectUris(Der.Reader reader, List<String> urls) throws IOException {
+        while (reader.hasNext()) {
+            Der.Element element = reader.next();
+            if (element.tag == URI_NAME && isHttp(element.string())) {
+                urls.add(element.string());
+            } else if (element.isConstructed()) {
+                collectUris(element.reader(), urls);
+            }
+        }
+    }
+
+    private static Der.Reader extension(X509Certificate certificate, String oid) throws IOException {
+        byte[] value = certificate.getExtensionValue(oid);
+        if (value == null) {
+            return null;
+        }
+        byte[] extension = new Der.Reader(value).next(Der.OCTET_STRING).content();
+        return new Der.Reader(extension).next(Der.SEQUENCE).reader();
+    }
+
+    private static boolean isHttp(String url) {
+        return url.startsWith("http://") || url.startsWith("https://");
+    }
+
+    /**
+     * The key hash of a CertID covers the subject public key bits without the unused-bits octet.
+     */
+    private static byte[] publicKeyBits(X509Certificate certificate) throws IOException {
+        Der.Reader keyInfo = new Der.Reader(certificate.getPublicKey().getEncoded()).next(Der.SEQUENCE).reader();
+        keyInfo.next(Der.SEQUENCE);
+        byte[] bits = keyInfo.next(Der.BIT_STRING).content();
+        if (bits.length == 0) {
+            throw new IOException("Empty public key");
+        }
+        byte[] key = new byte[bits.length - 1];
+        System.arraycopy(bits, 1, key, 0, key.length);
+        return key;
+    }
+
+    private static byte[] sha1(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-1").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not available", e);
+        }
+    }
+}
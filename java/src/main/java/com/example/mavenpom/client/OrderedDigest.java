@@ -0,0 +1,140 @@
+package com.example.mavenpom.client;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SHA-1 and SHA-256 of a file that is downloaded as chunks arriving in any order.
+ * <p>
+ * Digests have to see the bytes in file order. Bytes of the chunk at the cursor go straight into the
+ * digests; bytes of later chunks are held in memory until the cursor reaches them, which the
+ * downloader bounds by never running more than a window of chunks ahead of the cursor. Chunks that
+ * were already on disk from an earlier, interrupted download are the only bytes read back.
+ */
+final class OrderedDigest {
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final MessageDigest sha1 = digest("SHA-1");
+    private final MessageDigest sha256 = digest("SHA-256");
+    private final long[] chunkStarts;
+    private final long[] chunkEnds;
+    private final boolean[] complete;
+    private final boolean[] onDisk;
+    private final Map<Integer, List<byte[]>> pending = new HashMap<>();
+    private final FileChannel channel;
+    private int cursor;
+
+    /**
+     * @param chunkEnds exclusive end offset of every chunk; the last one may be {@code Long.MAX_VALUE}
+     *                  when the length is unknown
+     */
+    OrderedDigest(long[] chunkStarts, long[] chunkEnds, FileChannel channel) {
+        this.chunkStarts = chunkStarts;
+        this.chunkEnds = chunkEnds;
+        this.complete = new boolean[chunkStarts.length];
+        this.onDisk = new boolean[chunkStarts.length];
+        this.channel = channel;
+    }
+
+    /**
+     * Adds the next bytes of {@code chunk}. Calls for one chunk must come in order.
+     */
+    synchronized void update(int chunk, byte[] data, int offset, int length) {
+        if (chunk == cursor) {
+            sha1.update(data, offset, length);
+            sha256.update(data, offset, length);
+        } else {
+            byte[] copy = new byte[length];
+            System.arraycopy(data, offset, copy, 0, length);
+            pending.computeIfAbsent(chunk, index -> new ArrayList<>()).add(copy);
+        }
+    }
+
+    synchronized void complete(int chunk) throws IOException {
+        complete[chunk] = true;
+        advance();
+    }
+
+    /**
+     * Marks a chunk that is already on disk; it is read back when the cursor reaches it.
+     */
+    synchronized void completeOnDisk(int chunk) throws IOException {
+        onDisk[chunk] = true;
+        complete(chunk);
+    }
+
+    /**
+     * Number of leading chunks whose bytes are fully digested.
+     */
+    synchronized int getDigestedChunkCount() {
+        return cursor;
+    }
+
+    synchronized boolean isDone() {
+        return cursor == chunkStarts.length;
+    }
+
+    synchronized String sha1Hex() {
+        return HexFormat.of().formatHex(((MessageDigest) clone(sha1)).digest());
+    }
+
+    synchronized String sha256Hex() {
+        return HexFormat.of().formatHex(((MessageDigest) clone(sha256)).digest());
+    }
+
+    private void advance() throws IOException {
+        while (cursor < chunkStarts.length && complete[cursor]) {
+            if (onDisk[cursor]) {
+                digestFromDisk(chunkStarts[cursor], chunkEnds[cursor]);
+            }
+            cursor++;
+            List<byte[]> buffered = pending.remove(cursor);
+            if (buffered != null) {
+                for (byte[] data : buffered) {
+                    sha1.update(data);
+                    sha256.update(data);
+                }
+            }
+        }
+    }
+
+    private void digestFromDisk(long start, long end) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        long position = start;
+        while (position < end) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), end - position));
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Partial download is shorter than recorded, at offset " + position);
+            }
+            buffer.flip();
+            sha1.update(buffer.duplicate());
+            sha256.update(buffer);
+            position += read;
+        }
+    }
+
+    private static Object clone(MessageDigest digest) {
+        try {
+            return digest.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(digest.getAlgorithm() + " cannot be cloned", e);
+        }
+    }
+
+    private static MessageDigest digest(String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(algorithm + " is not available", e);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.mavenpom.client;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Locates the directories where the plugin keeps its HTTP cache, trust store snapshots and coordinate
+ * index, so that the IDE and the prefetch command line tool use the same ones.
+ * <p>
+ * Inside the IDE they live under the IDE system directory. The client core must not link against the
+ * IDE, so that directory is looked up through {@code PathManager} only when the class is available;
+ * outside the IDE, the {@value #SYSTEM_PATH_PROPERTY} system property names it instead.
+ */
+public final class PluginPaths {
+    private static final ClientLogger LOG = ClientLogger.getInstance(PluginPaths.class);
+
+    /** System property naming the IDE system directory, for running outside the IDE. */
+    public static final String SYSTEM_PATH_PROPERTY = "mavenpom.system.path";
+    static final String PLUGIN_DIRECTORY = "maven-pom-viewer";
+    private static final String PATH_MANAGER = "com.intellij.openapi.application.PathManager";
+
+    private PluginPaths() {
+    }
+
+    /**
+     * Returns a directory for plugin data under the IDE system directory, or {@code null} when the
+     * system directory is unknown.
+     */
+    @Nullable
+    public static Path systemPath(String name) {
+        String systemPath = System.getProperty(SYSTEM_PATH_PROPERTY);
+        try {
+            if (systemPath == null || systemPath.isEmpty()) {
+                systemPath = (String) Class.forName(PATH_MANAGER, true, PluginPaths.class.getClassLoader())
+                        .getMethod("getSystemPath")
+                        .invoke(null);
+            }
+            return Paths.get(systemPath, PLUGIN_DIRECTORY, name);
+        } catch (ClassNotFoundException e) {
+            LOG.warn("Not running in the IDE and " + SYSTEM_PATH_PROPERTY + " is not set, not persisting " + name);
+            return null;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOG.warn("IDE system directory unavailable, not persisting " + name, e);
+            return null;
+        }
+    }
+}
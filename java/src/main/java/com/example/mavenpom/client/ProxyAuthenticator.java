@@ -0,0 +1,82 @@
+package com.example.mavenpom.client;
+
+import okhttp3.Authenticator;
+import okhttp3.Challenge;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.Route;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.net.HttpURLConnection;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Answers proxy authentication challenges with the Basic credentials of the router's current settings.
+ * <p>
+ * Before opening a CONNECT tunnel OkHttp offers a preemptive challenge, which is answered right away, so
+ * an authenticating proxy costs no extra 407 round trip. The credentials go on the CONNECT request only:
+ * the tunnel is then authenticated for as long as it is pooled, and the requests sent through it never
+ * carry them. Credentials the proxy has just rejected are not sent again.
+ */
+final class ProxyAuthenticator implements Authenticator {
+    private static final ClientLogger LOG = ClientLogger.getInstance(ProxyAuthenticator.class);
+    private static final String PREEMPTIVE_CHALLENGE = "OkHttp-Preemptive";
+    private static final String PROXY_AUTHORIZATION = "Proxy-Authorization";
+
+    private final ProxyRouter router;
+    private final AtomicLong authentications = new AtomicLong();
+
+    ProxyAuthenticator(ProxyRouter router) {
+        this.router = router;
+    }
+
+    long getAuthenticationCount() {
+        return authentications.get();
+    }
+
+    @Nullable
+    @Override
+    public Request authenticate(@Nullable Route route, @NotNull Response response) {
+        if (response.code() != HttpURLConnection.HTTP_PROXY_AUTH) {
+            return null;
+        }
+        String credentials = router.getSettings().getBasicCredentials();
+        if (credentials == null) {
+            if (!isPreemptive(response)) {
+                LOG.warn("Proxy " + proxyOf(route) + " requires authentication but no proxy credentials are configured");
+            }
+            return null;
+        }
+        if (credentials.equals(response.request().header(PROXY_AUTHORIZATION))) {
+            LOG.warn("Proxy " + proxyOf(route) + " rejected the configured credentials for "
+                    + router.getSettings().getUsername());
+            return null;
+        }
+        if (!isPreemptive(response) && !offersBasic(response)) {
+            LOG.warn("Proxy " + proxyOf(route) + " does not accept Basic authentication: " + response.challenges());
+            return null;
+        }
+        authentications.incrementAndGet();
+        return response.request().newBuilder()
+                .header(PROXY_AUTHORIZATION, credentials)
+                .build();
+    }
+
+    private static boolean isPreemptive(Response response) {
+        return PREEMPTIVE_CHALLENGE.equals(response.header("Proxy-Authenticate"));
+    }
+
+    private static boolean offersBasic(Response response) {
+        for (Challenge challenge : response.challenges()) {
+            if ("Basic".equalsIgnoreCase(challenge.scheme())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String proxyOf(@Nullable Route route) {
+        return route == null ? "(unknown)" : String.valueOf(route.proxy().address());
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.mavenpom.client;
+
+import okhttp3.Authenticator;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Chooses the proxy for each request from the current {@link ProxySettings}.
+ * <p>
+ * Manual settings are answered directly. A PAC script is evaluated at most once per scheme and host
+ * within {@link #DEFAULT_PAC_TTL_MS}; scripts decide by host in practice, and evaluating one can take
+ * milliseconds and DNS lookups. When a chosen proxy cannot be reached the host's answer is dropped, so
+ * the next request asks the script again.
+ * <p>
+ * One router, and with it one {@link #getAuthenticator() authenticator}, is shared by every client of
+ * a {@link SSLClientRegistry}. OkHttp only reuses a pooled connection, including an established
+ * CONNECT tunnel, for requests whose proxy selector and authenticator are the same instances.
+ */
+public final class ProxyRouter extends ProxySelector {
+    private static final ClientLogger LOG = ClientLogger.getInstance(ProxyRouter.class);
+    static final long DEFAULT_PAC_TTL_MS = TimeUnit.MINUTES.toMillis(10);
+    /** Hosts the script failed for go direct for a short while, then the script is asked again. */
+    static final long PAC_FAILURE_TTL_MS = TimeUnit.SECONDS.toMillis(30);
+    static final int MAX_CACHED_HOSTS = 1024;
+    private static final List<Proxy> NO_PROXY = List.of(Proxy.NO_PROXY);
+
+    private final long pacTtlMs;
+    private final ProxyAuthenticator authenticator = new ProxyAuthenticator(this);
+    private final ConcurrentMap<String, CachedRoute> pacRoutes = new ConcurrentHashMap<>();
+    private final AtomicLong pacEvaluations = new AtomicLong();
+    private final AtomicLong pacCacheHits = new AtomicLong();
+    private volatile ProxySettings settings;
+
+    public ProxyRouter(@NotNull ProxySettings settings) {
+        this(settings, DEFAULT_PAC_TTL_MS);
+    }
+
+    public ProxyRouter(@NotNull ProxySettings settings, long pacTtlMs) {
+        this.settings = settings;
+        this.pacTtlMs = pacTtlMs;
+    }
+
+    public ProxySettings getSettings() {
+        return settings;
+    }
+
+    /**
+     * Switches to new settings and forgets every cached PAC answer.
+     *
+     * @return whether the settings differ from the current ones
+     */
+    public synchronized boolean update(@NotNull ProxySettings updated) {
+        if (updated.equals(settings)) {
+            return false;
+        }
+        LOG.info("Proxy settings changed to " + updated);
+        settings = updated;
+        pacRoutes.clear();
+        return true;
+    }
+
+    /**
+     * The proxy authenticator to install next to this selector; the same instance every time.
+     */
+    public Authenticator getAuthenticator() {
+        return authenticator;
+    }
+
+    public long getPacEvaluationCount() {
+        return pacEvaluations.get();
+    }
+
+    public long getPacCacheHitCount() {
+        return pacCacheHits.get();
+    }
+
+    /**
+     * Number of CONNECT tunnels and requests that presented proxy credentials.
+     */
+    public long getAuthenticationCount() {
+        return authenticator.getAuthenticationCount();
+    }
+
+    @Override
+    public List<Proxy> select(URI uri) {
+        if (uri == null) {
+            throw new IllegalArgumentException("URI must not be null");
+        }
+        ProxySettings current = settings;
+        String host = uri.getHost() == null ? "" : uri.getHost().toLowerCase(Locale.ROOT);
+        switch (current.getMode()) {
+            case MANUAL:
+                return current.isNonProxyHost(host) ? NO_PROXY : List.of(current.getProxy());
+            case PAC:
+                return selectWithPac(current, uri, host);
+            default:
+                return NO_PROXY;
+        }
+    }
+
+    private List<Proxy> selectWithPac(ProxySettings current, URI uri, String host) {
+        String key = uri.getScheme() + "://" + host;
+        long now = System.currentTimeMillis();
+        CachedRoute cached = pacRoutes.get(key);
+        if (cached != null && now < cached.expiresAt) {
+            pacCacheHits.incrementAndGet();
+            return cached.proxies;
+        }
+
+        pacEvaluations.incrementAndGet();
+        List<Proxy> proxies;
+        long ttl = pacTtlMs;
+        try {
+            proxies = current.getPacEvaluator().select(uri);
+            if (proxies == null || proxies.isEmpty()) {
+                proxies = NO_PROXY;
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("PAC script failed for " + host + ", connecting directly", e);
+            proxies = NO_PROXY;
+            ttl = Math.min(ttl, PAC_FAILURE_TTL_MS);
+        }
+        proxies = List.copyOf(proxies);
+        if (pacRoutes.size() >= MAX_CACHED_HOSTS) {
+            pacRoutes.values().removeIf(route -> route.expiresAt <= now);
+            if (pacRoutes.size() >= MAX_CACHED_HOSTS) {
+                pacRoutes.clear();
+            }
+        }
+        // Settings may have changed while the script ran; don't cache an answer for the old ones
+        if (current == settings) {
+            pacRoutes.put(key, new CachedRoute(proxies, now + ttl));
+        }
+        return proxies;
+    }
+
+    @Override
+    public void connectFailed(URI uri, SocketAddress address, IOException failure) {
+        ProxySettings current = settings;
+        if (current.getMode() != ProxySettings.Mode.PAC || uri == null || uri.getHost() == null) {
+            return;
+        }
+        pacRoutes.remove(uri.getScheme() + "://" + uri.getHost().toLowerCase(Locale.ROOT));
+        current.getPacEvaluator().connectFailed(uri, address, failure);
+    }
+
+    private static final class CachedRoute {
+        final List<Proxy> proxies;
+        final long expiresAt;
+
+        CachedRoute(List<Proxy> proxies, long expiresAt) {
+            this.proxies = proxies;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.mavenpom.client;
+
+import okhttp3.Credentials;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.StringJoiner;
+import java.util.regex.Pattern;
+
+/**
+ * How requests reach the repositories: directly, through one configured proxy, or through whatever a
+ * PAC script chooses for each URL. Instances are immutable and compare by value, so callers can read
+ * the IDE settings periodically and hand them to {@link ProxyRouter#update} cheaply.
+ * <p>
+ * PAC scripts are JavaScript, and the JDK no longer ships an engine for them, so evaluation is left
+ * to a {@link ProxySelector} supplied by the environment, in the IDE the platform's own.
+ */
+public final class ProxySettings {
+    public enum Mode {
+        DIRECT, MANUAL, PAC
+    }
+
+    private static final ProxySettings DIRECT = new ProxySettings(Mode.DIRECT, null, List.of(), null, null, null, null);
+
+    private final Mode mode;
+    @Nullable
+    private final Proxy proxy;
+    private final List<String> nonProxyHosts;
+    private final List<Pattern> nonProxyPatterns;
+    @Nullable
+    private final ProxySelector pacEvaluator;
+    @Nullable
+    private final String pacLocation;
+    @Nullable
+    private final String username;
+    @Nullable
+    private final String password;
+    @Nullable
+    private final String basicCredentials;
+
+    private ProxySettings(Mode mode, @Nullable Proxy proxy, List<String> nonProxyHosts, @Nullable ProxySelector pacEvaluator,
+                          @Nullable String pacLocation, @Nullable String username, @Nullable String password) {
+        this.mode = mode;
+        this.proxy = proxy;
+        this.nonProxyHosts = List.copyOf(nonProxyHosts);
+        this.nonProxyPatterns = new ArrayList<>();
+        for (String host : this.nonProxyHosts) {
+            nonProxyPatterns.add(globPattern(host));
+        }
+        this.pacEvaluator = pacEvaluator;
+        this.pacLocation = pacLocation;
+        this.username = username == null || username.isEmpty() ? null : username;
+        this.password = this.username == null ? null : password;
+        // Computed once so every connection presents the same header without re-encoding it
+        this.basicCredentials = this.username == null ? null
+                : Credentials.basic(this.username, this.password == null ? "" : this.password, StandardCharsets.UTF_8);
+    }
+
+    public static ProxySettings direct() {
+        return DIRECT;
+    }
+
+    /**
+     * @param nonProxyHosts host names or {@code *} patterns, such as {@code *.corp.example}, that are
+     *                      connected to directly
+     */
+    public static ProxySettings manual(@NotNull Proxy.Type type, @NotNull String host, int port,
+                                       @NotNull List<String> nonProxyHosts) {
+        if (type == Proxy.Type.DIRECT) {
+            throw new IllegalArgumentException("A manual proxy needs an HTTP or SOCKS type");
+        }
+        if (port <= 0 || port > 0xffff) {
+            throw new IllegalArgumentException("Invalid proxy port: " + port);
+        }
+        // Unresolved: the proxy host is looked up when connecting, like any other host
+        Proxy proxy = new Proxy(type, InetSocketAddress.createUnresolved(host, port));
+        return new ProxySettings(Mode.MANUAL, proxy, nonProxyHosts, null, null, null, null);
+    }
+
+    /**
+     * @param evaluator   runs the PAC script; its answers are cached per host by {@link ProxyRouter}
+     * @param pacLocation the script URL, or {@code null} when it is found through WPAD. Only used to tell
+     *                    configurations apart.
+     */
+    public static ProxySettings pac(@NotNull ProxySelector evaluator, @Nullable String pacLocation) {
+        return new ProxySettings(Mode.PAC, null, List.of(), evaluator, pacLocation, null, null);
+    }
+
+    /**
+     * Returns these settings with Basic credentials for the proxies they route through.
+     */
+    public ProxySettings withCredentials(@Nullable String username, @Nullable String password) {
+        return new ProxySettings(mode, proxy, nonProxyHosts, pacEvaluator, pacLocation, username, password);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    @Nullable
+    public Proxy getProxy() {
+        return proxy;
+    }
+
+    public List<String> getNonProxyHosts() {
+        return nonProxyHosts;
+    }
+
+    @Nullable
+    public ProxySelector getPacEvaluator() {
+        return pacEvaluator;
+    }
+
+    @Nullable
+    public String getPacLocation() {
+        return pacLocation;
+    }
+
+    @Nullable
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * The {@code Proxy-Authorization} value for these credentials, or {@code null} when there are none.
+     */
+    @Nullable
+    String getBasicCredentials() {
+        return basicCredentials;
+    }
+
+    boolean isNonProxyHost(String host) {
+        for (Pattern pattern : nonProxyPatterns) {
+            if (pattern.matcher(host).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Pattern globPattern(String host) {
+        StringJoiner regex = new StringJoiner(".*");
+        for (String part : host.trim().toLowerCase(Locale.ROOT).split("\\*", -1)) {
+            regex.add(Pattern.quote(part));
+        }
+        return Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ProxySettings)) {
+            return false;
+        }
+        ProxySettings other = (ProxySettings) o;
+        return mode == other.mode
+                && Objects.equals(proxy, other.proxy)
+                && nonProxyHosts.equals(other.nonProxyHosts)
+                && pacEvaluator == other.pacEvaluator
+                && Objects.equals(pacLocation, other.pacLocation)
+                && Objects.equals(username, other.username)
+                && Objects.equals(password, other.password);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(mode, proxy, nonProxyHosts, pacLocation, username);
+    }
+
+    @Override
+    public String toString() {
+        switch (mode) {
+            case MANUAL:
+                return proxy + (nonProxyHosts.isEmpty() ? "" : " except " + String.join(", ", nonProxyHosts))
+                        + (username == null ? "" : " as " + username);
+            case PAC:
+                return "PAC " + (pacLocation == null ? "(auto-detected)" : pacLocation)
+                        + (username == null ? "" : " as " + username);
+            default:
+                return "DIRECT";
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.mavenpom.client;
+
+import org.jetbrains.annotations.NotNull;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.X509ExtendedTrustManager;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trust manager that follows a PEM bundle on disk.
+ * <p>
+ * A daemon thread watches the bundle's directory. When the file changes it is re-parsed in the
+ * background and the delegate is replaced with a single volatile write, so a handshake always sees
+ * either the complete old trust store or the complete new one and never waits for a reload. The
+ * {@link javax.net.ssl.SSLContext}, the OkHttp client and its pooled connections stay as they are.
+ * If the new content cannot be parsed, for example because it was caught half-written, the previous
+ * trust store stays in place until the next change.
+ */
+public class ReloadingTrustManager extends X509ExtendedTrustManager implements Closeable {
+    private static final ClientLogger LOG = ClientLogger.getInstance(ReloadingTrustManager.class);
+    /** Editors and deployment tools often write a file in several steps; wait for them to settle. */
+    private static final long SETTLE_DELAY_MS = 250;
+
+    private final Path certFile;
+    private final TrustStoreLoader loader;
+    private final WatchService watchService;
+    private final Thread watcherThread;
+    private volatile X509ExtendedTrustManager delegate;
+    private volatile byte[] currentDigest;
+    private volatile int reloadCount;
+
+    public ReloadingTrustManager(@NotNull Path certFile) throws IOException, GeneralSecurityException {
+        this(certFile, null, TrustStoreLoader.NO_SNAPSHOT);
+    }
+
+    ReloadingTrustManager(@NotNull Path certFile, X509ExtendedTrustManager initial, TrustStoreLoader loader)
+            throws IOException, GeneralSecurityException {
+        this.certFile = certFile.toAbsolutePath();
+        this.loader = loader;
+        byte[] content = Files.readAllBytes(this.certFile);
+        this.currentDigest = digestOf(content);
+        this.delegate = initial != null ? initial : parse(content);
+
+        Path directory = this.certFile.getParent();
+        this.watchService = FileSystems.getDefault().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+        this.watcherThread = new Thread(this::watch, "SSLClient trust store watcher: " + this.certFile.getFileName());
+        this.watcherThread.setDaemon(true);
+        this.watcherThread.start();
+        LOG.info("Watching certificate bundle for changes: " + this.certFile);
+    }
+
+    /**
+     * Re-reads the bundle now. Returns {@code true} when a new trust store was installed and
+     * {@code false} when the content is unchanged or could not be parsed.
+     */
+    public boolean reload() {
+        try {
+            byte[] content = Files.readAllBytes(certFile);
+            byte[] digest = digestOf(content);
+            if (Arrays.equals(digest, currentDigest)) {
+                return false;
+            }
+            X509ExtendedTrustManager reloaded = parse(content);
+            delegate = reloaded;
+            currentDigest = digest;
+            reloadCount++;
+            LOG.info("Reloaded certificate bundle: " + certFile
+                + " (" + reloaded.getAcceptedIssuers().length + " trusted certificates)");
+            return true;
+        } catch (Exception e) {
+            LOG.warn("Keeping previous trust store, failed to reload " + certFile + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Number of times a changed bundle has been installed since this trust manager was created.
+     */
+    public int getReloadCount() {
+        return reloadCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+        watcherThread.interrupt();
+    }
+
+    private void watch() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    Object context = event.context();
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                        || context instanceof Path && certFile.getFileName().equals(context)) {
+                        changed = true;
+                    }
+                }
+                if (changed) {
+                    // Drain the burst of events a single save usually produces before reloading once
+                    Thread.sleep(SETTLE_DELAY_MS);
+                    WatchKey more;
+                    while ((more = watchService.poll(SETTLE_DELAY_MS, TimeUnit.MILLISECONDS)) != null) {
+                        more.pollEvents();
+                        more.reset();
+                    }
+                    reload();
+                }
+                if (!key.reset()) {
+                    LOG.warn("Certificate bundle directory is no longer accessible, stopped watching: " + certFile);
+                    return;
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+        }
+    }
+
+    private X509ExtendedTrustManager parse(byte[] content) throws IOException, GeneralSecurityException {
+        return SSLClient.loadTrustManager(content, certFile.toString(), loader);
+    }
+
+    private static byte[] digestOf(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType, Socket socket) throws CertificateException {
+        delegate.checkClientTrusted(chain, authType, socket);
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType, Socket socket) throws CertificateException {
+        delegate.checkServerTrusted(chain, authType, socket);
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType, SSLEngine engine) throws CertificateException {
+        delegate.checkClientTrusted(chain, authType, engine);
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType, SSLEngine engine) throws CertificateException {
+        delegate.checkServerTrusted(chain, authType, engine);
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+        delegate.checkClientTrusted(chain, authType);
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+        delegate.checkServerTrusted(chain, authType);
+    }
+
+    @Override
+    public X509Certificate[] getAcceptedIssuers() {
+        return delegate.getAcceptedIssuers();
+    }
+}
@@ -0,0 +1,359 @@
+package com.example.mavenpom.client;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Fetches repository paths from an ordered list of mirrors, with hedged requests and latency-aware
+ * routing.
+ * <ul>
+ *   <li>Repositories are tried in order of their {@link RepositoryStats#getScoreMillis() moving average
+ *   latency}. A repository without a recent score is ranked like the best known one, so the configured
+ *   order decides until there is evidence against it.</li>
+ *   <li>When a repository has not answered by its observed p95 latency, the same path is requested from
+ *   the next repository as well. Whichever succeeds first wins and the other requests are cancelled.</li>
+ *   <li>A failure, including "not found", moves on to the next repository right away. The fetch fails
+ *   only when every repository has failed.</li>
+ * </ul>
+ * The mirrors are assumed to serve identical content, which holds for release artifacts. Each
+ * repository gets the {@link SSLClient} for its own trust bundle from the client function, which is
+ * consulted on every request so clients replaced by {@link SSLClientRegistry} are picked up.
+ */
+public class RepositoryMirrors {
+    private static final ClientLogger LOG = ClientLogger.getInstance(RepositoryMirrors.class);
+
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+    /** Hedge delay while a repository has too few samples for a meaningful p95. */
+    public static final Duration DEFAULT_HEDGE_DELAY = Duration.ofSeconds(1);
+    private static final long MIN_HEDGE_DELAY_MS = 20;
+    private static final long MAX_HEDGE_DELAY_MS = 10_000;
+
+    private final List<MavenRepository> repositories;
+    private final Function<MavenRepository, SSLClient> clients;
+    private final long defaultHedgeDelayMillis;
+    private final Map<MavenRepository, RepositoryStats> stats = new LinkedHashMap<>();
+
+    public RepositoryMirrors(@NotNull List<MavenRepository> repositories,
+                             @NotNull Function<MavenRepository, SSLClient> clients) {
+        this(repositories, clients, DEFAULT_HEDGE_DELAY);
+    }
+
+    public RepositoryMirrors(@NotNull List<MavenRepository> repositories,
+                             @NotNull Function<MavenRepository, SSLClient> clients,
+                             @NotNull Duration defaultHedgeDelay) {
+        if (repositories.isEmpty()) {
+            throw new IllegalArgumentException("At least one repository is required");
+        }
+        this.repositories = List.copyOf(repositories);
+        this.clients = clients;
+        this.defaultHedgeDelayMillis = defaultHedgeDelay.toMillis();
+        for (MavenRepository repository : this.repositories) {
+            stats.put(repository, new RepositoryStats());
+        }
+    }
+
+    /**
+     * Returns the repositories in configured order.
+     */
+    public List<MavenRepository> getRepositories() {
+        return repositories;
+    }
+
+    public RepositoryStats getStats(@NotNull MavenRepository repository) {
+        RepositoryStats repositoryStats = stats.get(repository);
+        if (repositoryStats == null) {
+            throw new IllegalArgumentException("Unknown repository: " + repository);
+        }
+        return repositoryStats;
+    }
+
+    public SSLClient getClient(@NotNull MavenRepository repository) {
+        return clients.apply(repository);
+    }
+
+    /**
+     * Returns the repositories in the order the next fetch will try them.
+     */
+    public List<MavenRepository> rank() {
+        double best = Double.NaN;
+        for (RepositoryStats repositoryStats : stats.values()) {
+            double score = repositoryStats.getScoreMillis();
+            if (!Double.isNaN(score) && (Double.isNaN(best) || score < best)) {
+                best = score;
+            }
+        }
+        double unknown = Double.isNaN(best) ? 0 : best;
+
+        Map<MavenRepository, Double> scores = new LinkedHashMap<>();
+        for (MavenRepository repository : repositories) {
+            double score = stats.get(repository).getScoreMillis();
+            scores.put(repository, Double.isNaN(score) ? unknown : score);
+        }
+        // The sort is stable, so equal scores keep the configured order
+        List<MavenRepository> ranked = new ArrayList<>(repositories);
+        ranked.sort(Comparator.comparingDouble(scores::get));
+        return ranked;
+    }
+
+    public String fetch(@NotNull String path) throws IOException {
+        CompletableFuture<String> future = fetchAsync(path, DEFAULT_TIMEOUT);
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Failed to fetch " + path, cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new InterruptedIOException("Interrupted while fetching " + path);
+        }
+    }
+
+    /**
+     * Fetches {@code path}, relative to the repository base URLs, from the first repository that has it.
+     * Cancelling the returned future cancels every request still running.
+     *
+     * @param timeout bound for each request to a single repository
+     */
+    public CompletableFuture<String> fetchAsync(@NotNull String path, @NotNull Duration timeout) {
+        HedgedFetch fetch = new HedgedFetch(path, timeout, rank());
+        fetch.launch(0, false);
+        return fetch.result;
+    }
+
+    /**
+     * Streams {@code path} from the first repository in the ranking that has it, handing the body to
+     * {@code chunkConsumer} as it arrives; see {@link SSLClient#streamAsync}. A body cannot go to one
+     * consumer from two repositories, so requests are not hedged, but a repository that fails before
+     * delivering any of the body is skipped for the next one. Streams do not feed the latency statistics.
+     * Cancelling the returned future cancels the request running.
+     *
+     * @return the number of characters handed to the consumer
+     */
+    public CompletableFuture<Long> streamAsync(@NotNull String path, int maxChars, @NotNull Predicate<String> chunkConsumer) {
+        CompletableFuture<Long> result = new CompletableFuture<>();
+        streamFrom(rank(), 0, path, maxChars, chunkConsumer, result, null);
+        return result;
+    }
+
+    private void streamFrom(List<MavenRepository> order, int index, String path, int maxChars,
+                            Predicate<String> chunkConsumer, CompletableFuture<Long> result, Throwable previous) {
+        MavenRepository repository = order.get(index);
+        AtomicBoolean delivered = new AtomicBoolean();
+        CompletableFuture<Long> attempt;
+        try {
+            attempt = clients.apply(repository).streamAsync(repository.resolve(path), maxChars, chunk -> {
+                delivered.set(true);
+                return chunkConsumer.test(chunk);
+            });
+        } catch (RuntimeException e) {
+            attempt = CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<Long> started = attempt;
+        result.whenComplete((chars, failure) -> started.cancel(true));
+        started.whenComplete((chars, failure) -> {
+            if (failure == null) {
+                result.complete(chars);
+                return;
+            }
+            Throwable cause = unwrap(failure);
+            boolean notFound = cause instanceof HttpResponseException && ((HttpResponseException) cause).isNotFound();
+            // Report a real failure in preference to "not found" from another repository
+            Throwable reported = previous == null || !notFound ? cause : previous;
+            if (delivered.get() || result.isDone() || cause instanceof CancellationException || index + 1 >= order.size()) {
+                result.completeExceptionally(reported);
+                return;
+            }
+            if (!notFound) {
+                LOG.info("Streaming " + path + " from " + repository + " failed: " + cause.getMessage());
+            }
+            streamFrom(order, index + 1, path, maxChars, chunkConsumer, result, reported);
+        });
+    }
+
+    /**
+     * Renders the ranking with the score, p95 and counters of every repository.
+     */
+    public String formatReport() {
+        StringBuilder report = new StringBuilder("Repositories (in routing order)\n");
+        for (MavenRepository repository : rank()) {
+            RepositoryStats repositoryStats = stats.get(repository);
+            report.append(String.format(Locale.ROOT,
+                    "  %s: ewma %.1f ms, p95 %.1f ms; %d ok, %d not found, %d failed, %d hedged%n",
+                    repository, repositoryStats.getScoreMillis(), repositoryStats.getP95Millis(),
+                    repositoryStats.getSuccessCount(), repositoryStats.getNotFoundCount(),
+                    repositoryStats.getFailureCount(), repositoryStats.getHedgeCount()));
+        }
+        return report.toString();
+    }
+
+    private long hedgeDelayMillis(RepositoryStats repositoryStats) {
+        double p95 = repositoryStats.getP95Millis();
+        long delay = Double.isNaN(p95) ? defaultHedgeDelayMillis : (long) Math.ceil(p95);
+        return Math.max(MIN_HEDGE_DELAY_MS, Math.min(MAX_HEDGE_DELAY_MS, delay));
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * One fetch across the ranked repositories. Attempts are launched in order, either because the
+     * previous one failed or because it has been running longer than its hedge delay; {@code launched}
+     * makes sure each repository is asked at most once.
+     */
+    private final class HedgedFetch {
+        final String path;
+        final Duration timeout;
+        final List<MavenRepository> order;
+        final CompletableFuture<String> result = new CompletableFuture<>();
+        private final List<CompletableFuture<SSLClient.Fetched>> attempts = new ArrayList<>();
+        private int launched;
+        private int finished;
+        private Throwable error;
+
+        HedgedFetch(String path, Duration timeout, List<MavenRepository> order) {
+            this.path = path;
+            this.timeout = timeout;
+            this.order = order;
+            result.whenComplete((body, failure) -> cancelAttempts());
+        }
+
+        /**
+         * Starts the attempt at {@code index} unless it has already been started or the fetch is over.
+         *
+         * @param hedge whether the previous attempt is still running, as opposed to having failed
+         */
+        void launch(int index, boolean hedge) {
+            MavenRepository repository;
+            synchronized (this) {
+                if (result.isDone() || launched != index || index >= order.size()) {
+                    return;
+                }
+                launched++;
+                repository = order.get(index);
+            }
+
+            RepositoryStats repositoryStats = stats.get(repository);
+            if (hedge) {
+                repositoryStats.recordHedge();
+            }
+            long start = System.nanoTime();
+            CompletableFuture<SSLClient.Fetched> attempt;
+            try {
+                attempt = clients.apply(repository).fetchAsync(repository.resolve(path), timeout);
+            } catch (RuntimeException e) {
+                attempt = CompletableFuture.failedFuture(e);
+            }
+            synchronized (this) {
+                attempts.add(attempt);
+            }
+            if (result.isDone()) {
+                attempt.cancel(true);
+            }
+
+            CompletableFuture<SSLClient.Fetched> started = attempt;
+            started.whenComplete((fetched, failure) -> onAttemptDone(repository, start, fetched, failure));
+            if (index + 1 < order.size()) {
+                CompletableFuture.delayedExecutor(hedgeDelayMillis(repositoryStats), TimeUnit.MILLISECONDS).execute(() -> {
+                    if (!started.isDone()) {
+                        LOG.debug("No answer from " + repository + " within its hedge delay, also asking " + order.get(index + 1));
+                        launch(index + 1, true);
+                    }
+                });
+            }
+        }
+
+        private void onAttemptDone(MavenRepository repository, long start, SSLClient.Fetched fetched, Throwable failure) {
+            long elapsed = System.nanoTime() - start;
+            RepositoryStats repositoryStats = stats.get(repository);
+            if (failure == null) {
+                // A disk cache hit takes a millisecond whichever repository it came from
+                if (fetched.fromNetwork) {
+                    repositoryStats.recordSuccess(elapsed);
+                } else {
+                    repositoryStats.recordCached();
+                }
+                result.complete(fetched.body);
+                return;
+            }
+
+            Throwable cause = unwrap(failure);
+            boolean notFound = cause instanceof HttpResponseException && ((HttpResponseException) cause).isNotFound();
+            if (cause instanceof CancellationException) {
+                // A fetch the caller cancelled says nothing about the repository
+                if (!result.isCancelled()) {
+                    repositoryStats.recordAbandoned(elapsed);
+                }
+            } else if (notFound) {
+                repositoryStats.recordNotFound(elapsed);
+            } else {
+                repositoryStats.recordFailure(elapsed);
+                LOG.info("Fetching " + path + " from " + repository + " failed: " + cause.getMessage());
+            }
+
+            boolean exhausted;
+            synchronized (this) {
+                finished++;
+                // Report a real failure in preference to "not found" from another repository
+                if (error == null || (!notFound && !(cause instanceof CancellationException))) {
+                    error = cause;
+                }
+                exhausted = finished == order.size();
+            }
+            if (exhausted) {
+                result.completeExceptionally(error);
+            } else {
+                launchAfterFailure();
+            }
+        }
+
+        /**
+         * Moves on to the next repository, unless a hedge is already running; its own hedge timer and
+         * failure handling take it from there.
+         */
+        private void launchAfterFailure() {
+            int next;
+            synchronized (this) {
+                if (finished < launched) {
+                    return;
+                }
+                next = launched;
+            }
+            launch(next, false);
+        }
+
+        private void cancelAttempts() {
+            List<CompletableFuture<SSLClient.Fetched>> running;
+            synchronized (this) {
+                running = new ArrayList<>(attempts);
+            }
+            for (CompletableFuture<SSLClient.Fetched> attempt : running) {
+                attempt.cancel(true);
+            }
+        }
+    }
+}
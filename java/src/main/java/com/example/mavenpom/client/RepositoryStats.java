@@ -0,0 +1,116 @@
+package com.example.mavenpom.client;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency record of one repository in {@link RepositoryMirrors}: an exponentially weighted moving
+ * average used to rank repositories, and a histogram whose p95 decides when to hedge.
+ * <p>
+ * Failures count as slow responses so a broken mirror drops down the ranking. A score that has not
+ * been updated for a while is considered unknown again, which gives a mirror that was down a chance
+ * to come back.
+ */
+public final class RepositoryStats {
+    /** Weight of the newest sample; about the last ten requests dominate the average. */
+    static final double EWMA_ALPHA = 0.2;
+    static final long FAILURE_PENALTY_MS = 5_000;
+    static final long SCORE_TTL_MS = TimeUnit.MINUTES.toMillis(10);
+    static final int MIN_HEDGE_SAMPLES = 10;
+
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final AtomicLong successes = new AtomicLong();
+    private final AtomicLong notFound = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong hedges = new AtomicLong();
+    private double ewmaMillis = Double.NaN;
+    private long lastUpdateMillis;
+
+    void recordSuccess(long nanos) {
+        successes.incrementAndGet();
+        latencies.record(nanos);
+        update(TimeUnit.NANOSECONDS.toMillis(nanos));
+    }
+
+    /**
+     * A response served from the disk cache. It counts as a success but its time is not the
+     * repository's, so it stays out of the score and the histogram.
+     */
+    void recordCached() {
+        successes.incrementAndGet();
+    }
+
+    /**
+     * The repository answered quickly that it does not have the resource; that says nothing bad about
+     * its latency.
+     */
+    void recordNotFound(long nanos) {
+        notFound.incrementAndGet();
+        latencies.record(nanos);
+        update(TimeUnit.NANOSECONDS.toMillis(nanos));
+    }
+
+    void recordFailure(long nanos) {
+        failures.incrementAndGet();
+        update(Math.max(TimeUnit.NANOSECONDS.toMillis(nanos), FAILURE_PENALTY_MS));
+    }
+
+    /**
+     * A request that lost to a hedge and was cancelled. Its response would have taken at least this
+     * long, so the time is only a lower bound: it may raise the score but never lowers it. A hedge
+     * cancelled just after it started would otherwise make the slower mirror look the fastest.
+     */
+    synchronized void recordAbandoned(long nanos) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        if (isScoreKnown() && millis > ewmaMillis) {
+            update(millis);
+        }
+    }
+
+    void recordHedge() {
+        hedges.incrementAndGet();
+    }
+
+    private synchronized void update(double millis) {
+        ewmaMillis = isScoreKnown() ? ewmaMillis + EWMA_ALPHA * (millis - ewmaMillis) : millis;
+        lastUpdateMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Returns the moving average latency in milliseconds, or {@code NaN} when there is no recent sample.
+     */
+    public synchronized double getScoreMillis() {
+        return isScoreKnown() ? ewmaMillis : Double.NaN;
+    }
+
+    private boolean isScoreKnown() {
+        return !Double.isNaN(ewmaMillis) && System.currentTimeMillis() - lastUpdateMillis < SCORE_TTL_MS;
+    }
+
+    /**
+     * Returns the observed p95 latency in milliseconds, or {@code NaN} until there are enough samples
+     * for it to mean anything.
+     */
+    public double getP95Millis() {
+        return latencies.getCount() < MIN_HEDGE_SAMPLES ? Double.NaN : latencies.getPercentileMillis(95);
+    }
+
+    public long getSuccessCount() {
+        return successes.get();
+    }
+
+    public long getNotFoundCount() {
+        return notFound.get();
+    }
+
+    public long getFailureCount() {
+        return failures.get();
+    }
+
+    /**
+     * Requests sent to this repository because the one ranked before it had not answered in time.
+     */
+    public long getHedgeCount() {
+        return hedges.get();
+    }
+}
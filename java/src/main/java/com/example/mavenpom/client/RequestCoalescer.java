@@ -0,0 +1,152 @@
+package com.example.mavenpom.client;
+
+import okhttp3.Call;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Single-flight coalescing of identical requests: while a call for a key is in flight, further
+ * requests for that key wait for its result instead of starting their own call.
+ * <p>
+ * Every caller gets its own future. Cancelling it, or letting it time out, only detaches that caller;
+ * the shared call is cancelled once no caller is waiting for it any more. A caller's timeout counts
+ * from when the shared call starts running, not from when it was queued behind the dispatcher's
+ * limits, so a large batch does not time out its own tail. Entries are removed as soon
+ * as their call completes, and beyond {@link #MAX_IN_FLIGHT} distinct keys new requests bypass the map
+ * and run on their own, so the map never holds more than that.
+ */
+final class RequestCoalescer<T> {
+    static final int MAX_IN_FLIGHT = 1024;
+
+    private final ConcurrentMap<String, Flight> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Returns a future for the result of the call identified by {@code key}. When no such call is in
+     * flight, one is created with {@code newCall} and handed to {@code starter} on the calling thread,
+     * which must eventually complete the given result future. {@code newCall} is given the action to
+     * run once the call starts; see {@link CallStartInterceptor}.
+     *
+     * @param timeout how long this caller waits once the call has started, or {@code null} for as
+     *                long as the call takes
+     */
+    CompletableFuture<T> join(String key, Function<Runnable, Call> newCall, BiConsumer<Call, CompletableFuture<T>> starter,
+                              @Nullable Duration timeout) {
+        while (true) {
+            Flight flight = inFlight.get(key);
+            boolean leader = false;
+            if (flight == null) {
+                Flight created = new Flight(key);
+                if (inFlight.size() >= MAX_IN_FLIGHT) {
+                    flight = created;
+                } else {
+                    flight = inFlight.putIfAbsent(key, created);
+                    if (flight == null) {
+                        flight = created;
+                    }
+                }
+                leader = flight == created;
+            }
+
+            CompletableFuture<T> waiter = flight.tryJoin();
+            if (waiter == null) {
+                // Finished, or abandoned by its last waiter, but not yet removed; start over with a new flight
+                inFlight.remove(key, flight);
+                continue;
+            }
+            Flight joined = flight;
+            if (timeout != null) {
+                joined.started.thenRun(() -> CompletableFuture.delayedExecutor(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                        .execute(() -> waiter.completeExceptionally(new InterruptedIOException("timeout"))));
+            }
+            if (leader) {
+                joined.start(newCall.apply(() -> joined.started.complete(null)), starter);
+            }
+            return waiter;
+        }
+    }
+
+    int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    private final class Flight {
+        private final String key;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final CompletableFuture<Void> started = new CompletableFuture<>();
+        private int waiters;
+        private boolean abandoned;
+        @Nullable
+        private Call call;
+
+        Flight(String key) {
+            this.key = key;
+            result.whenComplete((body, error) -> inFlight.remove(key, this));
+        }
+
+        /**
+         * Returns {@code null} once the call has completed: dependents of a future run in no particular
+         * order, so waiters may be released before the completion callback removes this flight, and a
+         * caller arriving in between must not be handed the old result.
+         */
+        synchronized CompletableFuture<T> tryJoin() {
+            if (abandoned || result.isDone()) {
+                return null;
+            }
+            waiters++;
+
+            CompletableFuture<T> waiter = new CompletableFuture<>();
+            result.whenComplete((body, error) -> {
+                if (error != null) {
+                    waiter.completeExceptionally(error);
+                } else {
+                    waiter.complete(body);
+                }
+            });
+            waiter.whenComplete((body, error) -> {
+                // Completed by someone other than the shared call: cancelled or timed out
+                if (!result.isDone()) {
+                    leave();
+                }
+            });
+            return waiter;
+        }
+
+        void start(Call newCall, BiConsumer<Call, CompletableFuture<T>> starter) {
+            synchronized (this) {
+                if (abandoned) {
+                    return;
+                }
+                call = newCall;
+            }
+            try {
+                starter.accept(newCall, result);
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }
+
+        private void leave() {
+            Call toCancel;
+            synchronized (this) {
+                if (--waiters > 0 || abandoned) {
+                    return;
+                }
+                abandoned = true;
+                toCancel = call;
+            }
+            inFlight.remove(key, this);
+            if (toCancel != null) {
+                toCancel.cancel();
+            }
+            result.cancel(false);
+        }
+    }
+}
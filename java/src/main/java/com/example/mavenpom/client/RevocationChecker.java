@@ -0,0 +1,691 @@
+package com.example.mavenpom.client;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.CertPathValidator;
+import java.security.cert.CertPathValidatorException;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.CRLException;
+import java.security.cert.PKIXParameters;
+import java.security.cert.PKIXReason;
+import java.security.cert.PKIXRevocationChecker;
+import java.security.cert.TrustAnchor;
+import java.security.cert.X509CRL;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Checks server certificates for revocation without putting OCSP or CRL requests on the handshake path
+ * once a status is known.
+ * <p>
+ * Statuses are kept per certificate in memory until the {@code nextUpdate} of the OCSP response or
+ * CRL they came from. OCSP responses are also stored on disk together with the certificate and its
+ * issuer, and on startup they are loaded, and refreshed when due, in the background before the first
+ * handshake needs them. A status that is still in use is refreshed in the background a quarter of its
+ * validity period before it expires, so steady-state handshakes only do a map lookup. Responses stapled
+ * by the server are used when the JVM asks for them ({@code jdk.tls.client.enableStatusRequestExtension}).
+ * <p>
+ * Only a certificate seen for the first time, or whose status expired unused, costs a blocking request:
+ * OCSP when the certificate names a responder, falling back to its CRL distribution points. Every
+ * response, fetched, stapled or read from disk, is verified by the JDK's {@link PKIXRevocationChecker}
+ * against the issuer before it is trusted; CRLs are verified against the issuer's key.
+ * <p>
+ * With {@link Mode#SOFT_FAIL} a certificate whose status cannot be determined is accepted, and the
+ * failure is remembered briefly so an unreachable responder does not slow down every handshake. With
+ * {@link Mode#HARD_FAIL} it is rejected. Revoked certificates are rejected in both modes.
+ */
+public final class RevocationChecker {
+    private static final ClientLogger LOG = ClientLogger.getInstance(RevocationChecker.class);
+
+    /** System property selecting the {@link Mode}: {@code off}, {@code soft} or {@code hard}. */
+    public static final String MODE_PROPERTY = "mavenpom.revocation";
+    static final long NO_NEXT_UPDATE_TTL_MS = TimeUnit.MINUTES.toMillis(10);
+    static final long NOT_CHECKABLE_TTL_MS = TimeUnit.HOURS.toMillis(1);
+    static final long FAILURE_BACKOFF_MS = TimeUnit.MINUTES.toMillis(1);
+    static final long MAX_REFRESH_AHEAD_MS = TimeUnit.HOURS.toMillis(1);
+    static final int MAX_ENTRIES = 4096;
+    private static final Duration FETCH_TIMEOUT = Duration.ofSeconds(5);
+    private static final long MAX_CRL_BYTES = 32L * 1024 * 1024;
+    private static final long READ_BUFFER_SIZE = 64 * 1024;
+    private static final MediaType OCSP_REQUEST = MediaType.get("application/ocsp-request");
+    private static final String OCSP_FILE_SUFFIX = ".ocsp";
+    private static final String CRL_FILE_SUFFIX = ".crl";
+
+    // One daemon thread for every checker: refreshes are rare and each is a single small request
+    private static final ScheduledExecutorService REFRESHER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "SSLClient revocation refresher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public enum Mode {
+        OFF, SOFT_FAIL, HARD_FAIL;
+
+        /**
+         * Reads {@value #MODE_PROPERTY}; revocation checking is on with soft failure unless configured otherwise.
+         */
+        public static Mode fromSystemProperty() {
+            String value = System.getProperty(MODE_PROPERTY, "soft").trim().toLowerCase(Locale.ROOT);
+            switch (value) {
+                case "off":
+                    return OFF;
+                case "hard":
+                    return HARD_FAIL;
+                case "soft":
+                    return SOFT_FAIL;
+                default:
+                    LOG.warn("Unknown " + MODE_PROPERTY + " value '" + value + "', using soft failure");
+                    return SOFT_FAIL;
+            }
+        }
+    }
+
+    private enum State {
+        GOOD, REVOKED, UNDETERMINED, NOT_APPLICABLE
+    }
+
+    private final Mode mode;
+    @Nullable
+    private final Path directory;
+    private final OkHttpClient httpClient;
+    private final ConcurrentMap<String, Entry> statuses = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CompletableFuture<Entry>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CrlEntry> crls = new ConcurrentHashMap<>();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong networkFetches = new AtomicLong();
+    private final AtomicLong stapledResponses = new AtomicLong();
+
+    /**
+     * @param directory where OCSP responses and CRLs are kept across sessions, or {@code null} to keep
+     *                  them in memory only
+     */
+    public RevocationChecker(@NotNull Mode mode, @Nullable Path directory) {
+        this(mode, directory, (ProxyRouter) null);
+    }
+
+    /**
+     * @param proxyRouter routes OCSP and CRL requests through the same proxies as the repositories,
+     *                    or {@code null} to use the JVM's default {@link java.net.ProxySelector}
+     */
+    public RevocationChecker(@NotNull Mode mode, @Nullable Path directory, @Nullable ProxyRouter proxyRouter) {
+        this(mode, directory, newHttpClient(proxyRouter));
+    }
+
+    RevocationChecker(Mode mode, @Nullable Path directory, OkHttpClient httpClient) {
+        this.mode = mode;
+        this.directory = directory;
+        this.httpClient = httpClient;
+        if (directory != null && mode != Mode.OFF) {
+            REFRESHER.execute(this::preload);
+        }
+    }
+
+    private static OkHttpClient newHttpClient(@Nullable ProxyRouter proxyRouter) {
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .connectTimeout(FETCH_TIMEOUT)
+                .readTimeout(FETCH_TIMEOUT)
+                .callTimeout(FETCH_TIMEOUT.multipliedBy(2));
+        if (proxyRouter != null) {
+            builder.proxySelector(proxyRouter)
+                    .proxyAuthenticator(proxyRouter.getAuthenticator());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the process-wide checker for clients created without one, configured by
+     * {@value #MODE_PROPERTY} and kept in memory only.
+     */
+    public static RevocationChecker getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    private static final class DefaultHolder {
+        static final RevocationChecker INSTANCE = new RevocationChecker(Mode.fromSystemProperty(), null);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Number of certificate statuses answered from memory without any I/O.
+     */
+    public long getCacheHitCount() {
+        return cacheHits.get();
+    }
+
+    /**
+     * Number of OCSP and CRL requests sent, including background refreshes.
+     */
+    public long getNetworkFetchCount() {
+        return networkFetches.get();
+    }
+
+    public long getStapledResponseCount() {
+        return stapledResponses.get();
+    }
+
+    /**
+     * Checks every certificate of a chain that already passed path validation.
+     *
+     * @param trustAnchors the trusted certificates, used to find the issuer of the last certificate in
+     *                     the chain; only consulted when a status is not cached
+     * @param stapled      OCSP responses stapled by the server, indexed like {@code chain}; may be empty
+     * @throws CertificateException when a certificate is revoked, or its status cannot be determined
+     *                              and the mode is {@link Mode#HARD_FAIL}
+     */
+    public void check(@NotNull X509Certificate[] chain, @NotNull TrustAnchorSource trustAnchors,
+                      @NotNull List<byte[]> stapled) throws CertificateException {
+        if (mode == Mode.OFF) {
+            return;
+        }
+        for (int i = 0; i < chain.length; i++) {
+            byte[] staple = i < stapled.size() && stapled.get(i) != null && stapled.get(i).length > 0 ? stapled.get(i) : null;
+            Entry entry = status(chain[i], chain, trustAnchors, staple);
+            if (entry.state == State.REVOKED) {
+                throw new CertificateException("Certificate has been revoked: "
+                        + chain[i].getSubjectX500Principal() + " (" + entry.detail + ")");
+            }
+            if (entry.state == State.UNDETERMINED && mode == Mode.HARD_FAIL) {
+                throw new CertificateException("Revocation status of " + chain[i].getSubjectX500Principal()
+                        + " could not be determined: " + entry.detail);
+            }
+        }
+    }
+
+    /**
+     * Supplies the trusted certificates lazily, since copying them is only needed on a cache miss.
+     */
+    public interface TrustAnchorSource {
+        X509Certificate[] get();
+    }
+
+    private Entry status(X509Certificate certificate, X509Certificate[] chain, TrustAnchorSource trustAnchors,
+                         @Nullable byte[] staple) throws CertificateException {
+        String key = fingerprint(certificate);
+        long now = System.currentTimeMillis();
+        Entry cached = statuses.get(key);
+        if (cached != null && now < cached.expiresAt && (staple == null || Arrays.equals(staple, cached.ocspResponse))) {
+            cached.lastUsedAt = now;
+            cacheHits.incrementAndGet();
+            return cached;
+        }
+
+        X509Certificate[] anchors = trustAnchors.get();
+        if (isTrustAnchor(certificate, anchors)) {
+            // Trust anchors are trusted as configured; the JDK does not check their revocation either
+            return remember(key, new Entry(State.NOT_APPLICABLE, now, now + NOT_CHECKABLE_TTL_MS, null, "trust anchor"));
+        }
+        X509Certificate issuer = findIssuer(certificate, chain, anchors);
+        if (issuer == null) {
+            return remember(key, new Entry(State.UNDETERMINED, now, now + FAILURE_BACKOFF_MS, null, "issuer not found"));
+        }
+        if (staple != null) {
+            Entry stapledEntry = fromOcsp(certificate, issuer, staple, "stapled response");
+            if (stapledEntry != null) {
+                stapledResponses.incrementAndGet();
+                stapledEntry.lastUsedAt = System.currentTimeMillis();
+                store(key, stapledEntry, certificate, issuer);
+                return stapledEntry;
+            }
+        }
+
+        // Concurrent handshakes with a new chain share one lookup
+        CompletableFuture<Entry> lookup = new CompletableFuture<>();
+        CompletableFuture<Entry> running = inFlight.putIfAbsent(key, lookup);
+        if (running != null) {
+            return running.join();
+        }
+        try {
+            Entry entry = resolve(key, certificate, issuer, false);
+            entry.lastUsedAt = System.currentTimeMillis();
+            lookup.complete(entry);
+            return entry;
+        } catch (RuntimeException e) {
+            lookup.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, lookup);
+        }
+    }
+
+    /**
+     * Finds the status on disk or on the network and caches it.
+     *
+     * @param refresh skip the disk and CRLs cached in memory, for background refreshes
+     */
+    private Entry resolve(String key, X509Certificate certificate, X509Certificate issuer, boolean refresh) {
+        long now = System.currentTimeMillis();
+        if (!refresh) {
+            Entry stored = loadOcsp(key, certificate, issuer);
+            if (stored != null) {
+                store(key, stored, certificate, issuer);
+                return stored;
+            }
+        }
+
+        List<String> responders;
+        List<String> distributionPoints;
+        try {
+            responders = OcspMessages.responderUrls(certificate);
+            distributionPoints = OcspMessages.crlUrls(certificate);
+        } catch (IOException e) {
+            return remember(key, new Entry(State.UNDETERMINED, now, now + NOT_CHECKABLE_TTL_MS, null,
+                    "unreadable revocation extensions: " + e.getMessage()));
+        }
+        if (responders.isEmpty() && distributionPoints.isEmpty()) {
+            return remember(key, new Entry(State.UNDETERMINED, now, now + NOT_CHECKABLE_TTL_MS, null,
+                    "certificate names no OCSP responder or CRL distribution point"));
+        }
+
+        String failure = null;
+        for (String url : responders) {
+            try {
+                byte[] response = fetch(new Request.Builder()
+                        .url(url)
+                        .header("Accept", "application/ocsp-response")
+                        .post(RequestBody.create(OcspMessages.request(certificate, issuer), OCSP_REQUEST))
+                        .build(), MAX_CRL_BYTES);
+                Entry entry = fromOcsp(certificate, issuer, response, url);
+                if (entry != null) {
+                    store(key, entry, certificate, issuer);
+                    saveOcsp(key, certificate, issuer, response);
+                    return entry;
+                }
+                failure = "invalid OCSP response from " + url;
+            } catch (IOException e) {
+                failure = "OCSP request to " + url + " failed: " + e.getMessage();
+            }
+        }
+        for (String url : distributionPoints) {
+            try {
+                CrlEntry crl = crl(url, issuer, refresh);
+                boolean revoked = crl.crl.getRevokedCertificate(certificate) != null;
+                Entry entry = new Entry(revoked ? State.REVOKED : State.GOOD, crl.thisUpdate, crl.expiresAt, null, "CRL " + url);
+                store(key, entry, certificate, issuer);
+                return entry;
+            } catch (IOException | GeneralSecurityException e) {
+                failure = "CRL " + url + " unusable: " + e.getMessage();
+            }
+        }
+        LOG.info("Revocation status of " + certificate.getSubjectX500Principal() + " unavailable: " + failure);
+        return remember(key, new Entry(State.UNDETERMINED, now, now + FAILURE_BACKOFF_MS, null, failure));
+    }
+
+    /**
+     * Verifies an OCSP response with the JDK and turns it into an entry, or returns {@code null} when it
+     * is not a valid, current response for {@code certificate}.
+     */
+    @Nullable
+    private static Entry fromOcsp(X509Certificate certificate, X509Certificate issuer, byte[] response, String source) {
+        OcspMessages.Status status;
+        try {
+            status = OcspMessages.parse(response, certificate);
+        } catch (IOException e) {
+            LOG.info("Ignoring OCSP response from " + source + ": " + e.getMessage());
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        long expiresAt = status.nextUpdate > 0 ? status.nextUpdate : status.thisUpdate + NO_NEXT_UPDATE_TTL_MS;
+        if (expiresAt <= now || status.status == OcspMessages.UNKNOWN) {
+            return null;
+        }
+
+        State state;
+        try {
+            CertPathValidator validator = CertPathValidator.getInstance("PKIX");
+            PKIXRevocationChecker checker = (PKIXRevocationChecker) validator.getRevocationChecker();
+            checker.setOptions(EnumSet.of(PKIXRevocationChecker.Option.ONLY_END_ENTITY,
+                    PKIXRevocationChecker.Option.NO_FALLBACK));
+            checker.setOcspResponses(Map.of(certificate, response));
+            PKIXParameters parameters = new PKIXParameters(Set.of(new TrustAnchor(issuer, null)));
+            parameters.setRevocationEnabled(false);
+            parameters.addCertPathChecker(checker);
+            validator.validate(CertificateFactory.getInstance("X.509").generateCertPath(List.of(certificate)), parameters);
+            state = State.GOOD;
+        } catch (CertPathValidatorException e) {
+            if (e.getReason() != CertPathValidatorException.BasicReason.REVOKED) {
+                LOG.info("Rejected OCSP response from " + source + " for " + certificate.getSubjectX500Principal()
+                        + ": " + e.getMessage());
+                return null;
+            }
+            state = State.REVOKED;
+        } catch (GeneralSecurityException e) {
+            LOG.info("Cannot verify OCSP response from " + source + ": " + e.getMessage());
+            return null;
+        }
+        if ((state == State.REVOKED) != (status.status == OcspMessages.REVOKED)) {
+            return null;
+        }
+        return new Entry(state, status.thisUpdate, expiresAt, response, "OCSP " + source);
+    }
+
+    private CrlEntry crl(String url, X509Certificate issuer, boolean refresh) throws IOException, GeneralSecurityException {
+        long now = System.currentTimeMillis();
+        CrlEntry cached = crls.get(url);
+        if (!refresh && cached != null && now < cached.expiresAt) {
+            return cached;
+        }
+        Path file = file(sha256(url.getBytes(StandardCharsets.UTF_8)) + CRL_FILE_SUFFIX);
+        if (!refresh && file != null && Files.isRegularFile(file)) {
+            try {
+                CrlEntry stored = verifyCrl(Files.readAllBytes(file), issuer, Files.getLastModifiedTime(file).toMillis());
+                if (now < stored.expiresAt) {
+                    crls.put(url, stored);
+                    return stored;
+                }
+            } catch (IOException | GeneralSecurityException e) {
+                LOG.debug("Ignoring cached CRL " + file + ": " + e.getMessage());
+            }
+        }
+        byte[] encoded = fetch(new Request.Builder().url(url).build(), MAX_CRL_BYTES);
+        CrlEntry fetched = verifyCrl(encoded, issuer, now);
+        crls.put(url, fetched);
+        write(file, encoded);
+        return fetched;
+    }
+
+    private static CrlEntry verifyCrl(byte[] encoded, X509Certificate issuer, long fetchedAt) throws GeneralSecurityException {
+        X509CRL crl = (X509CRL) CertificateFactory.getInstance("X.509").generateCRL(new ByteArrayInputStream(encoded));
+        if (!crl.getIssuerX500Principal().equals(issuer.getSubjectX500Principal())) {
+            throw new CRLException("CRL issued by " + crl.getIssuerX500Principal() + ", not " + issuer.getSubjectX500Principal());
+        }
+        crl.verify(issuer.getPublicKey());
+        long thisUpdate = crl.getThisUpdate().getTime();
+        long expiresAt = crl.getNextUpdate() != null ? crl.getNextUpdate().getTime() : fetchedAt + NO_NEXT_UPDATE_TTL_MS;
+        if (expiresAt <= System.currentTimeMillis()) {
+            throw new CRLException("CRL expired at " + crl.getNextUpdate());
+        }
+        return new CrlEntry(crl, thisUpdate, expiresAt);
+    }
+
+    private byte[] fetch(Request request, long maxBytes) throws IOException {
+        networkFetches.incrementAndGet();
+        try (Response response = httpClient.newCall(request).execute()) {
+            ResponseBody body = response.body();
+            if (!response.isSuccessful() || body == null) {
+                throw new IOException("HTTP " + response.code());
+            }
+            if (body.contentLength() > maxBytes) {
+                throw new IOException("Response of " + body.contentLength() + " bytes is too large");
+            }
+            // Chunked responses announce no length, so the limit is enforced while reading
+            BufferedSource source = body.source();
+            Buffer buffer = new Buffer();
+            while (source.read(buffer, READ_BUFFER_SIZE) != -1) {
+                if (buffer.size() > maxBytes) {
+                    throw new IOException("Response exceeds " + maxBytes + " bytes");
+                }
+            }
+            return buffer.readByteArray();
+        }
+    }
+
+    /**
+     * Caches an entry that is not worth refreshing in the background: anchors, and statuses that could
+     * not be determined.
+     */
+    private Entry remember(String key, Entry entry) {
+        put(key, entry);
+        return entry;
+    }
+
+    private void store(String key, Entry entry, X509Certificate certificate, X509Certificate issuer) {
+        put(key, entry);
+        scheduleRefresh(key, entry, certificate, issuer, refreshDelay(entry));
+    }
+
+    private void put(String key, Entry entry) {
+        if (statuses.size() >= MAX_ENTRIES) {
+            long now = System.currentTimeMillis();
+            statuses.values().removeIf(existing -> existing.expiresAt <= now);
+            if (statuses.size() >= MAX_ENTRIES) {
+                statuses.clear();
+            }
+        }
+        statuses.put(key, entry);
+    }
+
+    private static long refreshDelay(Entry entry) {
+        long ahead = Math.min(MAX_REFRESH_AHEAD_MS, Math.max(0, entry.expiresAt - entry.thisUpdate) / 4);
+        return Math.max(0, entry.expiresAt - ahead - System.currentTimeMillis());
+    }
+
+    private void scheduleRefresh(String key, Entry entry, X509Certificate certificate, X509Certificate issuer, long delayMs) {
+        REFRESHER.schedule(() -> {
+            if (statuses.get(key) != entry) {
+                return;
+            }
+            if (entry.lastUsedAt < entry.storedAt) {
+                // Nobody needed it since it was fetched; let it expire and fetch it again on demand
+                return;
+            }
+            Entry refreshed = resolve(key, certificate, issuer, true);
+            if (refreshed.state == State.UNDETERMINED) {
+                // Keep serving the previous status while it is valid and try again a little later
+                statuses.put(key, entry);
+                long retryAt = System.currentTimeMillis() + FAILURE_BACKOFF_MS;
+                if (retryAt < entry.expiresAt) {
+                    scheduleRefresh(key, entry, certificate, issuer, FAILURE_BACKOFF_MS);
+                }
+            }
+        }, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Loads the OCSP responses of the previous session and refreshes those that are due, so the first
+     * handshakes of this session find them in memory.
+     */
+    private void preload() {
+        if (directory == null || !Files.isDirectory(directory)) {
+            return;
+        }
+        int loaded = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + OCSP_FILE_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String key = name.substring(0, name.length() - OCSP_FILE_SUFFIX.length());
+                if (statuses.containsKey(key)) {
+                    continue;
+                }
+                StoredResponse stored = readOcsp(file);
+                if (stored == null || stored.certificate.getNotAfter().getTime() <= System.currentTimeMillis()) {
+                    Files.deleteIfExists(file);
+                    continue;
+                }
+                Entry entry = fromOcsp(stored.certificate, stored.issuer, stored.response, file.toString());
+                if (entry == null || refreshDelay(entry) == 0) {
+                    // Stale: fetch a current response now rather than during the first handshake
+                    entry = resolve(key, stored.certificate, stored.issuer, true);
+                } else {
+                    store(key, entry, stored.certificate, stored.issuer);
+                }
+                // Refresh it once this session; afterwards only if a handshake used it
+                entry.lastUsedAt = System.currentTimeMillis();
+                loaded++;
+            }
+        } catch (IOException e) {
+            LOG.warn("Could not read revocation cache " + directory, e);
+        }
+        if (loaded > 0) {
+            LOG.info("Loaded " + loaded + " cached OCSP responses from " + directory);
+        }
+    }
+
+    @Nullable
+    private Entry loadOcsp(String key, X509Certificate certificate, X509Certificate issuer) {
+        Path file = file(key + OCSP_FILE_SUFFIX);
+        if (file == null || !Files.isRegularFile(file)) {
+            return null;
+        }
+        StoredResponse stored = readOcsp(file);
+        return stored == null ? null : fromOcsp(certificate, issuer, stored.response, file.toString());
+    }
+
+    @Nullable
+    private static StoredResponse readOcsp(Path file) {
+        try {
+            Der.Reader reader = new Der.Reader(Files.readAllBytes(file)).next(Der.SEQUENCE).reader();
+            CertificateFactory factory = CertificateFactory.getInstance("X.509");
+            X509Certificate certificate = (X509Certificate) factory.generateCertificate(
+                    new ByteArrayInputStream(reader.next(Der.OCTET_STRING).content()));
+            X509Certificate issuer = (X509Certificate) factory.generateCertificate(
+                    new ByteArrayInputStream(reader.next(Der.OCTET_STRING).content()));
+            return new StoredResponse(certificate, issuer, reader.next(Der.OCTET_STRING).content());
+        } catch (IOException | CertificateException e) {
+            LOG.debug("Ignoring unreadable cached OCSP response " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void saveOcsp(String key, X509Certificate certificate, X509Certificate issuer, byte[] response) {
+        try {
+            write(file(key + OCSP_FILE_SUFFIX), Der.encode(Der.SEQUENCE,
+                    Der.encode(Der.OCTET_STRING, certificate.getEncoded()),
+                    Der.encode(Der.OCTET_STRING, issuer.getEncoded()),
+                    Der.encode(Der.OCTET_STRING, response)));
+        } catch (CertificateException e) {
+            LOG.debug("Not caching OCSP response for unencodable certificate: " + e.getMessage());
+        }
+    }
+
+    @Nullable
+    private Path file(String name) {
+        return directory == null ? null : directory.resolve(name);
+    }
+
+    private static void write(@Nullable Path file, byte[] content) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(file.getParent());
+            Path temporary = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            Files.write(temporary, content);
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.warn("Could not write revocation cache file " + file, e);
+        }
+    }
+
+    private static boolean isTrustAnchor(X509Certificate certificate, X509Certificate[] anchors) {
+        for (X509Certificate anchor : anchors) {
+            if (anchor.equals(certificate)) {
+                return true;
+            }
+        }
+        return certificate.getSubjectX500Principal().equals(certificate.getIssuerX500Principal());
+    }
+
+    @Nullable
+    private static X509Certificate findIssuer(X509Certificate certificate, X509Certificate[] chain, X509Certificate[] anchors) {
+        X509Certificate issuer = findIssuer(certificate, chain);
+        return issuer != null ? issuer : findIssuer(certificate, anchors);
+    }
+
+    @Nullable
+    private static X509Certificate findIssuer(X509Certificate certificate, X509Certificate[] candidates) {
+        for (X509Certificate candidate : candidates) {
+            if (candidate != certificate
+                    && candidate.getSubjectX500Principal().equals(certificate.getIssuerX500Principal())) {
+                try {
+                    certificate.verify(candidate.getPublicKey());
+                    return candidate;
+                } catch (GeneralSecurityException e) {
+                    // Same name, different key, e.g. a re-keyed CA; keep looking
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String fingerprint(X509Certificate certificate) throws CertificateException {
+        return sha256(certificate.getEncoded());
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static final class Entry {
+        final State state;
+        final long thisUpdate;
+        final long expiresAt;
+        final long storedAt = System.currentTimeMillis();
+        @Nullable
+        final byte[] ocspResponse;
+        final String detail;
+        volatile long lastUsedAt;
+
+        Entry(State state, long thisUpdate, long expiresAt, @Nullable byte[] ocspResponse, String detail) {
+            this.state = state;
+            this.thisUpdate = thisUpdate;
+            this.expiresAt = expiresAt;
+            this.ocspResponse = ocspResponse;
+            this.detail = detail;
+        }
+    }
+
+    private static final class CrlEntry {
+        final X509CRL crl;
+        final long thisUpdate;
+        final long expiresAt;
+
+        CrlEntry(X509CRL crl, long thisUpdate, long expiresAt) {
+            this.crl = crl;
+            this.thisUpdate = thisUpdate;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class StoredResponse {
+        final X509Certificate certificate;
+        final X509Certificate issuer;
+        final byte[] response;
+
+        StoredResponse(X509Certificate certificate, X509Certificate issuer, byte[] response) {
+            this.certificate = certificate;
+            this.issuer = issuer;
+            this.response = response;
+        }
+    }
+}
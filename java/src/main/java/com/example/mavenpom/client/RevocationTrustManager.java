@@ -0,0 +1,79 @@
+package com.example.mavenpom.client;
+
+import org.jetbrains.annotations.NotNull;
+
+import javax.net.ssl.ExtendedSSLSession;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.X509ExtendedTrustManager;
+import java.net.Socket;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.util.List;
+
+/**
+ * Adds revocation checking to a trust manager.
+ * <p>
+ * The delegate validates the chain first, so only chains that are otherwise trusted are checked, and
+ * the {@link RevocationChecker} can rely on the issuers it finds in them. OCSP responses the server
+ * stapled to the handshake are passed on so no request to the responder is needed.
+ */
+public class RevocationTrustManager extends X509ExtendedTrustManager {
+    private final X509ExtendedTrustManager delegate;
+    private final RevocationChecker checker;
+
+    public RevocationTrustManager(@NotNull X509ExtendedTrustManager delegate, @NotNull RevocationChecker checker) {
+        this.delegate = delegate;
+        this.checker = checker;
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType, Socket socket) throws CertificateException {
+        delegate.checkServerTrusted(chain, authType, socket);
+        SSLSession session = socket instanceof SSLSocket ? ((SSLSocket) socket).getHandshakeSession() : null;
+        checker.check(chain, delegate::getAcceptedIssuers, stapledResponses(session));
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType, SSLEngine engine) throws CertificateException {
+        delegate.checkServerTrusted(chain, authType, engine);
+        checker.check(chain, delegate::getAcceptedIssuers, stapledResponses(engine == null ? null : engine.getHandshakeSession()));
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+        delegate.checkServerTrusted(chain, authType);
+        checker.check(chain, delegate::getAcceptedIssuers, List.of());
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType, Socket socket) throws CertificateException {
+        delegate.checkClientTrusted(chain, authType, socket);
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType, SSLEngine engine) throws CertificateException {
+        delegate.checkClientTrusted(chain, authType, engine);
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+        delegate.checkClientTrusted(chain, authType);
+    }
+
+    @Override
+    public X509Certificate[] getAcceptedIssuers() {
+        return delegate.getAcceptedIssuers();
+    }
+
+    private static List<byte[]> stapledResponses(SSLSession session) {
+        if (session instanceof ExtendedSSLSession) {
+            List<byte[]> responses = ((ExtendedSSLSession) session).getStatusResponses();
+            if (responses != null) {
+                return responses;
+            }
+        }
+        return List.of();
+    }
+}
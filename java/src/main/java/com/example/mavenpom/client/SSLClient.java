@@ -1,87 +1,220 @@
 package com.example.mavenpom.client;
 
-import com.intellij.openapi.diagnostic.Logger;
+import okhttp3.Cache;
+import okhttp3.CacheControl;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.Okio;
+import okio.Sink;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.TrustManagerFactory;
-import javax.net.ssl.X509TrustManager;
-import java.io.BufferedInputStream;
+import javax.net.ssl.X509ExtendedTrustManager;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.GeneralSecurityException;
 import java.security.KeyStore;
-import java.security.cert.Certificate;
-import java.security.cert.CertificateFactory;
-import java.security.cert.X509Certificate;
+import java.security.KeyStoreException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.io.FileInputStream;
 import java.io.File;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
-public class SSLClient {
-    private static final Logger LOG = Logger.getInstance(SSLClient.class);
+public class SSLClient implements Closeable {
+    private static final ClientLogger LOG = ClientLogger.getInstance(SSLClient.class);
     private final String certPath;
     private final OkHttpClient client;
+    private final Cache cache;
+    private final TrustStoreLoader trustStoreLoader;
+    private final NetworkTimings networkTimings;
+    private final RequestCoalescer<Fetched> coalescer;
+    private final RevocationChecker revocationChecker;
+    @Nullable
+    private final ProxyRouter proxyRouter;
+    // False for clients derived with withConcurrencyLimits, which share the pool and watcher of their parent
+    private final boolean ownsConnectionPool;
+    private ReloadingTrustManager reloadingTrustManager;
 
-    private static final String DEFAULT_CERT_PATH = "certificates/multi-certificate.pem";
+    static final String DEFAULT_CERT_PATH = "certificates/multi-certificate.pem";
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+    private static final int SESSION_CACHE_SIZE = 256;
+    private static final int SESSION_TIMEOUT_SECONDS = 12 * 60 * 60;
+    private static final int MAX_IDLE_CONNECTIONS = 16;
+    private static final long KEEP_ALIVE_MINUTES = 10;
+    // Neither read from nor written to the disk cache
+    private static final CacheControl NO_STORE = new CacheControl.Builder().noStore().build();
 
     public SSLClient() {
         this(DEFAULT_CERT_PATH);
     }
 
     public SSLClient(String customCertPath) {
+        this(customCertPath, (Cache) null);
+    }
+
+    /**
+     * @param cache disk cache for responses, or {@code null} to always go to the network. A cache
+     *              directory must be used by a single {@link Cache} instance at a time, so share the
+     *              instance rather than creating one per client.
+     */
+    public SSLClient(String customCertPath, @Nullable Cache cache) {
+        this(customCertPath, cache, RevocationChecker.getDefault());
+    }
+
+    /**
+     * @param revocationChecker checks server certificates for revocation after the chain is trusted;
+     *                          share one instance so statuses are fetched once per certificate
+     */
+    public SSLClient(String customCertPath, @Nullable Cache cache, @NotNull RevocationChecker revocationChecker) {
+        this(customCertPath, cache, revocationChecker, null);
+    }
+
+    /**
+     * @param proxyRouter chooses and authenticates proxies; share one instance so tunnels are pooled
+     *                    across calls. {@code null} keeps the JVM's default {@link java.net.ProxySelector}.
+     */
+    public SSLClient(String customCertPath, @Nullable Cache cache, @NotNull RevocationChecker revocationChecker,
+                     @Nullable ProxyRouter proxyRouter) {
+        this(customCertPath, cache, revocationChecker, proxyRouter, false);
+    }
+
+    /**
+     * @param watchBundle whether to follow changes to a certificate bundle on disk, so a rotated CA is
+     *                    picked up without a new client. The bundle is watched by a thread of its own until
+     *                    the client is {@link #close() closed}.
+     */
+    public SSLClient(String customCertPath, @Nullable Cache cache, @NotNull RevocationChecker revocationChecker,
+                     @Nullable ProxyRouter proxyRouter, boolean watchBundle) {
         this.certPath = customCertPath;
+        this.cache = cache;
+        this.revocationChecker = revocationChecker;
+        this.proxyRouter = proxyRouter;
         LOG.info("Initializing SSLClient with cert path: " + certPath);
-        client = createTrustedClient();
+        this.trustStoreLoader = TrustStoreLoader.NO_SNAPSHOT;
+        this.networkTimings = new NetworkTimings();
+        this.coalescer = new RequestCoalescer<>();
+        this.ownsConnectionPool = true;
+        client = createTrustedClient(readCertificate(certPath), watchBundle);
     }
 
-    private OkHttpClient createTrustedClient() {
-        try {
-            InputStream certInputStream = loadCertificateStream();
-            if (certInputStream == null) {
-                throw new RuntimeException("Failed to load certificate from: " + certPath);
-            }
-
-            try (BufferedInputStream bufferedInputStream = new BufferedInputStream(certInputStream)) {
-                // Create a KeyStore containing our trusted CAs
-                KeyStore keyStore = KeyStore.getInstance(KeyStore.getDefaultType());
-                keyStore.load(null, null);
+    /**
+     * Creates a client from certificate content that has already been read, so callers such as
+     * {@link SSLClientRegistry} don't have to resolve and read the bundle a second time. A bundle on disk
+     * is watched for changes.
+     */
+    SSLClient(String certPath, byte[] certificateBytes, @Nullable Cache cache, TrustStoreLoader trustStoreLoader,
+              NetworkTimings networkTimings, RevocationChecker revocationChecker, @Nullable ProxyRouter proxyRouter) {
+        this.certPath = certPath;
+        this.cache = cache;
+        this.revocationChecker = revocationChecker;
+        this.proxyRouter = proxyRouter;
+        this.trustStoreLoader = trustStoreLoader;
+        this.networkTimings = networkTimings;
+        this.coalescer = new RequestCoalescer<>();
+        this.ownsConnectionPool = true;
+        LOG.info("Initializing SSLClient with cert path: " + certPath);
+        client = createTrustedClient(certificateBytes, true);
+    }
 
-                // Load certificates from PEM file
-                CertificateFactory certificateFactory = CertificateFactory.getInstance("X.509");
-                Collection<? extends Certificate> certificates = certificateFactory.generateCertificates(bufferedInputStream);
+    /**
+     * A client derived from {@code parent}, which keeps owning the certificate bundle watcher.
+     */
+    private SSLClient(SSLClient parent, OkHttpClient client) {
+        this.certPath = parent.certPath;
+        this.cache = parent.cache;
+        this.trustStoreLoader = parent.trustStoreLoader;
+        this.networkTimings = parent.networkTimings;
+        this.coalescer = parent.coalescer;
+        this.revocationChecker = parent.revocationChecker;
+        this.proxyRouter = parent.proxyRouter;
+        this.ownsConnectionPool = false;
+        this.client = client;
+    }
 
-                if (certificates.isEmpty()) {
-                    throw new RuntimeException("No certificates found in file: " + certPath);
-                }
+    /**
+     * Returns a client that shares this client's connection pool, TLS configuration and in-flight
+     * requests but schedules its calls on its own dispatcher with the given limits. Calls beyond the limits are queued, not
+     * rejected, which makes this the building block for bulk fetches.
+     */
+    public SSLClient withConcurrencyLimits(int maxRequests, int maxRequestsPerHost) {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+        return new SSLClient(this, client.newBuilder().dispatcher(dispatcher).build());
+    }
 
-                LOG.info("Number of certificates loaded: " + certificates.size());
+    private OkHttpClient createTrustedClient(byte[] certificateBytes, boolean watchBundle) {
+        try {
+            try {
+                X509ExtendedTrustManager trustManager = loadTrustManager(certificateBytes, certPath, trustStoreLoader);
 
-                // Add certificates to KeyStore
-                int index = 0;
-                for (Certificate certificate : certificates) {
-                    if (certificate instanceof X509Certificate) {
-                        String certificateAlias = "cert" + index++;
-                        keyStore.setCertificateEntry(certificateAlias, certificate);
+                // Watched bundles pick up a rotated CA without a new client
+                File certFile = new File(certPath);
+                if (watchBundle && certFile.isFile()) {
+                    try {
+                        reloadingTrustManager = new ReloadingTrustManager(certFile.toPath(), trustManager, trustStoreLoader);
+                        trustManager = reloadingTrustManager;
+                    } catch (IOException e) {
+                        LOG.warn("Cannot watch certificate bundle, changes need a new client: " + certPath, e);
                     }
                 }
+                // Outermost, so it sees the current trust store and runs even for chains cached below it
+                if (revocationChecker.getMode() != RevocationChecker.Mode.OFF) {
+                    trustManager = new RevocationTrustManager(trustManager, revocationChecker);
+                }
 
-            // Create a TrustManager that trusts the CAs in our KeyStore
-            TrustManagerFactory trustManagerFactory = TrustManagerFactory.getInstance(
-                    TrustManagerFactory.getDefaultAlgorithm());
-            trustManagerFactory.init(keyStore);
-            TrustManager[] trustManagers = trustManagerFactory.getTrustManagers();
-
-            // Create an SSLContext that uses our TrustManager
-            SSLContext sslContext = SSLContext.getInstance("TLS");
-            sslContext.init(null, trustManagers, null);
+                // Create an SSLContext that uses our TrustManager
+                SSLContext sslContext = SSLContext.getInstance("TLS");
+                sslContext.init(null, new TrustManager[]{trustManager}, null);
+                // Keep sessions around so new connections to known hosts use abbreviated handshakes
+                sslContext.getClientSessionContext().setSessionCacheSize(SESSION_CACHE_SIZE);
+                sslContext.getClientSessionContext().setSessionTimeout(SESSION_TIMEOUT_SECONDS);
 
                 // Create OkHttpClient with our custom SSLContext
-                return new OkHttpClient.Builder()
-                        .sslSocketFactory(sslContext.getSocketFactory(), (X509TrustManager) trustManagers[0])
-                        .build();
+                OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                        .sslSocketFactory(sslContext.getSocketFactory(), trustManager)
+                        .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                        .eventListenerFactory(networkTimings.listenerFactory())
+                        .addInterceptor(new CallStartInterceptor());
+                if (proxyRouter != null) {
+                    builder.proxySelector(proxyRouter)
+                            .proxyAuthenticator(proxyRouter.getAuthenticator());
+                }
+                if (cache != null) {
+                    builder.cache(cache)
+                            .addNetworkInterceptor(new MavenCachePolicyInterceptor());
+                }
+                return builder.build();
 
             } catch (IOException e) {
                 LOG.error("IO error while processing certificate", e);
@@ -96,7 +229,40 @@ public class SSLClient {
         }
     }
 
-    private InputStream loadCertificateStream() {
+    /**
+     * Parses a PEM bundle into a trust manager that trusts exactly the certificates it contains.
+     * Chains it has verified once are remembered by a {@link CachingTrustManager}.
+     */
+    static X509ExtendedTrustManager loadTrustManager(byte[] certificateBytes, String source, TrustStoreLoader loader)
+            throws IOException, GeneralSecurityException {
+        // Create a KeyStore containing our trusted CAs
+        KeyStore keyStore = TrustStoreLoader.toKeyStore(loader.load(certificateBytes, source));
+
+        // Create a TrustManager that trusts the CAs in our KeyStore
+        TrustManagerFactory trustManagerFactory = TrustManagerFactory.getInstance(
+                TrustManagerFactory.getDefaultAlgorithm());
+        trustManagerFactory.init(keyStore);
+        for (TrustManager trustManager : trustManagerFactory.getTrustManagers()) {
+            if (trustManager instanceof X509ExtendedTrustManager) {
+                return new CachingTrustManager((X509ExtendedTrustManager) trustManager);
+            }
+        }
+        throw new KeyStoreException("No X509 trust manager available for: " + source);
+    }
+
+    static byte[] readCertificate(String certPath) {
+        InputStream certInputStream = loadCertificateStream(certPath);
+        if (certInputStream == null) {
+            throw new RuntimeException("Failed to load certificate from: " + certPath);
+        }
+        try (InputStream in = certInputStream) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading certificate: " + e.getMessage(), e);
+        }
+    }
+
+    static InputStream loadCertificateStream(String certPath) {
         File file = new File(certPath);
         InputStream certInputStream = null;
 
@@ -149,23 +315,416 @@ public class SSLClient {
         return null;
     }
 
+    /**
+     * Fetches {@code targetUrl} and returns the body as a string. Concurrent requests for the same URL,
+     * from this method or {@link #makeRequestAsync}, share a single call and all receive its result.
+     * The caller that starts the call runs it on its own thread, as a plain blocking request would.
+     */
     public String makeRequest(String targetUrl) throws IOException {
+        HttpUrl url = parseUrl(targetUrl);
+
+        CompletableFuture<Fetched> future = coalescer.join(coalescingKey(url, null),
+                onStart -> newGetCall(url, null, onStart), (call, result) -> {
+                    try (Response response = call.execute()) {
+                        result.complete(readFetched(response));
+                    } catch (IOException | RuntimeException e) {
+                        result.completeExceptionally(e);
+                    }
+                }, null);
+
+        try {
+            return future.get().body;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Request failed: " + targetUrl, cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new InterruptedIOException("Interrupted while waiting for " + targetUrl);
+        }
+    }
+
+    /**
+     * Opens connections to the given repositories ahead of the first real request: DNS lookup, TCP
+     * connect and the full TLS handshake happen now, and the connection is left in the pool with its
+     * session cached. Each URL gets a {@code HEAD} request; its status does not matter.
+     * <p>
+     * The returned future completes once every warm-up has finished. It never completes exceptionally;
+     * failures are logged, since a failed warm-up only means the first fetch will pay the full cost.
+     */
+    public CompletableFuture<Void> prewarm(Collection<String> baseUrls) {
+        List<CompletableFuture<Void>> warmups = new ArrayList<>();
+        for (String baseUrl : baseUrls) {
+            HttpUrl url = HttpUrl.parse(baseUrl);
+            if (url == null) {
+                LOG.warn("Skipping pre-warm of invalid URL: " + baseUrl);
+                continue;
+            }
+
+            long start = System.nanoTime();
+            CompletableFuture<Void> warmup = new CompletableFuture<>();
+            client.newCall(new Request.Builder().url(url).head().build()).enqueue(new Callback() {
+                @Override
+                public void onFailure(@NotNull Call call, @NotNull IOException e) {
+                    LOG.info("Pre-warming " + url.host() + " failed: " + e.getMessage());
+                    warmup.complete(null);
+                }
+
+                @Override
+                public void onResponse(@NotNull Call call, @NotNull Response response) {
+                    response.close();
+                    LOG.info("Pre-warmed connection to " + url.host() + " in "
+                            + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+                    warmup.complete(null);
+                }
+            });
+            warmups.add(warmup);
+        }
+        return CompletableFuture.allOf(warmups.toArray(new CompletableFuture[0]));
+    }
+
+    public CompletableFuture<String> makeRequestAsync(String targetUrl) {
+        return makeRequestAsync(targetUrl, null);
+    }
+
+    /**
+     * Enqueues the request on OkHttp's dispatcher instead of blocking the calling thread.
+     * <p>
+     * The returned future completes on an OkHttp worker thread. Concurrent requests for the same URL
+     * share one call. Cancelling the future detaches this caller and cancels the call once no other
+     * caller is waiting for it. {@code timeout}, when given, bounds how long this caller waits once
+     * the call has started, including DNS, connect and reading the body, and fails the future with an
+     * {@link InterruptedIOException}. Time spent queued behind the dispatcher's limits does not count.
+     */
+    public CompletableFuture<String> makeRequestAsync(String targetUrl, Duration timeout) {
+        return makeRequestAsync(targetUrl, timeout, null);
+    }
+
+    /**
+     * Like {@link #makeRequestAsync(String, Duration)}, with a {@code Cache-Control} for the request,
+     * for example {@link CacheControl#FORCE_NETWORK} for answers that must never come from the disk
+     * cache, such as search results. Only requests with the same cache control share a call.
+     */
+    public CompletableFuture<String> makeRequestAsync(String targetUrl, Duration timeout,
+                                                      @Nullable CacheControl cacheControl) {
+        CompletableFuture<Fetched> fetched = fetchAsync(targetUrl, timeout, cacheControl);
+        CompletableFuture<String> body = fetched.thenApply(result -> result.body);
+        // Cancelling or completing the returned future detaches this caller from the shared call
+        body.whenComplete((result, failure) -> fetched.cancel(true));
+        return body;
+    }
+
+    /**
+     * Like {@link #makeRequestAsync(String, Duration)}, but also tells whether the body came from the
+     * network, for callers such as {@link RepositoryMirrors} that time repositories and must not count
+     * answers from the disk cache.
+     */
+    CompletableFuture<Fetched> fetchAsync(String targetUrl, Duration timeout) {
+        return fetchAsync(targetUrl, timeout, null);
+    }
+
+    private CompletableFuture<Fetched> fetchAsync(String targetUrl, Duration timeout, @Nullable CacheControl cacheControl) {
+        HttpUrl url = parseUrl(targetUrl);
+
+        return coalescer.join(coalescingKey(url, cacheControl), onStart -> newGetCall(url, cacheControl, onStart),
+                (call, result) -> call.enqueue(new Callback() {
+                    @Override
+                    public void onFailure(@NotNull Call call, @NotNull IOException e) {
+                        result.completeExceptionally(e);
+                    }
+
+                    @Override
+                    public void onResponse(@NotNull Call call, @NotNull Response response) {
+                        try (response) {
+                            result.complete(readFetched(response));
+                        } catch (IOException e) {
+                            result.completeExceptionally(e);
+                        }
+                    }
+                }), timeout);
+    }
+
+    private static HttpUrl parseUrl(String targetUrl) {
         if (targetUrl == null || targetUrl.isEmpty()) {
             throw new IllegalArgumentException("Target URL cannot be null or empty");
         }
+        return HttpUrl.get(targetUrl);
+    }
+
+    /**
+     * {@link HttpUrl} already canonicalizes scheme and host case, default ports and percent-encoding;
+     * the fragment is never sent, so it must not split otherwise identical requests.
+     */
+    private static String coalescingKey(HttpUrl url, @Nullable CacheControl cacheControl) {
+        String key = "GET " + url.newBuilder().fragment(null).build();
+        return cacheControl == null ? key : key + " " + cacheControl;
+    }
+
+    private Call newGetCall(HttpUrl url, @Nullable CacheControl cacheControl, Runnable onStart) {
+        Request.Builder request = CallStartInterceptor.onStart(new Request.Builder().url(url), onStart);
+        if (cacheControl != null) {
+            request.cacheControl(cacheControl);
+        }
+        return client.newCall(request.build());
+    }
 
-        Request request = new Request.Builder()
-                .url(targetUrl)
-                .build();
+    /**
+     * Creates a call that bypasses coalescing, for requests whose response is specific to the caller
+     * such as the byte ranges of {@link ArtifactDownloader}.
+     */
+    Call newCall(Request request) {
+        return client.newCall(request);
+    }
 
-        try (Response response = client.newCall(request).execute()) {
-            if (!response.isSuccessful()) {
-                throw new IOException("Unexpected response code: " + response.code());
+    /**
+     * Copies the response body to {@code out} segment by segment, so memory use stays constant
+     * regardless of the response size. The stream is flushed but not closed.
+     *
+     * @return the number of bytes written
+     */
+    public long streamTo(String targetUrl, OutputStream out) throws IOException {
+        return stream(targetUrl, source -> {
+            Sink sink = Okio.sink(out);
+            long written = source.readAll(sink);
+            sink.flush();
+            return written;
+        });
+    }
+
+    /**
+     * Copies the response body to {@code channel} through a single reusable direct buffer. The channel
+     * is not closed.
+     *
+     * @return the number of bytes written
+     */
+    public long streamTo(String targetUrl, WritableByteChannel channel) throws IOException {
+        return stream(targetUrl, source -> {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(STREAM_BUFFER_SIZE);
+            long written = 0;
+            while (source.read(buffer) != -1) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    written += channel.write(buffer);
+                }
+                buffer.clear();
             }
-            if (response.body() == null) {
-                throw new IOException("Response body is null");
+            return written;
+        });
+    }
+
+    /**
+     * Decodes the response body as UTF-8 and hands it to {@code lineConsumer} one line at a time,
+     * without the line terminators.
+     *
+     * @return the number of lines read
+     */
+    public long forEachLine(String targetUrl, Consumer<String> lineConsumer) throws IOException {
+        return stream(targetUrl, source -> {
+            long lines = 0;
+            String line;
+            while ((line = source.readUtf8Line()) != null) {
+                lineConsumer.accept(line);
+                lines++;
             }
-            return response.body().string();
+            return lines;
+        });
+    }
+
+    /**
+     * Decodes the response body as UTF-8 and hands it to {@code chunkConsumer} as it arrives, at most
+     * {@code maxChars} characters at a time. Reading stops once the consumer returns {@code false}.
+     * <p>
+     * The consumer runs on an OkHttp worker thread and may block to hold back the rest of the body.
+     * Cancelling the returned future cancels the call.
+     *
+     * @return the number of characters handed to the consumer
+     */
+    public CompletableFuture<Long> streamAsync(String targetUrl, int maxChars, Predicate<String> chunkConsumer) {
+        if (maxChars < 1) {
+            throw new IllegalArgumentException("Chunks must hold at least one character");
+        }
+        Call call = client.newCall(new Request.Builder().url(parseUrl(targetUrl)).build());
+        CompletableFuture<Long> result = new CompletableFuture<>();
+        result.whenComplete((chars, failure) -> {
+            if (result.isCancelled()) {
+                call.cancel();
+            }
+        });
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(@NotNull Call call, @NotNull IOException e) {
+                result.completeExceptionally(e);
+            }
+
+            @Override
+            public void onResponse(@NotNull Call call, @NotNull Response response) {
+                try (response) {
+                    Reader reader = new InputStreamReader(checkedBody(response).byteStream(), StandardCharsets.UTF_8);
+                    char[] buffer = new char[maxChars];
+                    long chars = 0;
+                    int read;
+                    while (!result.isDone() && (read = reader.read(buffer)) != -1) {
+                        chars += read;
+                        if (!chunkConsumer.test(new String(buffer, 0, read))) {
+                            break;
+                        }
+                    }
+                    result.complete(chars);
+                } catch (IOException | RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Downloads the response body to {@code target}. The body is written to a sibling {@code .part}
+     * file which is moved into place once complete, so {@code target} never holds a truncated download.
+     * The download bypasses the disk cache, where a multi-megabyte artifact would only evict POMs.
+     *
+     * @return the number of bytes written
+     */
+    public long downloadTo(String targetUrl, Path target) throws IOException {
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        try {
+            long written = stream(targetUrl, NO_STORE, source -> {
+                try (BufferedSink sink = Okio.buffer(Okio.sink(partial))) {
+                    return sink.writeAll(source);
+                }
+            });
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return written;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+    }
+
+    private long stream(String targetUrl, BodyReader reader) throws IOException {
+        return stream(targetUrl, null, reader);
+    }
+
+    private long stream(String targetUrl, @Nullable CacheControl cacheControl, BodyReader reader) throws IOException {
+        if (targetUrl == null || targetUrl.isEmpty()) {
+            throw new IllegalArgumentException("Target URL cannot be null or empty");
+        }
+
+        Request.Builder request = new Request.Builder()
+                .url(targetUrl);
+        if (cacheControl != null) {
+            request.cacheControl(cacheControl);
         }
+
+        try (Response response = client.newCall(request.build()).execute()) {
+            return reader.read(checkedBody(response).source());
+        }
+    }
+
+    private static Fetched readFetched(Response response) throws IOException {
+        String body = checkedBody(response).string();
+        return new Fetched(body, response.networkResponse() != null && response.cacheResponse() == null);
+    }
+
+    private static ResponseBody checkedBody(Response response) throws IOException {
+        if (!response.isSuccessful()) {
+            throw new HttpResponseException(response.code());
+        }
+        if (response.body() == null) {
+            throw new IOException("Response body is null");
+        }
+        return response.body();
+    }
+
+    /**
+     * A response body and whether it was read from the network rather than served or revalidated
+     * from the disk cache.
+     */
+    static final class Fetched {
+        final String body;
+        final boolean fromNetwork;
+
+        Fetched(String body, boolean fromNetwork) {
+            this.body = body;
+            this.fromNetwork = fromNetwork;
+        }
+    }
+
+    @FunctionalInterface
+    private interface BodyReader {
+        long read(BufferedSource source) throws IOException;
+    }
+
+    public String getCertPath() {
+        return certPath;
+    }
+
+    /**
+     * Returns the disk cache counters, or {@code null} when this client has no cache.
+     */
+    @Nullable
+    public CacheStats getCacheStats() {
+        if (cache == null) {
+            return null;
+        }
+        return new CacheStats(cache.requestCount(), cache.hitCount(), cache.networkCount());
+    }
+
+    /**
+     * Returns the per-host phase timings of calls made through this client and the clients derived
+     * from it with {@link #withConcurrencyLimits}.
+     */
+    public NetworkTimings getNetworkTimings() {
+        return networkTimings;
+    }
+
+    /**
+     * Stops accepting new calls and lets in-flight ones finish. Idle pooled connections are closed
+     * right away; busy ones are closed by the pool once their calls complete.
+     * <p>
+     * A client derived with {@link #withConcurrencyLimits} only stops its own dispatcher: the connection
+     * pool and the bundle watcher belong to the client it came from. Clients handed out by
+     * {@link SSLClientRegistry} are closed by the registry.
+     */
+    @Override
+    public void close() {
+        client.dispatcher().executorService().shutdown();
+        if (!ownsConnectionPool) {
+            return;
+        }
+        LOG.info("Shutting down SSLClient for cert path: " + certPath);
+        client.connectionPool().evictAll();
+        if (reloadingTrustManager != null) {
+            try {
+                reloadingTrustManager.close();
+            } catch (IOException e) {
+                LOG.warn("Failed to stop watching certificate bundle: " + certPath, e);
+            }
+        }
+    }
+
+    /**
+     * Closes idle pooled connections, for example because they go through a proxy that is no longer
+     * configured. Connections in use are closed by the pool when their calls complete.
+     */
+    void evictIdleConnections() {
+        client.connectionPool().evictAll();
+    }
+
+    /**
+     * Whether this client follows changes to its certificate bundle by itself.
+     */
+    boolean isReloadingTrust() {
+        return reloadingTrustManager != null;
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
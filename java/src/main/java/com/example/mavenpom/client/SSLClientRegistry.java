@@ -0,0 +1,199 @@
+package com.example.mavenpom.client;
+
+import okhttp3.Cache;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Process-wide cache of {@link SSLClient} instances.
+ * <p>
+ * Building a client means resolving the certificate bundle, parsing it, creating a trust store and
+ * an {@link javax.net.ssl.SSLContext}, and starting a new connection pool and dispatcher. The registry
+ * does this once per certificate path and hands the same client to every caller, so pooled
+ * connections and TLS sessions survive across fetches, tool windows and projects.
+ * <p>
+ * Clients for bundles on disk normally follow changes themselves through {@link ReloadingTrustManager}
+ * and are kept as they are. When a bundle cannot be watched, it is re-checked by modification time and
+ * size on every lookup; when those change the content digest is recomputed and, if the content really
+ * differs, a new client replaces the old one. The old client is shut down gracefully so calls already in
+ * flight can finish.
+ */
+public final class SSLClientRegistry {
+    private static final ClientLogger LOG = ClientLogger.getInstance(SSLClientRegistry.class);
+    private static final SSLClientRegistry INSTANCE = new SSLClientRegistry();
+
+    /** Upper bound for the shared disk cache; OkHttp evicts least recently used entries beyond it. */
+    public static final long DEFAULT_CACHE_SIZE = 100L * 1024 * 1024;
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final TrustStoreLoader trustStoreLoader = new TrustStoreLoader(PluginPaths.systemPath("truststore"));
+    private final NetworkTimings networkTimings = new NetworkTimings();
+    private final ProxyRouter proxyRouter = new ProxyRouter(ProxySettings.direct());
+    // Certificate status requests go out through the same proxies as the repository requests
+    private final RevocationChecker revocationChecker = new RevocationChecker(
+            RevocationChecker.Mode.fromSystemProperty(), PluginPaths.systemPath("revocation"), proxyRouter);
+    private Cache cache;
+    private boolean cacheInitialized;
+
+    SSLClientRegistry() {
+    }
+
+    public static SSLClientRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    public SSLClient getClient() {
+        return getClient(SSLClient.DEFAULT_CERT_PATH);
+    }
+
+    public SSLClient getClient(String certPath) {
+        if (certPath == null || certPath.isEmpty()) {
+            throw new IllegalArgumentException("Certificate path cannot be null or empty");
+        }
+
+        Entry current = entries.get(certPath);
+        if (current != null && (current.client.isReloadingTrust() || current.stamp.equals(stampOf(certPath)))) {
+            return current.client;
+        }
+        return entries.compute(certPath, (path, existing) -> refresh(path, existing)).client;
+    }
+
+    /**
+     * Returns the counters of the shared disk cache, or {@code null} when no cache could be created.
+     */
+    @Nullable
+    public CacheStats getCacheStats() {
+        Cache sharedCache = getCache();
+        if (sharedCache == null) {
+            return null;
+        }
+        return new CacheStats(sharedCache.requestCount(), sharedCache.hitCount(), sharedCache.networkCount());
+    }
+
+    /**
+     * Returns the phase timings shared by every client of this registry, so they survive a client
+     * being replaced after its certificate bundle changed.
+     */
+    public NetworkTimings getNetworkTimings() {
+        return networkTimings;
+    }
+
+    /**
+     * Returns the revocation checker shared by every client of this registry, so each certificate's
+     * status is fetched once for the whole process.
+     */
+    public RevocationChecker getRevocationChecker() {
+        return revocationChecker;
+    }
+
+    /**
+     * Returns the proxy selector shared by every client of this registry.
+     */
+    public ProxyRouter getProxyRouter() {
+        return proxyRouter;
+    }
+
+    /**
+     * Routes the requests of every client through {@code settings} from now on. Idle connections opened
+     * under different settings are closed so they are not reused; a no-op when nothing changed, so it
+     * can be called before every fetch.
+     */
+    public void setProxySettings(@NotNull ProxySettings settings) {
+        if (proxyRouter.update(settings)) {
+            entries.values().forEach(entry -> entry.client.evictIdleConnections());
+        }
+    }
+
+    /**
+     * Shuts down every cached client and forgets it. Mainly useful for tests and plugin unloading.
+     */
+    public void clear() {
+        entries.values().forEach(entry -> entry.client.close());
+        entries.clear();
+    }
+
+    private Entry refresh(String certPath, Entry existing) {
+        String stamp = stampOf(certPath);
+        if (existing != null && (existing.client.isReloadingTrust() || existing.stamp.equals(stamp))) {
+            // Another thread refreshed the entry while we were waiting for the lock
+            return existing;
+        }
+
+        byte[] content = SSLClient.readCertificate(certPath);
+        String digest = digestOf(content);
+        if (existing != null && existing.digest.equals(digest)) {
+            LOG.info("Certificate bundle touched but unchanged, keeping SSLClient for: " + certPath);
+            return new Entry(stamp, digest, existing.client);
+        }
+
+        SSLClient client = new SSLClient(certPath, content, getCache(), trustStoreLoader, networkTimings,
+                revocationChecker, proxyRouter);
+        if (existing != null) {
+            LOG.info("Certificate bundle changed, replacing SSLClient for: " + certPath);
+            existing.client.close();
+        }
+        return new Entry(stamp, digest, client);
+    }
+
+    /**
+     * One cache for the whole process: OkHttp requires a cache directory to be owned by a single
+     * {@link Cache} instance, and sharing it lets a rebuilt client keep serving what the previous one stored.
+     */
+    private synchronized Cache getCache() {
+        if (!cacheInitialized) {
+            cacheInitialized = true;
+            cache = createCache();
+        }
+        return cache;
+    }
+
+    private static Cache createCache() {
+        Path directory = PluginPaths.systemPath("http-cache");
+        if (directory == null) {
+            LOG.warn("HTTP cache unavailable, requests will always use the network");
+            return null;
+        }
+        LOG.info("Using HTTP cache directory: " + directory);
+        return new Cache(directory.toFile(), DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Cheap change marker. Bundles on disk use modification time and size; classpath resources cannot
+     * change during a session, so they get a constant marker and are read only once.
+     */
+    private static String stampOf(String certPath) {
+        File file = new File(certPath);
+        if (file.isFile()) {
+            return file.lastModified() + ":" + file.length();
+        }
+        return "classpath";
+    }
+
+    private static String digestOf(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static final class Entry {
+        final String stamp;
+        final String digest;
+        final SSLClient client;
+
+        Entry(String stamp, String digest, SSLClient client) {
+            this.stamp = stamp;
+            this.digest = digest;
+            this.client = client;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.mavenpom.client;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSocket;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.Socket;
+import java.util.List;
+
+/**
+ * Records the phases of a single call into {@link NetworkTimings}. OkHttp creates one listener per
+ * call and delivers its events sequentially, so the start times need no synchronization.
+ */
+final class TimingEventListener extends EventListener {
+    private final HostTimings host;
+
+    private long callStart;
+    private long dnsStart;
+    private long connectStart;
+    private long connectStartMillis;
+    private long secureConnectStart;
+    private long requestHeadersStart;
+    private long responseHeadersEnd;
+    private boolean connected;
+    private boolean timedFirstByte;
+
+    TimingEventListener(NetworkTimings timings, Call call) {
+        this.host = timings.forUrl(call.request().url());
+    }
+
+    @Override
+    public void callStart(@NotNull Call call) {
+        callStart = System.nanoTime();
+    }
+
+    @Override
+    public void dnsStart(@NotNull Call call, @NotNull String domainName) {
+        dnsStart = System.nanoTime();
+    }
+
+    @Override
+    public void dnsEnd(@NotNull Call call, @NotNull String domainName, @NotNull List<InetAddress> inetAddressList) {
+        host.record(NetworkTimings.Phase.DNS, System.nanoTime() - dnsStart);
+    }
+
+    @Override
+    public void connectStart(@NotNull Call call, @NotNull InetSocketAddress inetSocketAddress, @NotNull Proxy proxy) {
+        connectStart = System.nanoTime();
+        connectStartMillis = System.currentTimeMillis();
+        connected = true;
+    }
+
+    @Override
+    public void secureConnectStart(@NotNull Call call) {
+        secureConnectStart = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectEnd(@NotNull Call call, @Nullable Handshake handshake) {
+        host.record(NetworkTimings.Phase.TLS, System.nanoTime() - secureConnectStart);
+    }
+
+    @Override
+    public void connectEnd(@NotNull Call call, @NotNull InetSocketAddress inetSocketAddress, @NotNull Proxy proxy,
+                           @Nullable Protocol protocol) {
+        host.record(NetworkTimings.Phase.CONNECT, System.nanoTime() - connectStart);
+    }
+
+    @Override
+    public void connectionAcquired(@NotNull Call call, @NotNull Connection connection) {
+        host.connectionAcquired(!connected);
+        if (connected && connection.handshake() != null) {
+            host.handshakeCompleted(isResumed(connection.socket()));
+        }
+        // A retry or follow-up on the same call may acquire another connection
+        connected = false;
+    }
+
+    @Override
+    public void requestHeadersStart(@NotNull Call call) {
+        requestHeadersStart = System.nanoTime();
+        timedFirstByte = false;
+    }
+
+    /*
+     * responseHeadersStart fires before the read blocks and responseBodyStart only once body bytes
+     * arrive, so both phases are measured up to and from the end of the response headers.
+     */
+    @Override
+    public void responseHeadersEnd(@NotNull Call call, @NotNull Response response) {
+        responseHeadersEnd = System.nanoTime();
+        if (!timedFirstByte) {
+            timedFirstByte = true;
+            host.record(NetworkTimings.Phase.TTFB, responseHeadersEnd - requestHeadersStart);
+        }
+    }
+
+    @Override
+    public void responseBodyEnd(@NotNull Call call, long byteCount) {
+        host.record(NetworkTimings.Phase.BODY, System.nanoTime() - responseHeadersEnd);
+    }
+
+    @Override
+    public void callEnd(@NotNull Call call) {
+        host.record(NetworkTimings.Phase.TOTAL, System.nanoTime() - callStart);
+        host.callEnded(false);
+    }
+
+    @Override
+    public void callFailed(@NotNull Call call, @NotNull IOException ioe) {
+        host.record(NetworkTimings.Phase.TOTAL, System.nanoTime() - callStart);
+        host.callEnded(true);
+    }
+
+    /**
+     * A resumed session keeps the creation time of the handshake that established it, so a session
+     * older than this connection attempt was taken from the client session cache.
+     */
+    private boolean isResumed(Socket socket) {
+        if (!(socket instanceof SSLSocket)) {
+            return false;
+        }
+        SSLSession session = ((SSLSocket) socket).getSession();
+        return session != null && session.getCreationTime() < connectStartMillis;
+    }
+}
@@ -0,0 +1,291 @@
+package com.example.mavenpom.client;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Turns a certificate bundle into the list of distinct certificates it contains, as fast as possible
+ * for bundles with thousands of entries.
+ * <ul>
+ *   <li>PEM blocks are located with a plain text scan and Base64-decoded and parsed in parallel.</li>
+ *   <li>Certificates are de-duplicated by SHA-256 fingerprint, keeping the first occurrence.</li>
+ *   <li>With a snapshot directory, the de-duplicated DER certificates are written to a compact binary
+ *   file named after the SHA-256 of the bundle. Later loads of the same content memory-map that file
+ *   and skip PEM decoding and de-duplication altogether. Snapshots are plain public certificates, so
+ *   they need no protection beyond the directory they live in.</li>
+ * </ul>
+ * Content without PEM markers falls back to {@link CertificateFactory#generateCertificates}.
+ */
+public class TrustStoreLoader {
+    private static final ClientLogger LOG = ClientLogger.getInstance(TrustStoreLoader.class);
+
+    /** Loader without a snapshot directory; every load parses the bundle. */
+    public static final TrustStoreLoader NO_SNAPSHOT = new TrustStoreLoader(null);
+
+    private static final String BEGIN_MARKER = "-----BEGIN CERTIFICATE-----";
+    private static final String END_MARKER = "-----END CERTIFICATE-----";
+    private static final String SNAPSHOT_SUFFIX = ".certs";
+    private static final int SNAPSHOT_MAGIC = 0x4D505453; // "MPTS"
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int MAX_SNAPSHOTS = 8;
+    /** Below this many blocks the fork/join overhead outweighs the parallel decoding. */
+    private static final int PARALLEL_THRESHOLD = 64;
+
+    private final Path snapshotDirectory;
+    private final AtomicInteger snapshotHits = new AtomicInteger();
+    private final AtomicInteger parsedLoads = new AtomicInteger();
+
+    public TrustStoreLoader(@Nullable Path snapshotDirectory) {
+        this.snapshotDirectory = snapshotDirectory;
+    }
+
+    /**
+     * Returns the distinct X.509 certificates in {@code content}, in the order they first appear.
+     *
+     * @param source used in log and error messages only
+     */
+    public List<X509Certificate> load(byte[] content, @NotNull String source) throws IOException, CertificateException {
+        String digest = HexFormat.of().formatHex(sha256(content));
+        Path snapshot = snapshotDirectory == null ? null : snapshotDirectory.resolve(digest + SNAPSHOT_SUFFIX);
+
+        if (snapshot != null && Files.isRegularFile(snapshot)) {
+            try {
+                List<X509Certificate> certificates = readSnapshot(snapshot);
+                snapshotHits.incrementAndGet();
+                LOG.info("Loaded " + certificates.size() + " certificates for " + source + " from snapshot " + snapshot);
+                return certificates;
+            } catch (IOException | CertificateException e) {
+                LOG.warn("Discarding unreadable trust store snapshot " + snapshot + ": " + e.getMessage());
+                Files.deleteIfExists(snapshot);
+            }
+        }
+
+        List<X509Certificate> certificates = deduplicate(parse(content));
+        parsedLoads.incrementAndGet();
+        if (certificates.isEmpty()) {
+            throw new CertificateException("No certificates found in file: " + source);
+        }
+        LOG.info("Number of certificates loaded: " + certificates.size());
+
+        if (snapshot != null) {
+            try {
+                writeSnapshot(snapshot, certificates);
+            } catch (IOException e) {
+                LOG.warn("Failed to write trust store snapshot " + snapshot + ": " + e.getMessage());
+            }
+        }
+        return certificates;
+    }
+
+    public int getSnapshotHitCount() {
+        return snapshotHits.get();
+    }
+
+    public int getParsedLoadCount() {
+        return parsedLoads.get();
+    }
+
+    /**
+     * Builds an in-memory trust store holding {@code certificates} as trusted entries.
+     */
+    public static KeyStore toKeyStore(List<X509Certificate> certificates) throws IOException, GeneralSecurityException {
+        KeyStore keyStore = KeyStore.getInstance(KeyStore.getDefaultType());
+        keyStore.load(null, null);
+        int index = 0;
+        for (X509Certificate certificate : certificates) {
+            keyStore.setCertificateEntry("cert" + index++, certificate);
+        }
+        return keyStore;
+    }
+
+    private static List<X509Certificate> parse(byte[] content) throws CertificateException {
+        String text = new String(content, StandardCharsets.ISO_8859_1);
+        List<String> blocks = new ArrayList<>();
+        int begin = text.indexOf(BEGIN_MARKER);
+        while (begin >= 0) {
+            int end = text.indexOf(END_MARKER, begin);
+            if (end < 0) {
+                throw new CertificateException("Unterminated PEM block at offset " + begin);
+            }
+            blocks.add(text.substring(begin + BEGIN_MARKER.length(), end));
+            begin = text.indexOf(BEGIN_MARKER, end + END_MARKER.length());
+        }
+
+        if (blocks.isEmpty()) {
+            // DER or some other encoding the platform understands
+            List<X509Certificate> certificates = new ArrayList<>();
+            for (Certificate certificate : certificateFactory().generateCertificates(new ByteArrayInputStream(content))) {
+                if (certificate instanceof X509Certificate) {
+                    certificates.add((X509Certificate) certificate);
+                }
+            }
+            return certificates;
+        }
+
+        Stream<String> stream = blocks.size() >= PARALLEL_THRESHOLD ? blocks.parallelStream() : blocks.stream();
+        try {
+            return stream
+                .map(block -> Base64.getMimeDecoder().decode(block))
+                .map(TrustStoreLoader::decodeUnchecked)
+                .collect(Collectors.toList());
+        } catch (IllegalArgumentException e) {
+            throw new CertificateException("Invalid Base64 in PEM block: " + e.getMessage(), e);
+        } catch (UncheckedCertificateException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static List<X509Certificate> deduplicate(List<X509Certificate> certificates) throws CertificateException {
+        Map<String, X509Certificate> unique = new LinkedHashMap<>();
+        for (X509Certificate certificate : certificates) {
+            unique.putIfAbsent(HexFormat.of().formatHex(sha256(certificate.getEncoded())), certificate);
+        }
+        if (unique.size() < certificates.size()) {
+            LOG.info("Ignored " + (certificates.size() - unique.size()) + " duplicate certificates");
+        }
+        return new ArrayList<>(unique.values());
+    }
+
+    private static List<X509Certificate> readSnapshot(Path snapshot) throws IOException, CertificateException {
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 12 || buffer.getInt() != SNAPSHOT_MAGIC || buffer.getInt() != SNAPSHOT_VERSION) {
+                throw new IOException("Not a trust store snapshot");
+            }
+            int count = buffer.getInt();
+            List<byte[]> encoded = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int length = buffer.getInt();
+                if (length <= 0 || length > buffer.remaining()) {
+                    throw new IOException("Truncated trust store snapshot");
+                }
+                byte[] der = new byte[length];
+                buffer.get(der);
+                encoded.add(der);
+            }
+
+            IntStream indexes = count >= PARALLEL_THRESHOLD ? IntStream.range(0, count).parallel() : IntStream.range(0, count);
+            try {
+                return indexes.mapToObj(i -> decodeUnchecked(encoded.get(i))).collect(Collectors.toList());
+            } catch (UncheckedCertificateException e) {
+                throw e.getCause();
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated trust store snapshot", e);
+        }
+    }
+
+    private void writeSnapshot(Path snapshot, List<X509Certificate> certificates) throws IOException, CertificateException {
+        Files.createDirectories(snapshotDirectory);
+        Path temporary = Files.createTempFile(snapshotDirectory, "snapshot", ".tmp");
+        try (OutputStream file = Files.newOutputStream(temporary);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeInt(certificates.size());
+            for (X509Certificate certificate : certificates) {
+                byte[] der = certificate.getEncoded();
+                out.writeInt(der.length);
+                out.write(der);
+            }
+        } catch (IOException | CertificateException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        LOG.info("Wrote trust store snapshot " + snapshot);
+        pruneSnapshots();
+    }
+
+    /**
+     * Keeps only the most recent snapshots; older ones belong to bundles that have since been rotated.
+     */
+    private void pruneSnapshots() {
+        try (Stream<Path> files = Files.list(snapshotDirectory)) {
+            List<Path> snapshots = files
+                .filter(path -> path.getFileName().toString().endsWith(SNAPSHOT_SUFFIX))
+                .sorted(Comparator.comparingLong(TrustStoreLoader::lastModified).reversed())
+                .collect(Collectors.toList());
+            for (Path stale : snapshots.subList(Math.min(MAX_SNAPSHOTS, snapshots.size()), snapshots.size())) {
+                Files.deleteIfExists(stale);
+            }
+        } catch (IOException e) {
+            LOG.warn("Failed to prune trust store snapshots: " + e.getMessage());
+        }
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static X509Certificate decodeUnchecked(byte[] der) {
+        try {
+            return (X509Certificate) certificateFactory().generateCertificate(new ByteArrayInputStream(der));
+        } catch (CertificateException e) {
+            throw new UncheckedCertificateException(e);
+        }
+    }
+
+    /**
+     * CertificateFactory instances are not documented as thread-safe, so parallel decoding never shares one.
+     */
+    private static CertificateFactory certificateFactory() throws CertificateException {
+        return CertificateFactory.getInstance("X.509");
+    }
+
+    private static byte[] sha256(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static final class UncheckedCertificateException extends RuntimeException {
+        UncheckedCertificateException(CertificateException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized CertificateException getCause() {
+            return (CertificateException) super.getCause();
+        }
+    }
+}
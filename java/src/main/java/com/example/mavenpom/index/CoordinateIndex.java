@@ -0,0 +1,361 @@
+package com.example.mavenpom.index;
+
+import com.example.mavenpom.client.ClientLogger;
+import com.example.mavenpom.client.PluginPaths;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local index of {@code groupId:artifactId} coordinates and their versions for instant prefix search.
+ * <p>
+ * Coordinates live in a memory-mapped {@link CoordinateTable} that is never modified in place. New
+ * coordinates go to a small in-memory map first, which searches consult alongside the table; once it has
+ * grown or a short delay has passed, the table and the map are merged into a new table generation that
+ * replaces the old one. Searches never block on a merge: they keep using the table they started with,
+ * whose mapping outlives its file.
+ * <p>
+ * Queries match coordinates by prefix:
+ * {@code org.apache.maven} and {@code org.apache.maven.plugins:maven-cl} match the keys starting with
+ * them, and {@code org.apache.maven.plugins:maven-clean-plugin:2.} matches that artifact, with only its
+ * versions starting with {@code 2.}.
+ */
+public final class CoordinateIndex {
+    private static final ClientLogger LOG = ClientLogger.getInstance(CoordinateIndex.class);
+
+    public static final int DEFAULT_LIMIT = 50;
+    /** Pending coordinates that trigger a merge right away instead of after the delay, for small tables. */
+    static final int FLUSH_THRESHOLD = 4096;
+    static final long FLUSH_DELAY_SECONDS = 30;
+    // The characters Maven allows in group and artifact ids, which keeps keys ASCII
+    private static final Pattern ID = Pattern.compile("[A-Za-z0-9_.\\-]+");
+    private static final Pattern VERSION = Pattern.compile("[\\x21-\\x7E]+");
+    private static final Pattern TABLE_FILE = Pattern.compile("coordinates-(\\d+)\\.sst");
+
+    @Nullable
+    private final Path directory;
+    private final ConcurrentSkipListMap<String, List<String>> pending = new ConcurrentSkipListMap<>();
+    private final Object flushLock = new Object();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final AtomicBoolean mergeScheduled = new AtomicBoolean();
+    private volatile CoordinateTable table = CoordinateTable.EMPTY;
+    private long generation;
+
+    /**
+     * Opens the index stored in {@code directory}, or an index kept in memory only when it is
+     * {@code null}. A table that cannot be read is logged and the index starts out empty.
+     */
+    public CoordinateIndex(@Nullable Path directory) {
+        this.directory = directory;
+        if (directory != null) {
+            open(directory);
+        }
+    }
+
+    public static CoordinateIndex getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static final class Holder {
+        static final CoordinateIndex INSTANCE = new CoordinateIndex(indexDirectory());
+    }
+
+    @Nullable
+    private static Path indexDirectory() {
+        return PluginPaths.systemPath("coordinate-index");
+    }
+
+    private void open(Path directory) {
+        long latest = -1;
+        if (Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "coordinates-*.sst")) {
+                for (Path file : files) {
+                    Matcher matcher = TABLE_FILE.matcher(file.getFileName().toString());
+                    if (matcher.matches()) {
+                        latest = Math.max(latest, Long.parseLong(matcher.group(1)));
+                    }
+                }
+            } catch (IOException | NumberFormatException e) {
+                LOG.warn("Could not list coordinate index directory " + directory, e);
+            }
+        }
+        if (latest < 0) {
+            return;
+        }
+        generation = latest;
+        try {
+            table = CoordinateTable.open(tableFile(latest));
+            LOG.info("Opened coordinate index with " + table.size() + " artifacts from " + directory);
+        } catch (IOException e) {
+            LOG.warn("Discarding unreadable coordinate index: " + e.getMessage());
+        }
+        deleteOlderGenerations(latest);
+    }
+
+    /**
+     * Records versions of an artifact. Coordinates with characters Maven does not allow are ignored.
+     */
+    public void add(@NotNull String groupId, @NotNull String artifactId, @NotNull Collection<String> versions) {
+        if (!ID.matcher(groupId).matches() || !ID.matcher(artifactId).matches()) {
+            LOG.debug("Not indexing invalid coordinate " + groupId + ":" + artifactId);
+            return;
+        }
+        List<String> valid = new ArrayList<>(versions.size());
+        for (String version : versions) {
+            if (VERSION.matcher(version).matches()) {
+                valid.add(version);
+            }
+        }
+        String key = groupId + ":" + artifactId;
+        List<String> known = table.get(key);
+        if (known != null && known.containsAll(valid)) {
+            return;
+        }
+        pending.merge(key, valid, CoordinateIndex::union);
+
+        // Callers are network threads, so even a merge that is due right away happens in the background
+        if (overThreshold()) {
+            scheduleFlush(mergeScheduled, ForkJoinPool.commonPool(), true);
+        } else {
+            scheduleFlush(flushScheduled, CompletableFuture.delayedExecutor(FLUSH_DELAY_SECONDS, TimeUnit.SECONDS), false);
+        }
+    }
+
+    /**
+     * Growing with the table keeps the total merge work linear in the number of coordinates added.
+     */
+    private boolean overThreshold() {
+        return pending.size() >= Math.max(FLUSH_THRESHOLD, table.size() / 4);
+    }
+
+    private void scheduleFlush(AtomicBoolean scheduled, Executor executor, boolean overThresholdOnly) {
+        if (directory != null && scheduled.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                scheduled.set(false);
+                try {
+                    flush(overThresholdOnly);
+                } catch (IOException e) {
+                    LOG.warn("Could not write coordinate index, keeping new coordinates in memory", e);
+                }
+            });
+        }
+    }
+
+    public List<CoordinateMatch> search(@NotNull String query) {
+        return search(query, DEFAULT_LIMIT);
+    }
+
+    /**
+     * Returns up to {@code limit} artifacts matching {@code query}, sorted by coordinate.
+     */
+    public List<CoordinateMatch> search(@NotNull String query, int limit) {
+        String trimmed = query.trim();
+        int firstColon = trimmed.indexOf(':');
+        int secondColon = firstColon < 0 ? -1 : trimmed.indexOf(':', firstColon + 1);
+        String keyPrefix = secondColon < 0 ? trimmed : trimmed.substring(0, secondColon);
+        String versionPrefix = secondColon < 0 ? null : trimmed.substring(secondColon + 1);
+        if (limit <= 0 || !isAscii(keyPrefix)) {
+            return List.of();
+        }
+
+        CoordinateTable current = table;
+        List<Map.Entry<String, List<String>>> stored = new ArrayList<>();
+        current.scan(keyPrefix, entry -> {
+            if (versionPrefix == null || entry.getKey().equals(keyPrefix)) {
+                stored.add(entry);
+            }
+            return versionPrefix == null && stored.size() < limit;
+        });
+        NavigableMap<String, List<String>> added = versionPrefix == null
+                ? pending.subMap(keyPrefix, true, keyPrefix + Character.MAX_VALUE, false)
+                : pending.subMap(keyPrefix, true, keyPrefix, true);
+
+        List<CoordinateMatch> matches = new ArrayList<>();
+        Iterator<Map.Entry<String, List<String>>> merged = new MergingIterator(stored.iterator(), added.entrySet().iterator());
+        while (merged.hasNext() && matches.size() < limit) {
+            Map.Entry<String, List<String>> entry = merged.next();
+            List<String> versions = entry.getValue();
+            if (versionPrefix != null) {
+                versions = new ArrayList<>(versions);
+                versions.removeIf(version -> !version.startsWith(versionPrefix));
+                if (versions.isEmpty()) {
+                    continue;
+                }
+            }
+            int colon = entry.getKey().indexOf(':');
+            matches.add(new CoordinateMatch(entry.getKey().substring(0, colon), entry.getKey().substring(colon + 1), versions));
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the indexed artifact, or {@code null} when it is not in the index.
+     */
+    @Nullable
+    public CoordinateMatch get(@NotNull String groupId, @NotNull String artifactId) {
+        String key = groupId + ":" + artifactId;
+        List<String> stored = isAscii(key) ? table.get(key) : null;
+        List<String> added = pending.get(key);
+        if (stored == null && added == null) {
+            return null;
+        }
+        List<String> versions = stored == null ? added : added == null ? stored : union(stored, added);
+        return new CoordinateMatch(groupId, artifactId, versions);
+    }
+
+    /**
+     * Number of indexed artifacts.
+     */
+    public int size() {
+        CoordinateTable current = table;
+        int size = current.size();
+        for (String key : pending.keySet()) {
+            if (current.get(key) == null) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Merges the coordinates added since the last flush into a new table generation on disk. Does
+     * nothing for an index kept in memory.
+     */
+    public void flush() throws IOException {
+        flush(false);
+    }
+
+    private void flush(boolean overThresholdOnly) throws IOException {
+        if (directory == null) {
+            return;
+        }
+        synchronized (flushLock) {
+            // A merge that finished while this one waited for the lock may have taken everything
+            if (pending.isEmpty() || overThresholdOnly && !overThreshold()) {
+                return;
+            }
+            Map<String, List<String>> snapshot = new TreeMap<>(pending);
+            long next = generation + 1;
+            Files.createDirectories(directory);
+            Path file = tableFile(next);
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try {
+                CoordinateTable.write(temp, new MergingIterator(table.iterator(), snapshot.entrySet().iterator()));
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            table = CoordinateTable.open(file);
+            generation = next;
+            // Entries that changed while the table was written stay pending for the next merge
+            snapshot.forEach(pending::remove);
+            deleteOlderGenerations(next);
+            LOG.debug("Coordinate index generation " + next + " holds " + table.size() + " artifacts");
+        }
+    }
+
+    private Path tableFile(long tableGeneration) {
+        return directory.resolve("coordinates-" + tableGeneration + ".sst");
+    }
+
+    /**
+     * Removes the files of replaced generations. Searches still running on them keep their mapping;
+     * where the platform refuses to delete a mapped file, it is retried the next time the index opens.
+     */
+    private void deleteOlderGenerations(long current) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "coordinates-*.sst")) {
+            for (Path file : files) {
+                Matcher matcher = TABLE_FILE.matcher(file.getFileName().toString());
+                if (matcher.matches() && Long.parseLong(matcher.group(1)) < current) {
+                    try {
+                        Files.deleteIfExists(file);
+                    } catch (IOException e) {
+                        LOG.debug("Could not delete old coordinate index " + file + ": " + e.getMessage());
+                    }
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            LOG.debug("Could not clean up coordinate index directory: " + e.getMessage());
+        }
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0x7F) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<String> union(List<String> first, List<String> second) {
+        LinkedHashSet<String> versions = new LinkedHashSet<>(first);
+        versions.addAll(second);
+        return versions.size() == first.size() ? first : List.copyOf(versions);
+    }
+
+    /**
+     * Merges two iterators sorted by key into one, uniting the versions of keys present in both.
+     */
+    private static final class MergingIterator implements Iterator<Map.Entry<String, List<String>>> {
+        private final Iterator<Map.Entry<String, List<String>>> first;
+        private final Iterator<Map.Entry<String, List<String>>> second;
+        private Map.Entry<String, List<String>> nextFirst;
+        private Map.Entry<String, List<String>> nextSecond;
+
+        MergingIterator(Iterator<Map.Entry<String, List<String>>> first, Iterator<Map.Entry<String, List<String>>> second) {
+            this.first = first;
+            this.second = second;
+            nextFirst = first.hasNext() ? first.next() : null;
+            nextSecond = second.hasNext() ? second.next() : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextFirst != null || nextSecond != null;
+        }
+
+        @Override
+        public Map.Entry<String, List<String>> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int comparison = nextFirst == null ? 1 : nextSecond == null ? -1 : nextFirst.getKey().compareTo(nextSecond.getKey());
+            Map.Entry<String, List<String>> result;
+            if (comparison < 0) {
+                result = nextFirst;
+                nextFirst = first.hasNext() ? first.next() : null;
+            } else if (comparison > 0) {
+                result = nextSecond;
+                nextSecond = second.hasNext() ? second.next() : null;
+            } else {
+                result = Map.entry(nextFirst.getKey(), union(nextFirst.getValue(), nextSecond.getValue()));
+                nextFirst = first.hasNext() ? first.next() : null;
+                nextSecond = second.hasNext() ? second.next() : null;
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.mavenpom.index;
+
+import com.example.mavenpom.client.ClientLogger;
+import com.example.mavenpom.client.MavenRepository;
+import com.example.mavenpom.client.RepositoryMirrors;
+import com.example.mavenpom.client.SSLClient;
+import okhttp3.CacheControl;
+import okhttp3.HttpUrl;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Feeds the {@link CoordinateIndex} from the configured repositories.
+ * <ul>
+ *   <li>{@link #indexArtifact} reads the versions of one artifact from its {@code maven-metadata.xml},
+ *   fetched through the repository mirrors like any POM.</li>
+ *   <li>{@link #searchRemote} asks the search API of every configured Nexus 3 repository manager for
+ *   the artifacts matching a prefix, following continuation tokens for a few pages. Repositories that
+ *   are not served by Nexus, such as Maven Central, are skipped.</li>
+ * </ul>
+ */
+public class CoordinateIndexer {
+    private static final ClientLogger LOG = ClientLogger.getInstance(CoordinateIndexer.class);
+
+    static final int MAX_SEARCH_PAGES = 5;
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final String NEXUS_REPOSITORY_PATH = "/repository/";
+    private static final String VERSION = "metadata/versioning/versions/version";
+    private static final XMLInputFactory FACTORY = createFactory();
+
+    private final CoordinateIndex index;
+    private final Supplier<RepositoryMirrors> mirrors;
+
+    /**
+     * @param mirrors consulted on every call, so changes to the repository settings are picked up
+     */
+    public CoordinateIndexer(@NotNull CoordinateIndex index, @NotNull Supplier<RepositoryMirrors> mirrors) {
+        this.index = index;
+        this.mirrors = mirrors;
+    }
+
+    /**
+     * Records every version listed in the artifact's {@code maven-metadata.xml}.
+     *
+     * @return the artifact as indexed afterwards
+     */
+    public CompletableFuture<CoordinateMatch> indexArtifact(@NotNull String groupId, @NotNull String artifactId) {
+        String path = groupId.replace('.', '/') + "/" + artifactId + "/maven-metadata.xml";
+        return mirrors.get().fetchAsync(path, TIMEOUT).thenApply(body -> {
+            try {
+                index.add(groupId, artifactId, parseMetadataVersions(body));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Invalid metadata for " + groupId + ":" + artifactId, e);
+            }
+            return index.get(groupId, artifactId);
+        });
+    }
+
+    /**
+     * Searches the configured Nexus repository managers for {@code query}, a group prefix optionally
+     * followed by {@code :} and an artifact prefix, and records what they report. A repository manager
+     * whose search fails is logged and skipped.
+     *
+     * @return the number of versions reported
+     */
+    public CompletableFuture<Integer> searchRemote(@NotNull String query) {
+        String[] parts = query.trim().split(":", 3);
+        if (parts[0].isEmpty()) {
+            return CompletableFuture.completedFuture(0);
+        }
+        RepositoryMirrors current = mirrors.get();
+        Set<String> searched = new LinkedHashSet<>();
+        List<CompletableFuture<Integer>> searches = new ArrayList<>();
+        for (MavenRepository repository : current.getRepositories()) {
+            String base = nexusBaseUrl(repository);
+            if (base == null || !searched.add(base)) {
+                continue;
+            }
+            searches.add(searchPage(current.getClient(repository), base, parts, null, 0).exceptionally(failure -> {
+                LOG.info("Search on " + base + " failed: " + failure.getMessage());
+                return 0;
+            }));
+        }
+        return CompletableFuture.allOf(searches.toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> searches.stream().mapToInt(CompletableFuture::join).sum());
+    }
+
+    private CompletableFuture<Integer> searchPage(SSLClient client, String base, String[] parts,
+                                                  @Nullable String continuationToken, int page) {
+        HttpUrl.Builder url = HttpUrl.get(base).newBuilder()
+                .addPathSegments("service/rest/v1/search")
+                .addQueryParameter("format", "maven2");
+        if (parts.length == 1) {
+            url.addQueryParameter("maven.groupId", parts[0] + "*");
+        } else {
+            url.addQueryParameter("maven.groupId", parts[0]);
+            url.addQueryParameter("maven.artifactId", parts[1] + "*");
+        }
+        if (continuationToken != null) {
+            url.addQueryParameter("continuationToken", continuationToken);
+        }
+
+        // Results change as artifacts are deployed, so they are never answered from the disk cache
+        return client.makeRequestAsync(url.build().toString(), TIMEOUT, CacheControl.FORCE_NETWORK).thenCompose(body -> {
+            Map<String, Object> response;
+            try {
+                response = asObject(JsonReader.parse(body));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            int reported = 0;
+            Map<String, List<String>> artifacts = new LinkedHashMap<>();
+            Object items = response.get("items");
+            if (items instanceof List) {
+                for (Object item : (List<?>) items) {
+                    Map<String, Object> component = asObject(item);
+                    Object group = component.get("group");
+                    Object name = component.get("name");
+                    Object version = component.get("version");
+                    if (group instanceof String && name instanceof String && version instanceof String) {
+                        artifacts.computeIfAbsent(group + ":" + name, key -> new ArrayList<>()).add((String) version);
+                        reported++;
+                    }
+                }
+            }
+            artifacts.forEach((key, versions) -> {
+                int colon = key.indexOf(':');
+                index.add(key.substring(0, colon), key.substring(colon + 1), versions);
+            });
+
+            Object token = response.get("continuationToken");
+            if (!(token instanceof String) || page + 1 >= MAX_SEARCH_PAGES) {
+                return CompletableFuture.completedFuture(reported);
+            }
+            int reportedSoFar = reported;
+            return searchPage(client, base, parts, (String) token, page + 1).thenApply(more -> reportedSoFar + more);
+        });
+    }
+
+    /**
+     * Returns the base URL of the Nexus 3 instance serving {@code repository}, recognised by its
+     * {@code /repository/<name>/} layout, or {@code null} for any other repository.
+     */
+    @Nullable
+    private static String nexusBaseUrl(MavenRepository repository) {
+        String url = repository.getUrl();
+        int index = url.indexOf(NEXUS_REPOSITORY_PATH);
+        return index < 0 ? null : url.substring(0, index + 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asObject(Object value) {
+        return value instanceof Map ? (Map<String, Object>) value : Map.of();
+    }
+
+    static List<String> parseMetadataVersions(String metadata) throws IOException {
+        List<String> versions = new ArrayList<>();
+        try {
+            XMLStreamReader reader = FACTORY.createXMLStreamReader(new StringReader(metadata));
+            try {
+                StringBuilder path = new StringBuilder();
+                StringBuilder text = new StringBuilder();
+                while (reader.hasNext()) {
+                    switch (reader.next()) {
+                        case XMLStreamConstants.START_ELEMENT:
+                            path.append(path.length() == 0 ? "" : "/").append(reader.getLocalName());
+                            text.setLength(0);
+                            break;
+                        case XMLStreamConstants.CHARACTERS:
+                        case XMLStreamConstants.CDATA:
+                            text.append(reader.getText());
+                            break;
+                        case XMLStreamConstants.END_ELEMENT:
+                            if (VERSION.contentEquals(path) && !text.toString().isBlank()) {
+                                versions.add(text.toString().trim());
+                            }
+                            path.setLength(Math.max(0, path.length() - reader.getLocalName().length() - 1));
+                            text.setLength(0);
+                            break;
+                        default:
+                            break;
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Malformed maven-metadata.xml: " + e.getMessage(), e);
+        }
+        return versions;
+    }
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+}
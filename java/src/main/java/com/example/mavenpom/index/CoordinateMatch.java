@@ -0,0 +1,74 @@
+package com.example.mavenpom.index;
+
+import com.example.mavenpom.actions.MavenCoordinate;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * An artifact found in the {@link CoordinateIndex} with the versions known for it.
+ */
+public final class CoordinateMatch {
+    private final String groupId;
+    private final String artifactId;
+    private final List<String> versions;
+
+    CoordinateMatch(String groupId, String artifactId, List<String> versions) {
+        this.groupId = groupId;
+        this.artifactId = artifactId;
+        this.versions = List.copyOf(versions);
+    }
+
+    public String getGroupId() {
+        return groupId;
+    }
+
+    public String getArtifactId() {
+        return artifactId;
+    }
+
+    /**
+     * Returns the known versions in the order they were first seen, which for
+     * {@code maven-metadata.xml} is release order.
+     */
+    public List<String> getVersions() {
+        return versions;
+    }
+
+    @Nullable
+    public String getLatestVersion() {
+        return versions.isEmpty() ? null : versions.get(versions.size() - 1);
+    }
+
+    /**
+     * Returns the coordinate of the latest version, or {@code null} when no version is known.
+     */
+    @Nullable
+    public MavenCoordinate toLatestCoordinate() {
+        String latest = getLatestVersion();
+        return latest == null ? null : new MavenCoordinate(groupId, artifactId, latest);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CoordinateMatch)) {
+            return false;
+        }
+        CoordinateMatch that = (CoordinateMatch) o;
+        return groupId.equals(that.groupId) && artifactId.equals(that.artifactId) && versions.equals(that.versions);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(groupId, artifactId, versions);
+    }
+
+    @Override
+    public String toString() {
+        return groupId + ":" + artifactId;
+    }
+}
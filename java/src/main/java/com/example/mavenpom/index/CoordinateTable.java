@@ -0,0 +1,353 @@
+package com.example.mavenpom.index;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * Immutable sorted string table of {@code groupId:artifactId} keys and their versions, read through a
+ * memory mapping so it costs next to nothing on the heap however many coordinates it holds.
+ * <p>
+ * Layout, all integers big-endian:
+ * <pre>
+ * entry*          shared varint, unshared varint, key suffix bytes,
+ *                 version count varint, then per version: shared varint, unshared varint, suffix bytes
+ * restart*        int offset of every {@value #RESTART_INTERVAL}th entry
+ * footer          int restart table offset, int restart count, int entry count, int version, int magic
+ * </pre>
+ * Keys are front-coded against the previous key, and versions against the previous version of the same
+ * entry, which shrinks the long shared group prefixes of Maven coordinates to a few bytes. Entries at
+ * restart points store their key in full, so a prefix lookup is a binary search over the restart points
+ * followed by a scan of at most one block before the matches start.
+ * <p>
+ * Keys are ASCII and compared as bytes, which for ASCII is the same order as {@link String#compareTo}.
+ * Only absolute reads are used, so a table can be searched from any number of threads.
+ */
+final class CoordinateTable {
+    static final int MAGIC = 0x4D504349; // "MPCI"
+    static final int FORMAT_VERSION = 1;
+    static final int RESTART_INTERVAL = 16;
+    private static final int FOOTER_SIZE = 20;
+
+    static final CoordinateTable EMPTY = new CoordinateTable(emptyImage());
+
+    private final ByteBuffer data;
+    private final int restartOffset;
+    private final int restartCount;
+    private final int entryCount;
+
+    private CoordinateTable(ByteBuffer data) {
+        int limit = data.limit();
+        if (limit < FOOTER_SIZE) {
+            throw new IllegalArgumentException("Index file is truncated");
+        }
+        int footer = limit - FOOTER_SIZE;
+        if (data.getInt(footer + 16) != MAGIC) {
+            throw new IllegalArgumentException("Not a coordinate index");
+        }
+        if (data.getInt(footer + 12) != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported index version " + data.getInt(footer + 12));
+        }
+        this.data = data;
+        this.restartOffset = data.getInt(footer);
+        this.restartCount = data.getInt(footer + 4);
+        this.entryCount = data.getInt(footer + 8);
+        if (restartOffset < 0 || restartCount < 0 || (long) restartOffset + 4L * restartCount != footer) {
+            throw new IllegalArgumentException("Index file is corrupt");
+        }
+    }
+
+    /**
+     * Maps {@code file} read-only. The mapping stays valid after the file is replaced or deleted.
+     *
+     * @throws IOException if the file cannot be read or is not a valid table
+     */
+    static CoordinateTable open(@NotNull Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Index file is too large: " + file);
+            }
+            return new CoordinateTable(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage() + ": " + file, e);
+        }
+    }
+
+    /**
+     * Writes the entries, which must be sorted by key without duplicates, to {@code file}.
+     */
+    static void write(@NotNull Path file, @NotNull Iterator<Map.Entry<String, List<String>>> entries) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024))) {
+            int[] restarts = new int[64];
+            int count = 0;
+            byte[] previous = new byte[0];
+            while (entries.hasNext()) {
+                Map.Entry<String, List<String>> entry = entries.next();
+                byte[] key = entry.getKey().getBytes(StandardCharsets.US_ASCII);
+                if (count > 0 && Arrays.compareUnsigned(previous, key) >= 0) {
+                    throw new IllegalArgumentException("Keys are not sorted: " + entry.getKey());
+                }
+                int shared = 0;
+                if (count % RESTART_INTERVAL == 0) {
+                    if (count / RESTART_INTERVAL == restarts.length) {
+                        restarts = Arrays.copyOf(restarts, restarts.length * 2);
+                    }
+                    restarts[count / RESTART_INTERVAL] = out.size();
+                } else {
+                    shared = sharedPrefix(previous, key);
+                }
+                writeFrontCoded(out, shared, key);
+
+                List<String> versions = entry.getValue();
+                writeVarint(out, versions.size());
+                byte[] previousVersion = new byte[0];
+                for (String version : versions) {
+                    byte[] bytes = version.getBytes(StandardCharsets.US_ASCII);
+                    writeFrontCoded(out, sharedPrefix(previousVersion, bytes), bytes);
+                    previousVersion = bytes;
+                }
+                previous = key;
+                count++;
+            }
+
+            int restartOffset = out.size();
+            int restartCount = (count + RESTART_INTERVAL - 1) / RESTART_INTERVAL;
+            for (int i = 0; i < restartCount; i++) {
+                out.writeInt(restarts[i]);
+            }
+            out.writeInt(restartOffset);
+            out.writeInt(restartCount);
+            out.writeInt(count);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(MAGIC);
+        }
+    }
+
+    int size() {
+        return entryCount;
+    }
+
+    /**
+     * Hands every entry whose key starts with {@code prefix} to {@code visitor}, in key order, until the
+     * visitor returns {@code false}. An empty prefix visits the whole table.
+     */
+    void scan(@NotNull String prefix, @NotNull Predicate<Map.Entry<String, List<String>>> visitor) {
+        if (entryCount == 0) {
+            return;
+        }
+        byte[] wanted = prefix.getBytes(StandardCharsets.US_ASCII);
+        int block = firstCandidateBlock(wanted);
+        Cursor cursor = new Cursor(restartAt(block));
+        for (int i = block * RESTART_INTERVAL; i < entryCount; i++) {
+            cursor.next();
+            int comparison = cursor.comparePrefix(wanted);
+            if (comparison < 0) {
+                continue;
+            }
+            if (comparison > 0 || !visitor.test(Map.entry(cursor.key(), cursor.versions()))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Iterates over all entries in key order, decoding one entry at a time.
+     */
+    Iterator<Map.Entry<String, List<String>>> iterator() {
+        Cursor cursor = new Cursor(0);
+        return new Iterator<>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < entryCount;
+            }
+
+            @Override
+            public Map.Entry<String, List<String>> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                index++;
+                cursor.next();
+                return Map.entry(cursor.key(), cursor.versions());
+            }
+        };
+    }
+
+    /**
+     * Returns the versions stored for {@code key}, or {@code null} when the table does not have it.
+     */
+    @Nullable
+    List<String> get(@NotNull String key) {
+        List<List<String>> found = new ArrayList<>(1);
+        scan(key, entry -> {
+            if (entry.getKey().equals(key)) {
+                found.add(entry.getValue());
+            }
+            return false;
+        });
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    /**
+     * Index of the last block whose first key sorts before {@code prefix}; matches cannot start earlier.
+     */
+    private int firstCandidateBlock(byte[] prefix) {
+        int low = 0;
+        int high = restartCount - 1;
+        int block = 0;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (compareRestartKey(restartAt(mid), prefix) < 0) {
+                block = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return block;
+    }
+
+    private int restartAt(int block) {
+        return data.getInt(restartOffset + 4 * block);
+    }
+
+    private int compareRestartKey(int offset, byte[] other) {
+        int[] position = {offset};
+        readVarint(position); // shared, always 0 at a restart point
+        int length = readVarint(position);
+        int start = position[0];
+        int common = Math.min(length, other.length);
+        for (int i = 0; i < common; i++) {
+            int difference = (data.get(start + i) & 0xFF) - (other[i] & 0xFF);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return length - other.length;
+    }
+
+    private int readVarint(int[] position) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data.get(position[0]++);
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    /**
+     * Decodes entries one after the other, starting at a restart point.
+     */
+    private final class Cursor {
+        private final int[] position;
+        private byte[] key = new byte[64];
+        private int keyLength;
+        private int versionsOffset;
+
+        Cursor(int offset) {
+            position = new int[]{offset};
+        }
+
+        void next() {
+            int shared = readVarint(position);
+            int unshared = readVarint(position);
+            if (shared + unshared > key.length) {
+                key = Arrays.copyOf(key, Math.max(key.length * 2, shared + unshared));
+            }
+            data.get(position[0], key, shared, unshared);
+            position[0] += unshared;
+            keyLength = shared + unshared;
+
+            versionsOffset = position[0];
+            int versionCount = readVarint(position);
+            for (int i = 0; i < versionCount; i++) {
+                readVarint(position);
+                int unsharedVersion = readVarint(position);
+                position[0] += unsharedVersion;
+            }
+        }
+
+        /**
+         * Negative while the key sorts before every key with the prefix, zero while it has the prefix and
+         * positive once it sorts after them.
+         */
+        int comparePrefix(byte[] prefix) {
+            int common = Math.min(keyLength, prefix.length);
+            for (int i = 0; i < common; i++) {
+                int difference = (key[i] & 0xFF) - (prefix[i] & 0xFF);
+                if (difference != 0) {
+                    return difference;
+                }
+            }
+            return keyLength < prefix.length ? -1 : 0;
+        }
+
+        String key() {
+            return new String(key, 0, keyLength, StandardCharsets.US_ASCII);
+        }
+
+        List<String> versions() {
+            int[] at = {versionsOffset};
+            int count = readVarint(at);
+            List<String> versions = new ArrayList<>(count);
+            byte[] version = new byte[0];
+            for (int i = 0; i < count; i++) {
+                int shared = readVarint(at);
+                int unshared = readVarint(at);
+                byte[] next = Arrays.copyOf(version, shared + unshared);
+                data.get(at[0], next, shared, unshared);
+                at[0] += unshared;
+                versions.add(new String(next, StandardCharsets.US_ASCII));
+                version = next;
+            }
+            return versions;
+        }
+    }
+
+    private static void writeFrontCoded(DataOutputStream out, int shared, byte[] value) throws IOException {
+        writeVarint(out, shared);
+        writeVarint(out, value.length - shared);
+        out.write(value, shared, value.length - shared);
+    }
+
+    private static void writeVarint(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int sharedPrefix(byte[] a, byte[] b) {
+        int mismatch = Arrays.mismatch(a, b);
+        return mismatch < 0 ? a.length : mismatch;
+    }
+
+    private static ByteBuffer emptyImage() {
+        ByteBuffer image = ByteBuffer.allocate(FOOTER_SIZE);
+        image.putInt(0).putInt(0).putInt(0).putInt(FORMAT_VERSION).putInt(MAGIC);
+        return image.flip();
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.mavenpom.settings;
+
+import com.example.mavenpom.client.ProxySettings;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.util.net.HttpConfigurable;
+import com.intellij.util.proxy.CommonProxy;
+
+import java.net.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the IDE's HTTP proxy settings (Settings | Appearance &amp; Behavior | System Settings | HTTP Proxy)
+ * into {@link ProxySettings} for the plugin's clients.
+ * <p>
+ * For "Auto-detect proxy settings" the platform's proxy selector evaluates the PAC script, found
+ * through WPAD or at the configured URL, with the JavaScript engine the IDE ships; the plugin only
+ * caches its answers.
+ */
+final class IdeProxySettings {
+    private static final Logger LOG = Logger.getInstance(IdeProxySettings.class);
+
+    private IdeProxySettings() {
+    }
+
+    static ProxySettings current() {
+        HttpConfigurable configurable = HttpConfigurable.getInstance();
+        if (configurable.USE_PROXY_PAC) {
+            // The proxies a script chooses may ask for credentials just like a manual one
+            return withCredentials(configurable,
+                    ProxySettings.pac(CommonProxy.getInstance(), configurable.USE_PAC_URL ? configurable.PAC_URL : null));
+        }
+        if (!configurable.USE_HTTP_PROXY || configurable.PROXY_HOST == null || configurable.PROXY_HOST.isBlank()) {
+            return ProxySettings.direct();
+        }
+        try {
+            ProxySettings settings = ProxySettings.manual(
+                configurable.PROXY_TYPE_IS_SOCKS ? Proxy.Type.SOCKS : Proxy.Type.HTTP,
+                configurable.PROXY_HOST.trim(), configurable.PROXY_PORT, nonProxyHosts(configurable.PROXY_EXCEPTIONS));
+            return withCredentials(configurable, settings);
+        } catch (IllegalArgumentException e) {
+            LOG.warn("Ignoring invalid IDE proxy settings: " + e.getMessage());
+            return ProxySettings.direct();
+        }
+    }
+
+    private static ProxySettings withCredentials(HttpConfigurable configurable, ProxySettings settings) {
+        return configurable.PROXY_AUTHENTICATION
+            ? settings.withCredentials(configurable.getProxyLogin(), configurable.getPlainProxyPassword())
+            : settings;
+    }
+
+    /**
+     * The IDE keeps the "No proxy for" list as one comma-separated string.
+     */
+    private static List<String> nonProxyHosts(String exceptions) {
+        List<String> hosts = new ArrayList<>();
+        if (exceptions != null) {
+            for (String host : exceptions.split(",")) {
+                if (!host.isBlank()) {
+                    hosts.add(host.trim());
+                }
+            }
+        }
+        return hosts;
+    }
+}
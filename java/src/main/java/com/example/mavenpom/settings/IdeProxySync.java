@@ -0,0 +1,79 @@
+package com.example.mavenpom.settings;
+
+import com.example.mavenpom.client.SSLClientRegistry;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.util.concurrency.AppExecutorUtil;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the proxy settings of the plugin's clients in line with the IDE's, on a background thread.
+ * <p>
+ * The platform sends no notification when the HTTP Proxy settings change, so they are read again every
+ * {@link #INTERVAL_SECONDS} seconds. Reading them decrypts the stored proxy password, which is why this
+ * never happens on the path of a fetch, and certainly not on the EDT. Unchanged settings leave the
+ * clients and their pooled connections alone.
+ * <p>
+ * {@link MavenRepositorySettings} starts it when the plugin first needs its clients. As an application
+ * service it is disposed with the application, which stops the checks.
+ */
+public final class IdeProxySync implements Disposable {
+    private static final Logger LOG = Logger.getInstance(IdeProxySync.class);
+    static final long INTERVAL_SECONDS = 30;
+
+    private boolean started;
+    private boolean disposed;
+    private ScheduledFuture<?> task;
+
+    public static IdeProxySync getInstance() {
+        return ApplicationManager.getApplication().getService(IdeProxySync.class);
+    }
+
+    /**
+     * Applies the current IDE proxy settings, then keeps checking them; only the first call has any effect.
+     * Off the EDT the settings are applied before this returns, so the caller's first connections already
+     * go through the right proxy.
+     */
+    public void start() {
+        synchronized (this) {
+            if (started || disposed) {
+                return;
+            }
+            started = true;
+        }
+        boolean onEdt = ApplicationManager.getApplication().isDispatchThread();
+        if (!onEdt) {
+            sync();
+        }
+        ScheduledFuture<?> scheduled = AppExecutorUtil.getAppScheduledExecutorService()
+            .scheduleWithFixedDelay(IdeProxySync::sync, onEdt ? 0 : INTERVAL_SECONDS, INTERVAL_SECONDS, TimeUnit.SECONDS);
+        synchronized (this) {
+            if (disposed) {
+                scheduled.cancel(false);
+            } else {
+                task = scheduled;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void dispose() {
+        disposed = true;
+        if (task != null) {
+            task.cancel(false);
+            task = null;
+        }
+    }
+
+    static void sync() {
+        try {
+            SSLClientRegistry.getInstance().setProxySettings(IdeProxySettings.current());
+        } catch (RuntimeException e) {
+            // Thrown out of a scheduled task it would cancel every later sync
+            LOG.warn("Failed to apply the IDE proxy settings", e);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.mavenpom.settings;
+
+import com.example.mavenpom.actions.BatchPomFetcher;
+import com.example.mavenpom.client.MavenRepository;
+import com.example.mavenpom.client.RepositoryMirrors;
+import com.example.mavenpom.client.SSLClient;
+import com.example.mavenpom.client.SSLClientRegistry;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.State;
+import com.intellij.openapi.components.Storage;
+import com.intellij.openapi.diagnostic.Logger;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The Maven repositories POMs are fetched from, in order of preference, each with its own certificate
+ * bundle. Stored in {@code maven-pom-viewer.xml} in the IDE options directory; by default only Maven
+ * Central is configured.
+ * <p>
+ * A typical corporate setup lists the Nexus mirror first, trusted through the company bundle, and
+ * Maven Central second as a fallback and hedge target.
+ */
+@State(name = "MavenPomRepositories", storages = @Storage("maven-pom-viewer.xml"))
+public class MavenRepositorySettings implements PersistentStateComponent<MavenRepositorySettings.SettingsState> {
+    private static final Logger LOG = Logger.getInstance(MavenRepositorySettings.class);
+
+    /** One configured repository; public fields so the platform can serialize it. */
+    public static class RepositoryEntry {
+        public String id;
+        public String url;
+        public String certPath;
+
+        public RepositoryEntry() {
+        }
+
+        public RepositoryEntry(String id, String url, String certPath) {
+            this.id = id;
+            this.url = url;
+            this.certPath = certPath;
+        }
+    }
+
+    public static class SettingsState {
+        public List<RepositoryEntry> repositories = new ArrayList<>(List.of(
+            new RepositoryEntry("central", BatchPomFetcher.MAVEN_CENTRAL_URL, null)));
+    }
+
+    private SettingsState state = new SettingsState();
+    private RepositoryMirrors mirrors;
+
+    public static MavenRepositorySettings getInstance() {
+        return ApplicationManager.getApplication().getService(MavenRepositorySettings.class);
+    }
+
+    @Override
+    public synchronized SettingsState getState() {
+        return state;
+    }
+
+    @Override
+    public synchronized void loadState(@NotNull SettingsState loaded) {
+        state = loaded;
+        mirrors = null;
+    }
+
+    /**
+     * Returns the configured repositories, skipping entries that are incomplete or have an invalid URL.
+     * Falls back to Maven Central when nothing usable is configured.
+     */
+    public synchronized List<MavenRepository> getRepositories() {
+        List<MavenRepository> repositories = new ArrayList<>();
+        for (RepositoryEntry entry : state.repositories) {
+            if (entry.url == null || entry.url.isEmpty()) {
+                continue;
+            }
+            try {
+                String id = entry.id == null || entry.id.isEmpty() ? entry.url : entry.id;
+                repositories.add(new MavenRepository(id, entry.url, entry.certPath));
+            } catch (IllegalArgumentException e) {
+                LOG.warn("Ignoring repository " + entry.id + ": " + e.getMessage());
+            }
+        }
+        if (repositories.isEmpty()) {
+            repositories.add(new MavenRepository("central", BatchPomFetcher.MAVEN_CENTRAL_URL, null));
+        }
+        return repositories;
+    }
+
+    public synchronized void setRepositories(@NotNull List<MavenRepository> repositories) {
+        SettingsState updated = new SettingsState();
+        updated.repositories = new ArrayList<>();
+        for (MavenRepository repository : repositories) {
+            updated.repositories.add(new RepositoryEntry(repository.getId(), repository.getUrl(), repository.getCertPath()));
+        }
+        loadState(updated);
+    }
+
+    /**
+     * Returns the mirrors for the current configuration. The instance, and with it the latency history
+     * of every repository, is kept until the configuration changes. Proxy settings are kept up to date
+     * separately by {@link IdeProxySync}, which is started here before any client is used.
+     */
+    public synchronized RepositoryMirrors getMirrors() {
+        if (mirrors == null) {
+            IdeProxySync.getInstance().start();
+            mirrors = new RepositoryMirrors(getRepositories(), MavenRepositorySettings::clientFor);
+        }
+        return mirrors;
+    }
+
+    private static SSLClient clientFor(MavenRepository repository) {
+        SSLClientRegistry registry = SSLClientRegistry.getInstance();
+        return repository.getCertPath() == null ? registry.getClient() : registry.getClient(repository.getCertPath());
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.mavenpom.startup;
+
+import com.example.mavenpom.client.MavenRepository;
+import com.example.mavenpom.client.RepositoryMirrors;
+import com.example.mavenpom.client.SSLClient;
+import com.example.mavenpom.settings.MavenRepositorySettings;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.startup.StartupActivity;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Builds the {@link SSLClient} of every configured repository and opens connections to them in the
+ * background after a project opens, so the first fetch the user triggers starts on a warm connection
+ * instead of paying for the trust store, DNS, TCP connect and TLS handshake.
+ * <p>
+ * The clients and their connection pools are shared by the whole IDE, so this runs once per session no
+ * matter how many projects are opened.
+ */
+public class PrewarmStartupActivity implements StartupActivity.Background {
+    private static final Logger LOG = Logger.getInstance(PrewarmStartupActivity.class);
+    private static final AtomicBoolean STARTED = new AtomicBoolean();
+    private static final long PREWARM_TIMEOUT_SECONDS = 30;
+
+    @Override
+    public void runActivity(@NotNull Project project) {
+        if (!STARTED.compareAndSet(false, true)) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            // Each repository may have its own trust bundle and therefore its own client
+            RepositoryMirrors mirrors = MavenRepositorySettings.getInstance().getMirrors();
+            List<CompletableFuture<Void>> warmups = new ArrayList<>();
+            for (MavenRepository repository : mirrors.getRepositories()) {
+                warmups.add(mirrors.getClient(repository).prewarm(List.of(repository.getUrl())));
+            }
+            CompletableFuture.allOf(warmups.toArray(new CompletableFuture[0])).get(PREWARM_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            LOG.info("Pre-warmed Maven repository connections in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        } catch (TimeoutException e) {
+            LOG.info("Pre-warming Maven repository connections is still running after "
+                + PREWARM_TIMEOUT_SECONDS + " s, leaving it in the background");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | RuntimeException e) {
+            LOG.warn("Failed to pre-warm Maven repository connections", e);
+        }
+    }
+}
@@ -1,52 +1,326 @@
 package com.example.mavenpom.ui.toolwindow;
 
 import com.example.mavenpom.actions.FetchMavenPomAction;
+import com.example.mavenpom.actions.MavenCoordinate;
+import com.example.mavenpom.index.CoordinateIndex;
+import com.example.mavenpom.index.CoordinateIndexer;
+import com.example.mavenpom.index.CoordinateMatch;
+import com.example.mavenpom.settings.MavenRepositorySettings;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.Messages;
+import com.intellij.ui.components.JBList;
 import com.intellij.ui.components.JBScrollPane;
-import com.intellij.ui.components.JBTextArea;
+import com.intellij.ui.components.JBTextField;
 import com.intellij.util.ui.JBUI;
 import org.jetbrains.annotations.NotNull;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.List;
 import java.util.ResourceBundle;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
-public class MavenPomToolWindow extends JPanel {
-    private final JBTextArea contentArea;
+public class MavenPomToolWindow extends JPanel implements Disposable {
+    private static final long POLL_INTERVAL_MS = 100;
+    private static final int SUGGESTION_LIMIT = 20;
+    private static final int REMOTE_LOOKUP_DELAY_MS = 300;
+    private static final int MIN_REMOTE_QUERY_LENGTH = 3;
+
+    private final StreamingXmlViewer viewer;
+    private final JBTextField coordinateField;
+    private final DefaultListModel<CoordinateMatch> suggestions = new DefaultListModel<>();
+    private final JBScrollPane suggestionPane;
+    private final Timer remoteLookupTimer;
+    private final CoordinateIndex index;
+    private final CoordinateIndexer indexer;
+    private final JButton cancelButton;
     private final Project project;
     private final ResourceBundle bundle;
     private final FetchMavenPomAction fetchAction;
+    private volatile FetchTask currentTask;
 
     public MavenPomToolWindow(@NotNull Project project) {
         this.project = project;
         this.bundle = ResourceBundle.getBundle("messages.MavenPomBundle");
         this.fetchAction = new FetchMavenPomAction();
-        
+        this.index = CoordinateIndex.getInstance();
+        this.indexer = new CoordinateIndexer(index, () -> MavenRepositorySettings.getInstance().getMirrors());
+
         setLayout(new BorderLayout());
         setBorder(JBUI.Borders.empty(5));
 
-        contentArea = new JBTextArea();
-        contentArea.setEditable(false);
-        contentArea.setText(bundle.getString("toolwindow.empty.text"));
+        viewer = new StreamingXmlViewer(project);
+        viewer.showText(bundle.getString("toolwindow.empty.text"));
 
         JButton fetchButton = new JButton(bundle.getString("toolwindow.fetch.button"));
         fetchButton.addActionListener(e -> fetchPom());
 
-        add(new JBScrollPane(contentArea), BorderLayout.CENTER);
-        add(fetchButton, BorderLayout.NORTH);
+        cancelButton = new JButton(bundle.getString("toolwindow.cancel.button"));
+        cancelButton.setEnabled(false);
+        cancelButton.addActionListener(e -> cancelFetch());
+
+        coordinateField = new JBTextField();
+        coordinateField.setColumns(40);
+        coordinateField.setText(FetchMavenPomAction.MAVEN_POM_COORDINATE.toString());
+        coordinateField.setToolTipText(bundle.getString("toolwindow.coordinate.tooltip"));
+        coordinateField.addActionListener(e -> fetchPom());
+
+        JBList<CoordinateMatch> suggestionList = new JBList<>(suggestions);
+        suggestionList.setVisibleRowCount(6);
+        suggestionList.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) {
+                    acceptSuggestion(suggestionList.getSelectedValue());
+                }
+            }
+        });
+        suggestionList.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (e.getKeyCode() == KeyEvent.VK_ENTER) {
+                    acceptSuggestion(suggestionList.getSelectedValue());
+                }
+            }
+        });
+        suggestionPane = new JBScrollPane(suggestionList);
+        suggestionPane.setVisible(false);
+
+        // The local index answers within the keystroke; the repositories are only asked once typing pauses
+        remoteLookupTimer = new Timer(REMOTE_LOOKUP_DELAY_MS, e -> lookUpRemotely(coordinateField.getText()));
+        remoteLookupTimer.setRepeats(false);
+        coordinateField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                onQueryChanged();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                onQueryChanged();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                onQueryChanged();
+            }
+        });
+
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        buttonPanel.add(coordinateField);
+        buttonPanel.add(fetchButton);
+        buttonPanel.add(cancelButton);
+
+        JPanel northPanel = new JPanel(new BorderLayout());
+        northPanel.add(buttonPanel, BorderLayout.NORTH);
+        northPanel.add(suggestionPane, BorderLayout.CENTER);
+
+        add(viewer.getComponent(), BorderLayout.CENTER);
+        add(northPanel, BorderLayout.NORTH);
+    }
+
+    private void onQueryChanged() {
+        showSuggestions();
+        remoteLookupTimer.restart();
+    }
+
+    private void showSuggestions() {
+        String query = coordinateField.getText().trim();
+        List<CoordinateMatch> matches = query.isEmpty() ? List.of() : index.search(query, SUGGESTION_LIMIT);
+        suggestions.clear();
+        suggestions.addAll(matches);
+        // A complete coordinate that is the only match needs no suggestion
+        boolean complete = matches.size() == 1 && query.split(":").length == 3;
+        suggestionPane.setVisible(!matches.isEmpty() && !complete);
+        revalidate();
+    }
+
+    /**
+     * Asks the repositories about the query in the background and refreshes the suggestions if the
+     * query is still the same when they answer: a {@code groupId:artifactId} query fetches that
+     * artifact's versions, anything long enough is searched for on the configured Nexus instances.
+     */
+    private void lookUpRemotely(String text) {
+        String query = text.trim();
+        if (query.length() < MIN_REMOTE_QUERY_LENGTH) {
+            return;
+        }
+        String[] parts = query.split(":", 3);
+        CompletableFuture<?> lookup = parts.length >= 2 && !parts[0].isEmpty() && !parts[1].isEmpty()
+            ? indexer.indexArtifact(parts[0], parts[1])
+            : indexer.searchRemote(query);
+        lookup.whenComplete((result, failure) -> SwingUtilities.invokeLater(() -> {
+            if (coordinateField.getText().equals(text)) {
+                showSuggestions();
+            }
+        }));
     }
 
+    private void acceptSuggestion(CoordinateMatch match) {
+        if (match == null) {
+            return;
+        }
+        MavenCoordinate latest = match.toLatestCoordinate();
+        coordinateField.setText(latest != null ? latest.toString() : match + ":");
+        coordinateField.requestFocusInWindow();
+    }
+
+    /**
+     * Starts a fetch as a background task so the EDT never waits on the network. A click while a
+     * fetch is still running cancels that fetch and replaces it with the new one.
+     */
     private void fetchPom() {
+        MavenCoordinate coordinate;
         try {
-            String content = fetchAction.fetchPom(project);
-            contentArea.setText(content);
-        } catch (Exception ex) {
-            Messages.showErrorDialog(
-                project,
-                String.format(bundle.getString("toolwindow.error.fetch"), ex.getMessage()),
-                bundle.getString("toolwindow.error.title")
-            );
+            String text = coordinateField.getText().trim();
+            coordinate = text.isEmpty() ? FetchMavenPomAction.MAVEN_POM_COORDINATE : MavenCoordinate.parse(text);
+        } catch (IllegalArgumentException e) {
+            showError(e);
+            return;
+        }
+        cancelFetch();
+        suggestionPane.setVisible(false);
+        FetchTask task = new FetchTask(coordinate);
+        currentTask = task;
+        cancelButton.setEnabled(true);
+        task.queue();
+    }
+
+    @Override
+    public void dispose() {
+        cancelFetch();
+        viewer.dispose();
+    }
+
+    private void cancelFetch() {
+        FetchTask task = currentTask;
+        if (task != null) {
+            task.cancel();
+        }
+    }
+
+    private void showError(Throwable error) {
+        Messages.showErrorDialog(
+            project,
+            String.format(bundle.getString("toolwindow.error.fetch"), error.getMessage()),
+            bundle.getString("toolwindow.error.title")
+        );
+    }
+
+    private final class FetchTask extends Task.Backgroundable {
+        private final MavenCoordinate coordinate;
+        private volatile boolean cancelled;
+        private volatile CompletableFuture<Long> future;
+        private volatile StreamingXmlViewer.Session session;
+        private Throwable error;
+
+        FetchTask(MavenCoordinate coordinate) {
+            super(project, bundle.getString("toolwindow.fetch.progress"), true);
+            this.coordinate = coordinate;
+        }
+
+        void cancel() {
+            cancelled = true;
+            CompletableFuture<Long> inFlight = future;
+            if (inFlight != null) {
+                inFlight.cancel(true);
+            }
+        }
+
+        @Override
+        public void run(@NotNull ProgressIndicator indicator) {
+            indicator.setIndeterminate(true);
+            try {
+                future = fetchAction.streamPomAsync(project, coordinate, StreamingXmlViewer.CHUNK_CHARS, this::show);
+            } catch (RuntimeException e) {
+                error = e;
+                return;
+            }
+            if (cancelled) {
+                // cancel() may have run before the future was published
+                future.cancel(true);
+                return;
+            }
+
+            while (!cancelled) {
+                try {
+                    indicator.checkCanceled();
+                    future.get(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                    if (session != null) {
+                        session.flush();
+                    }
+                    return;
+                } catch (TimeoutException ignored) {
+                    // Still waiting; loop to re-check the progress indicator
+                } catch (ProcessCanceledException e) {
+                    cancel();
+                    throw e;
+                } catch (CancellationException e) {
+                    return;
+                } catch (ExecutionException e) {
+                    error = e.getCause();
+                    return;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    cancel();
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Hands a chunk of the response to the viewer as it arrives, on the OkHttp thread reading it. The
+         * viewer appends it on the EDT in batches, and holds back the rest of the body by blocking this
+         * thread whenever its queue is full. The session starts with the first chunk, so a POM that no
+         * repository has leaves the viewer as it was.
+         *
+         * @return whether to keep reading
+         */
+        private boolean show(String chunk) {
+            if (cancelled) {
+                return false;
+            }
+            if (session == null) {
+                session = viewer.startSession();
+            }
+            return session.append(chunk);
+        }
+
+        @Override
+        public void onSuccess() {
+            if (currentTask != this || cancelled) {
+                return;
+            }
+            if (error != null) {
+                showError(error);
+            }
+        }
+
+        @Override
+        public void onCancel() {
+            cancel();
+        }
+
+        @Override
+        public void onFinished() {
+            if (currentTask == this) {
+                currentTask = null;
+                cancelButton.setEnabled(false);
+            }
         }
     }
-} 
\ No newline at end of file
+}
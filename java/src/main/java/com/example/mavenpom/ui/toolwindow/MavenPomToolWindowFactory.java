@@ -22,6 +22,15 @@ public class MavenPomToolWindowFactory implements ToolWindowFactory {
             bundle.getString("toolwindow.content.title"), 
             false
         );
+        // Releases the editor behind the POM viewer when the tab or the tool window goes away
+        content.setDisposer(mavenPomToolWindow);
         toolWindow.getContentManager().addContent(content);
+
+        Content statsContent = contentFactory.createContent(
+            new NetworkStatsPanel(),
+            bundle.getString("toolwindow.stats.title"),
+            false
+        );
+        toolWindow.getContentManager().addContent(statsContent);
     }
 } 
\ No newline at end of file
@@ -0,0 +1,83 @@
+package com.example.mavenpom.ui.toolwindow;
+
+import com.example.mavenpom.client.CacheStats;
+import com.example.mavenpom.client.NetworkTimings;
+import com.example.mavenpom.client.SSLClientRegistry;
+import com.example.mavenpom.settings.MavenRepositorySettings;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.components.JBTextArea;
+import com.intellij.util.ui.JBUI;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ResourceBundle;
+
+/**
+ * Shows the per-host phase timings and cache counters of the shared {@link SSLClientRegistry} clients,
+ * and how the configured repositories are ranked.
+ * The report is rendered on demand rather than on every call, so it costs nothing while hidden.
+ */
+public class NetworkStatsPanel extends JPanel {
+    private static final Logger LOG = Logger.getInstance(NetworkStatsPanel.class);
+
+    private final JBTextArea statsArea;
+    private final ResourceBundle bundle;
+
+    public NetworkStatsPanel() {
+        this.bundle = ResourceBundle.getBundle("messages.MavenPomBundle");
+
+        setLayout(new BorderLayout());
+        setBorder(JBUI.Borders.empty(5));
+
+        statsArea = new JBTextArea();
+        statsArea.setEditable(false);
+        statsArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, statsArea.getFont().getSize()));
+
+        JButton refreshButton = new JButton(bundle.getString("toolwindow.stats.refresh.button"));
+        refreshButton.addActionListener(e -> refresh());
+
+        JButton dumpButton = new JButton(bundle.getString("toolwindow.stats.dump.button"));
+        dumpButton.addActionListener(e -> dumpToLog());
+
+        JButton resetButton = new JButton(bundle.getString("toolwindow.stats.reset.button"));
+        resetButton.addActionListener(e -> {
+            SSLClientRegistry.getInstance().getNetworkTimings().reset();
+            refresh();
+        });
+
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        buttonPanel.add(refreshButton);
+        buttonPanel.add(dumpButton);
+        buttonPanel.add(resetButton);
+
+        add(new JBScrollPane(statsArea), BorderLayout.CENTER);
+        add(buttonPanel, BorderLayout.NORTH);
+
+        refresh();
+    }
+
+    private void refresh() {
+        statsArea.setText(buildReport());
+        statsArea.setCaretPosition(0);
+    }
+
+    private void dumpToLog() {
+        String report = buildReport();
+        LOG.info("Network statistics:\n" + report);
+        statsArea.setText(report);
+    }
+
+    private static String buildReport() {
+        SSLClientRegistry registry = SSLClientRegistry.getInstance();
+        NetworkTimings timings = registry.getNetworkTimings();
+        CacheStats cacheStats = registry.getCacheStats();
+
+        StringBuilder report = new StringBuilder(timings.formatReport());
+        report.append('\n').append(MavenRepositorySettings.getInstance().getMirrors().formatReport());
+        if (cacheStats != null) {
+            report.append("\nHTTP cache: ").append(cacheStats).append('\n');
+        }
+        return report.toString();
+    }
+}
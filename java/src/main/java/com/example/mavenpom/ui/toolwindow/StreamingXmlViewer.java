@@ -0,0 +1,229 @@
+package com.example.mavenpom.ui.toolwindow;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.EditorFactory;
+import com.intellij.openapi.editor.EditorSettings;
+import com.intellij.openapi.editor.FoldRegion;
+import com.intellij.openapi.editor.FoldingModel;
+import com.intellij.openapi.editor.ex.EditorEx;
+import com.intellij.openapi.editor.highlighter.EditorHighlighterFactory;
+import com.intellij.openapi.fileTypes.FileTypeManager;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Read-only XML viewer backed by an IntelliJ {@link Document}, filled incrementally so that responses
+ * of several megabytes never stall the EDT.
+ * <p>
+ * Producers hand text to a {@link Session} from a background thread. It is cut into chunks that wait
+ * in a bounded queue, which blocks the producer when the EDT falls behind. The EDT drains the queue in
+ * batches of at most {@value #MAX_BATCH_CHARS} characters, appending each batch with one document
+ * insertion and yielding between batches, so painting and input stay responsive while text arrives.
+ * <p>
+ * Highlighting comes from the lexer-based XML highlighter, which only re-lexes the appended text and
+ * is only painted for the visible lines. Fold regions for multi-line elements are found by an
+ * {@link XmlFoldingScanner} over each batch as it is appended, so there is no pass over the whole
+ * document either.
+ */
+public class StreamingXmlViewer implements Disposable {
+    static final int QUEUE_CAPACITY = 64;
+    static final int CHUNK_CHARS = 16 * 1024;
+    static final int MAX_BATCH_CHARS = 256 * 1024;
+    private static final long OFFER_TIMEOUT_MS = 100;
+
+    private final Document document;
+    private final EditorEx editor;
+    private final BlockingQueue<Chunk> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private volatile Session current;
+    private volatile boolean disposed;
+    // EDT only: the session whose text the document holds
+    private Session shown;
+    private XmlFoldingScanner foldingScanner = new XmlFoldingScanner();
+
+    public StreamingXmlViewer(@NotNull Project project) {
+        EditorFactory editorFactory = EditorFactory.getInstance();
+        document = editorFactory.createDocument("");
+        editor = (EditorEx) editorFactory.createViewer(document, project);
+        editor.setHighlighter(EditorHighlighterFactory.getInstance()
+            .createEditorHighlighter(project, FileTypeManager.getInstance().getFileTypeByExtension("xml")));
+
+        EditorSettings settings = editor.getSettings();
+        settings.setFoldingOutlineShown(true);
+        settings.setLineNumbersShown(true);
+        // Soft wraps would lay out every line of a long document up front
+        settings.setUseSoftWraps(false);
+    }
+
+    public JComponent getComponent() {
+        return editor.getComponent();
+    }
+
+    /**
+     * Returns the session that fills the viewer from now on. The current content stays until the first
+     * text of the new session is shown, so a response that never arrives leaves it in place. Text still
+     * queued for an earlier session is dropped, and that session stops accepting text. May be called
+     * from any thread.
+     */
+    public Session startSession() {
+        Session session = new Session();
+        current = session;
+        queue.clear();
+        return session;
+    }
+
+    /**
+     * Replaces the content with a short text such as a hint. Must be called on the EDT.
+     */
+    public void showText(@NotNull String text) {
+        show(startSession());
+        appendBatch(text);
+    }
+
+    private void show(Session session) {
+        shown = session;
+        FoldingModel foldingModel = editor.getFoldingModel();
+        foldingModel.runBatchFoldingOperation(() -> {
+            for (FoldRegion region : foldingModel.getAllFoldRegions()) {
+                foldingModel.removeFoldRegion(region);
+            }
+        });
+        ApplicationManager.getApplication().runWriteAction(() -> document.setText(""));
+        foldingScanner = new XmlFoldingScanner();
+    }
+
+    private void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            ApplicationManager.getApplication().invokeLater(this::drain);
+        }
+    }
+
+    private void drain() {
+        drainScheduled.set(false);
+        if (disposed) {
+            return;
+        }
+        StringBuilder batch = new StringBuilder();
+        Chunk chunk;
+        while (batch.length() < MAX_BATCH_CHARS && (chunk = queue.poll()) != null) {
+            if (chunk.session != current) {
+                continue;
+            }
+            if (chunk.session != shown) {
+                // Whatever was collected so far belongs to a session that has just been replaced
+                batch.setLength(0);
+                show(chunk.session);
+            }
+            batch.append(chunk.text);
+        }
+        if (batch.length() > 0) {
+            appendBatch(batch);
+        }
+        if (!queue.isEmpty()) {
+            // Yield to painting and input before the next batch
+            scheduleDrain();
+        }
+    }
+
+    private void appendBatch(CharSequence batch) {
+        int start = document.getTextLength();
+        ApplicationManager.getApplication().runWriteAction(() -> document.insertString(start, batch));
+
+        List<XmlFoldingScanner.Fold> folds = foldingScanner.feed(batch);
+        if (!folds.isEmpty()) {
+            FoldingModel foldingModel = editor.getFoldingModel();
+            foldingModel.runBatchFoldingOperation(() -> {
+                for (XmlFoldingScanner.Fold fold : folds) {
+                    foldingModel.addFoldRegion(fold.getStartOffset(), fold.getEndOffset(), fold.getPlaceholder());
+                }
+            });
+        }
+    }
+
+    @Override
+    public void dispose() {
+        disposed = true;
+        current = null;
+        queue.clear();
+        EditorFactory.getInstance().releaseEditor(editor);
+    }
+
+    private static final class Chunk {
+        final Session session;
+        final String text;
+
+        Chunk(Session session, String text) {
+            this.session = session;
+            this.text = text;
+        }
+    }
+
+    /**
+     * Feeds one response into the viewer. Meant for a single producer thread.
+     */
+    public final class Session {
+        private final StringBuilder pending = new StringBuilder();
+
+        private Session() {
+        }
+
+        /**
+         * Whether text given to this session still reaches the viewer.
+         */
+        public boolean isActive() {
+            return current == this && !disposed;
+        }
+
+        /**
+         * Appends text, blocking while the queue is full.
+         *
+         * @return {@code false} once the session is no longer active or the thread was interrupted, in
+         * which case the producer should stop
+         */
+        public boolean append(@NotNull CharSequence text) {
+            int position = 0;
+            while (position < text.length()) {
+                int take = Math.min(CHUNK_CHARS - pending.length(), text.length() - position);
+                pending.append(text, position, position + take);
+                position += take;
+                if (pending.length() >= CHUNK_CHARS && !enqueue()) {
+                    return false;
+                }
+            }
+            return isActive();
+        }
+
+        /**
+         * Hands over text held back to fill a chunk; call once the response is complete.
+         */
+        public boolean flush() {
+            return pending.length() == 0 || enqueue();
+        }
+
+        private boolean enqueue() {
+            Chunk chunk = new Chunk(this, pending.toString());
+            pending.setLength(0);
+            try {
+                while (!queue.offer(chunk, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    if (!isActive()) {
+                        return false;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            scheduleDrain();
+            return isActive();
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.mavenpom.ui.toolwindow;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Finds foldable XML elements in text that arrives in chunks, without keeping the text.
+ * <p>
+ * Each chunk is scanned once for tags. Open elements are kept on a stack with their offset and line;
+ * when an element closes on a later line than it opened, its range is reported. Markup cut off at the
+ * end of a chunk is carried over to the next one. Comments, CDATA sections, processing instructions
+ * and declarations are skipped, and quoted attribute values may contain {@code >}. Malformed input
+ * produces fewer folds, never an error.
+ */
+public final class XmlFoldingScanner {
+    static final int MAX_FOLDS = 20_000;
+    private static final int MAX_DEPTH = 256;
+    private static final int MAX_CARRY = 1024 * 1024;
+
+    private final Deque<OpenElement> open = new ArrayDeque<>();
+    private final StringBuilder carry = new StringBuilder();
+    private int carryOffset;
+    private int carryLine;
+    private int offset;
+    private int line;
+    private int folds;
+
+    /**
+     * A range of the text that can be folded, with the text shown while it is folded.
+     */
+    public static final class Fold {
+        private final int startOffset;
+        private final int endOffset;
+        private final String placeholder;
+
+        Fold(int startOffset, int endOffset, String placeholder) {
+            this.startOffset = startOffset;
+            this.endOffset = endOffset;
+            this.placeholder = placeholder;
+        }
+
+        public int getStartOffset() {
+            return startOffset;
+        }
+
+        public int getEndOffset() {
+            return endOffset;
+        }
+
+        public String getPlaceholder() {
+            return placeholder;
+        }
+
+        @Override
+        public String toString() {
+            return placeholder + " [" + startOffset + ", " + endOffset + ")";
+        }
+    }
+
+    private static final class OpenElement {
+        final String name;
+        final int offset;
+        final int line;
+
+        OpenElement(String name, int offset, int line) {
+            this.name = name;
+            this.offset = offset;
+            this.line = line;
+        }
+    }
+
+    /**
+     * Scans the next chunk and returns the elements it completes. Offsets count from the start of the
+     * first chunk. The root element is not folded.
+     */
+    public List<Fold> feed(CharSequence chunk) {
+        List<Fold> completed = new ArrayList<>();
+        String text;
+        int base;
+        int lineAtBase;
+        if (carry.length() > 0) {
+            text = carry.append(chunk).toString();
+            base = carryOffset;
+            lineAtBase = carryLine;
+            carry.setLength(0);
+        } else {
+            text = chunk.toString();
+            base = offset;
+            lineAtBase = line;
+        }
+        offset = base + text.length();
+        line = lineAtBase;
+
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                line++;
+                i++;
+                continue;
+            }
+            if (c != '<') {
+                i++;
+                continue;
+            }
+            int end = markupEnd(text, i);
+            if (end < 0) {
+                if (text.length() - i <= MAX_CARRY) {
+                    carry.append(text, i, text.length());
+                    carryOffset = base + i;
+                    carryLine = line;
+                } else {
+                    // Unterminated markup this large is not worth waiting for
+                    open.clear();
+                }
+                return completed;
+            }
+            int startLine = line;
+            for (int j = i; j < end; j++) {
+                if (text.charAt(j) == '\n') {
+                    line++;
+                }
+            }
+            element(text, i, end, base, startLine, completed);
+            i = end;
+        }
+        return completed;
+    }
+
+    private void element(String text, int start, int end, int base, int startLine, List<Fold> completed) {
+        char kind = start + 1 < text.length() ? text.charAt(start + 1) : ' ';
+        if (kind == '!' || kind == '?' || text.charAt(end - 2) == '/') {
+            return;
+        }
+        boolean closing = kind == '/';
+        int nameStart = start + (closing ? 2 : 1);
+        int nameEnd = nameStart;
+        while (nameEnd < end - 1 && !Character.isWhitespace(text.charAt(nameEnd)) && text.charAt(nameEnd) != '>'
+                && text.charAt(nameEnd) != '/') {
+            nameEnd++;
+        }
+        String name = text.substring(nameStart, nameEnd);
+        if (name.isEmpty()) {
+            return;
+        }
+        if (!closing) {
+            if (open.size() >= MAX_DEPTH) {
+                open.clear();
+            }
+            open.push(new OpenElement(name, base + start, startLine));
+            return;
+        }
+
+        // Tolerate a missing end tag by unwinding to the matching start tag, if there is one
+        boolean matched = open.stream().anyMatch(element -> element.name.equals(name));
+        while (matched && !open.isEmpty()) {
+            OpenElement element = open.pop();
+            if (element.name.equals(name)) {
+                if (line > element.line && !open.isEmpty() && folds < MAX_FOLDS) {
+                    completed.add(new Fold(element.offset, base + end, "<" + name + ">...</" + name + ">"));
+                    folds++;
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the index just past the markup starting at {@code start}, or -1 when it continues past the
+     * end of {@code text}.
+     */
+    private static int markupEnd(String text, int start) {
+        if (text.startsWith("<!--", start)) {
+            int end = text.indexOf("-->", start + 4);
+            return end < 0 ? -1 : end + 3;
+        }
+        if (text.startsWith("<![CDATA[", start)) {
+            int end = text.indexOf("]]>", start + 9);
+            return end < 0 ? -1 : end + 3;
+        }
+        if (text.startsWith("<?", start)) {
+            int end = text.indexOf("?>", start + 2);
+            return end < 0 ? -1 : end + 2;
+        }
+        if (text.length() - start < 9 && ("<![CDATA[".startsWith(text.substring(start)) || "<!--".startsWith(text.substring(start)))) {
+            // Too short to tell a comment or CDATA section from a declaration yet
+            return -1;
+        }
+        char quote = 0;
+        for (int i = start + 1; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '>') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.mavenpom;
+
+import com.example.mavenpom.client.ArtifactDownloader;
+import com.example.mavenpom.client.ChecksumException;
+import com.example.mavenpom.client.DownloadResult;
+import com.example.mavenpom.client.HttpResponseException;
+import com.example.mavenpom.client.SSLClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import okio.Buffer;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class ArtifactDownloaderTest {
+    private static final int CHUNK_SIZE = 128 * 1024;
+    private static final int CHUNKS = 8;
+
+    @TempDir
+    Path tempDir;
+
+    private MockWebServer server;
+    private RangeDispatcher dispatcher;
+    private byte[] content;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        content = new byte[CHUNK_SIZE * CHUNKS];
+        new Random(42).nextBytes(content);
+        dispatcher = new RangeDispatcher(content);
+        server = new MockWebServer();
+        server.setDispatcher(dispatcher);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    void testLargeArtifactIsFetchedInParallelRanges() throws Exception {
+        Path target = tempDir.resolve("demo.jar");
+
+        DownloadResult result = downloader().download(url(), target);
+
+        Assertions.assertArrayEquals(content, Files.readAllBytes(target));
+        Assertions.assertEquals(CHUNKS, result.getChunkCount());
+        Assertions.assertEquals(CHUNKS, dispatcher.ranges.size());
+        Assertions.assertTrue(result.isVerified());
+        Assertions.assertEquals(hex("SHA-256", content), result.getSha256());
+        Assertions.assertEquals(hex("SHA-1", content), result.getSha1());
+        Assertions.assertFalse(Files.exists(tempDir.resolve("demo.jar.part")));
+        Assertions.assertFalse(Files.exists(tempDir.resolve("demo.jar.part.state")));
+    }
+
+    @Test
+    void testInterruptedChunkResumesFromFirstMissingByte() throws Exception {
+        long cutChunkStart = 3L * CHUNK_SIZE;
+        dispatcher.disconnectOnceAt = cutChunkStart;
+        Path target = tempDir.resolve("demo.jar");
+
+        DownloadResult result = downloader().download(url(), target);
+
+        Assertions.assertArrayEquals(content, Files.readAllBytes(target));
+        Assertions.assertTrue(result.isVerified());
+        Assertions.assertTrue(dispatcher.ranges.stream().anyMatch(range -> range > cutChunkStart && range < cutChunkStart + CHUNK_SIZE),
+                "Retry should start inside the chunk, ranges were " + dispatcher.ranges);
+    }
+
+    @Test
+    void testFailedDownloadResumesOnNextCall() throws Exception {
+        dispatcher.failingRange = 5L * CHUNK_SIZE;
+        Path target = tempDir.resolve("demo.jar");
+
+        HttpResponseException failure = Assertions.assertThrows(HttpResponseException.class,
+                () -> downloader().download(url(), target));
+        Assertions.assertEquals(503, failure.getCode());
+        Assertions.assertFalse(Files.exists(target));
+        Assertions.assertTrue(Files.exists(tempDir.resolve("demo.jar.part.state")));
+
+        dispatcher.failingRange = -1;
+        dispatcher.ranges.clear();
+        DownloadResult result = downloader().download(url(), target);
+
+        Assertions.assertArrayEquals(content, Files.readAllBytes(target));
+        Assertions.assertTrue(result.isVerified());
+        // Chunk 5 is only started once the first two chunks are digested, so at least those were kept
+        Assertions.assertTrue(result.getResumedBytes() >= 2L * CHUNK_SIZE, "Resumed " + result.getResumedBytes());
+        Assertions.assertEquals(CHUNKS - result.getResumedBytes() / CHUNK_SIZE, dispatcher.ranges.size());
+    }
+
+    @Test
+    void testChecksumMismatchDiscardsDownload() {
+        dispatcher.sha1 = "0000000000000000000000000000000000000000  demo.jar";
+        Path target = tempDir.resolve("demo.jar");
+
+        ChecksumException exception = Assertions.assertThrows(ChecksumException.class,
+                () -> downloader().download(url(), target));
+
+        Assertions.assertEquals("SHA-1", exception.getAlgorithm());
+        Assertions.assertFalse(Files.exists(target));
+        Assertions.assertFalse(Files.exists(tempDir.resolve("demo.jar.part")));
+    }
+
+    @Test
+    void testServerWithoutRangeSupportGetsSingleStream() throws Exception {
+        dispatcher.acceptsRanges = false;
+        dispatcher.sha256 = null;
+        Path target = tempDir.resolve("demo.jar");
+
+        DownloadResult result = downloader().download(url(), target);
+
+        Assertions.assertArrayEquals(content, Files.readAllBytes(target));
+        Assertions.assertEquals(1, result.getChunkCount());
+        Assertions.assertTrue(dispatcher.ranges.isEmpty());
+        // The SHA-1 file alone is enough to verify
+        Assertions.assertTrue(result.isVerified());
+    }
+
+    private ArtifactDownloader downloader() {
+        return new ArtifactDownloader(new SSLClient(), CHUNK_SIZE, 4);
+    }
+
+    private String url() {
+        return server.url("/repo/demo.jar").toString();
+    }
+
+    private static String hex(String algorithm, byte[] data) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance(algorithm).digest(data));
+    }
+
+    /**
+     * Serves one artifact and its checksum files, honouring single byte ranges like a repository does.
+     */
+    private static final class RangeDispatcher extends Dispatcher {
+        final byte[] content;
+        final List<Long> ranges = new CopyOnWriteArrayList<>();
+        volatile boolean acceptsRanges = true;
+        volatile long failingRange = -1;
+        volatile long disconnectOnceAt = -1;
+        volatile String sha1;
+        volatile String sha256;
+
+        RangeDispatcher(byte[] content) throws Exception {
+            this.content = content;
+            this.sha1 = hex("SHA-1", content) + "  demo.jar";
+            this.sha256 = hex("SHA-256", content);
+        }
+
+        @NotNull
+        @Override
+        public MockResponse dispatch(@NotNull RecordedRequest request) {
+            String path = request.getPath();
+            if (path.endsWith(".sha1")) {
+                return checksum(sha1);
+            }
+            if (path.endsWith(".sha256")) {
+                return checksum(sha256);
+            }
+            if ("HEAD".equals(request.getMethod())) {
+                MockResponse response = new MockResponse()
+                        .setHeader("Content-Length", content.length)
+                        .setHeader("ETag", "\"v1\"");
+                return acceptsRanges ? response.setHeader("Accept-Ranges", "bytes") : response;
+            }
+
+            String range = request.getHeader("Range");
+            if (range == null || !acceptsRanges) {
+                return new MockResponse().setBody(new Buffer().write(content));
+            }
+            String[] bounds = range.substring("bytes=".length()).split("-", -1);
+            int start = Integer.parseInt(bounds[0]);
+            int end = bounds[1].isEmpty() ? content.length - 1 : Integer.parseInt(bounds[1]);
+            ranges.add((long) start);
+            if (start == failingRange) {
+                return new MockResponse().setResponseCode(503);
+            }
+            MockResponse response = new MockResponse()
+                    .setResponseCode(206)
+                    .setHeader("Content-Range", "bytes " + start + "-" + end + "/" + content.length)
+                    .setBody(new Buffer().write(content, start, end - start + 1));
+            if (start == disconnectOnceAt) {
+                disconnectOnceAt = -1;
+                response.setSocketPolicy(SocketPolicy.DISCONNECT_DURING_RESPONSE_BODY);
+            }
+            return response;
+        }
+
+        private static MockResponse checksum(String body) {
+            return body == null ? new MockResponse().setResponseCode(404) : new MockResponse().setBody(body);
+        }
+    }
+}
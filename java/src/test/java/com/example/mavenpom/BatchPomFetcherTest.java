@@ -0,0 +1,176 @@
+package com.example.mavenpom;
+
+import com.example.mavenpom.actions.BatchPomFetcher;
+import com.example.mavenpom.actions.MavenCoordinate;
+import com.example.mavenpom.actions.PomFetchResult;
+import com.example.mavenpom.client.MavenRepository;
+import com.example.mavenpom.client.RepositoryMirrors;
+import com.example.mavenpom.client.SSLClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BatchPomFetcherTest {
+    private MockWebServer mockWebServer;
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger maxActive = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @NotNull
+            @Override
+            public MockResponse dispatch(@NotNull RecordedRequest request) throws InterruptedException {
+                maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                    String path = request.getPath();
+                    if (path.contains("missing")) {
+                        return new MockResponse().setResponseCode(404);
+                    }
+                    return new MockResponse().setBody("<project>" + path + "</project>");
+                } finally {
+                    active.decrementAndGet();
+                }
+            }
+        });
+        mockWebServer.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    void testCoordinateParsing() {
+        MavenCoordinate coordinate = MavenCoordinate.parse(" org.apache.maven.plugins:maven-clean-plugin:2.5 ");
+
+        Assertions.assertEquals("org.apache.maven.plugins", coordinate.getGroupId());
+        Assertions.assertEquals(
+            "org/apache/maven/plugins/maven-clean-plugin/2.5/maven-clean-plugin-2.5.pom",
+            coordinate.getPomPath());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> MavenCoordinate.parse("org.example:only-two"));
+    }
+
+    @Test
+    void testFetchAllReportsEveryResult() throws Exception {
+        List<MavenCoordinate> coordinates = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            coordinates.add(new MavenCoordinate("org.example", "artifact" + i, "1.0"));
+        }
+        coordinates.add(new MavenCoordinate("org.example", "missing", "1.0"));
+        // Duplicates are fetched once
+        coordinates.add(new MavenCoordinate("org.example", "artifact0", "1.0"));
+
+        List<PomFetchResult> streamed = new CopyOnWriteArrayList<>();
+        BatchPomFetcher fetcher = new BatchPomFetcher(new SSLClient(), mockWebServer.url("/repo/").toString(), 16, 4);
+        List<PomFetchResult> results = fetcher.fetchAll(coordinates, streamed::add).get(30, TimeUnit.SECONDS);
+
+        Assertions.assertEquals(41, results.size());
+        Assertions.assertEquals(41, streamed.size());
+        Assertions.assertEquals(41, mockWebServer.getRequestCount());
+        Assertions.assertEquals(1, results.stream().filter(r -> !r.isSuccess()).count());
+
+        PomFetchResult missing = results.stream().filter(r -> !r.isSuccess()).findFirst().orElseThrow();
+        Assertions.assertEquals("missing", missing.getCoordinate().getArtifactId());
+        Assertions.assertTrue(missing.getError().getMessage().contains("404"));
+
+        PomFetchResult first = results.stream()
+            .filter(r -> r.getCoordinate().getArtifactId().equals("artifact0")).findFirst().orElseThrow();
+        Assertions.assertEquals(
+            "<project>/repo/org/example/artifact0/1.0/artifact0-1.0.pom</project>", first.getContent());
+    }
+
+    @Test
+    void testPerHostLimitIsRespected() throws Exception {
+        List<MavenCoordinate> coordinates = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            coordinates.add(new MavenCoordinate("org.example", "artifact" + i, "1.0"));
+        }
+
+        BatchPomFetcher fetcher = new BatchPomFetcher(new SSLClient(), mockWebServer.url("/").toString(), 16, 3);
+        fetcher.fetchAll(coordinates, result -> { }).get(30, TimeUnit.SECONDS);
+
+        Assertions.assertTrue(maxActive.get() <= 3, "At most 3 requests should run at once but saw " + maxActive.get());
+    }
+
+    @Test
+    void testFailedPomsAreFetchedFromNextRepository() throws Exception {
+        MockWebServer mirror = new MockWebServer();
+        mirror.setDispatcher(new Dispatcher() {
+            @NotNull
+            @Override
+            public MockResponse dispatch(@NotNull RecordedRequest request) {
+                String path = request.getPath();
+                if (path.contains("nowhere")) {
+                    return new MockResponse().setResponseCode(404);
+                }
+                return new MockResponse().setBody("<mirror>" + path + "</mirror>");
+            }
+        });
+        mirror.start();
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @NotNull
+            @Override
+            public MockResponse dispatch(@NotNull RecordedRequest request) {
+                String path = request.getPath();
+                if (path.contains("missing") || path.contains("nowhere")) {
+                    return new MockResponse().setResponseCode(404);
+                }
+                if (path.contains("broken")) {
+                    return new MockResponse().setResponseCode(503);
+                }
+                return new MockResponse().setBody("<project>" + path + "</project>");
+            }
+        });
+        try {
+            SSLClient client = new SSLClient();
+            RepositoryMirrors mirrors = new RepositoryMirrors(Arrays.asList(
+                new MavenRepository("primary", mockWebServer.url("/").toString(), null),
+                new MavenRepository("mirror", mirror.url("/").toString(), null)), repository -> client);
+            List<MavenCoordinate> coordinates = Arrays.asList(
+                new MavenCoordinate("org.example", "present", "1.0"),
+                new MavenCoordinate("org.example", "missing", "1.0"),
+                new MavenCoordinate("org.example", "broken", "1.0"),
+                new MavenCoordinate("org.example", "nowhere", "1.0"));
+
+            List<PomFetchResult> results = new BatchPomFetcher(mirrors).fetchAll(coordinates, result -> { })
+                .get(30, TimeUnit.SECONDS);
+
+            Assertions.assertEquals("<project>/org/example/present/1.0/present-1.0.pom</project>",
+                contentOf(results, "present"));
+            Assertions.assertEquals("<mirror>/org/example/missing/1.0/missing-1.0.pom</mirror>",
+                contentOf(results, "missing"));
+            Assertions.assertEquals("<mirror>/org/example/broken/1.0/broken-1.0.pom</mirror>",
+                contentOf(results, "broken"));
+            PomFetchResult nowhere = results.stream()
+                .filter(r -> r.getCoordinate().getArtifactId().equals("nowhere")).findFirst().orElseThrow();
+            Assertions.assertFalse(nowhere.isSuccess());
+            Assertions.assertTrue(nowhere.getError().getMessage().contains("404"));
+            // Only the POMs the primary repository failed to serve were asked of the mirror
+            Assertions.assertEquals(3, mirror.getRequestCount());
+        } finally {
+            mirror.shutdown();
+        }
+    }
+
+    private static String contentOf(List<PomFetchResult> results, String artifactId) {
+        PomFetchResult result = results.stream()
+            .filter(r -> r.getCoordinate().getArtifactId().equals(artifactId)).findFirst().orElseThrow();
+        Assertions.assertTrue(result.isSuccess(), () -> artifactId + " failed: " + result.getError());
+        return result.getContent();
+    }
+}
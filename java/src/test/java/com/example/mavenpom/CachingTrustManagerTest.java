@@ -0,0 +1,188 @@
+package com.example.mavenpom;
+
+import com.example.mavenpom.client.CachingTrustManager;
+import com.example.mavenpom.client.SSLClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.tls.HandshakeCertificates;
+import okhttp3.tls.HeldCertificate;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.X509ExtendedTrustManager;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CachingTrustManagerTest {
+    private static final String AUTH_TYPE = "ECDHE_ECDSA";
+
+    private static HeldCertificate root;
+    private static HeldCertificate intermediate;
+    private static HeldCertificate leaf;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeAll
+    static void createChain() throws Exception {
+        root = new HeldCertificate.Builder()
+                .certificateAuthority(1)
+                .commonName("Test Root CA")
+                .build();
+        intermediate = new HeldCertificate.Builder()
+                .certificateAuthority(0)
+                .commonName("Test Proxy CA")
+                .signedBy(root)
+                .build();
+        leaf = new HeldCertificate.Builder()
+                .commonName("localhost")
+                .addSubjectAlternativeName("localhost")
+                .addSubjectAlternativeName(InetAddress.getByName("localhost").getCanonicalHostName())
+                .signedBy(intermediate)
+                .build();
+    }
+
+    @Test
+    void testRepeatedChainServedFromCache() throws CertificateException {
+        CachingTrustManager trustManager = new CachingTrustManager(trusting(root));
+        X509Certificate[] chain = chain(leaf);
+
+        trustManager.checkServerTrusted(chain, AUTH_TYPE);
+        trustManager.checkServerTrusted(chain, AUTH_TYPE);
+        trustManager.checkServerTrusted(chain, AUTH_TYPE);
+
+        Assertions.assertEquals(1, trustManager.getMissCount());
+        Assertions.assertEquals(2, trustManager.getHitCount());
+    }
+
+    @Test
+    void testRejectedChainIsNeverCached() throws Exception {
+        HeldCertificate otherRoot = new HeldCertificate.Builder().certificateAuthority(1).build();
+        CachingTrustManager trustManager = new CachingTrustManager(trusting(otherRoot));
+        X509Certificate[] chain = chain(leaf);
+
+        Assertions.assertThrows(CertificateException.class, () -> trustManager.checkServerTrusted(chain, AUTH_TYPE));
+        Assertions.assertThrows(CertificateException.class, () -> trustManager.checkServerTrusted(chain, AUTH_TYPE));
+
+        Assertions.assertEquals(0, trustManager.getHitCount());
+        Assertions.assertEquals(2, trustManager.getMissCount());
+    }
+
+    @Test
+    void testEntryExpiresWithCertificate() throws Exception {
+        long now = System.currentTimeMillis();
+        HeldCertificate shortLived = new HeldCertificate.Builder()
+                .validityInterval(now - 60_000, now + 2_000)
+                .signedBy(intermediate)
+                .build();
+        CachingTrustManager trustManager = new CachingTrustManager(trusting(root));
+        X509Certificate[] chain = chain(shortLived);
+
+        trustManager.checkServerTrusted(chain, AUTH_TYPE);
+        // notAfter is encoded with one second precision, so wait for the value actually in the certificate
+        Thread.sleep(Math.max(0, chain[0].getNotAfter().getTime() - System.currentTimeMillis()) + 200);
+
+        // The cached entry ends at notAfter, so the expired certificate goes back to full validation
+        Assertions.assertThrows(CertificateException.class, () -> trustManager.checkServerTrusted(chain, AUTH_TYPE));
+        Assertions.assertEquals(0, trustManager.getHitCount());
+    }
+
+    @Test
+    void testHttpsRequestThroughCachedTrust() throws Exception {
+        Path certFile = tempDir.resolve("root.pem");
+        Files.writeString(certFile, root.certificatePem());
+
+        HandshakeCertificates serverCertificates = new HandshakeCertificates.Builder()
+                .heldCertificate(leaf, intermediate.certificate())
+                .build();
+        MockWebServer server = new MockWebServer();
+        server.useHttps(serverCertificates.sslSocketFactory(), false);
+        server.enqueue(new MockResponse().setBody("secure").setHeader("Connection", "close"));
+        server.enqueue(new MockResponse().setBody("secure again"));
+        server.start();
+        try {
+            SSLClient client = new SSLClient(certFile.toString());
+
+            Assertions.assertEquals("secure", client.makeRequest(server.url("/").toString()));
+            // The first connection was closed, so this is a second handshake with the same chain
+            Assertions.assertEquals("secure again", client.makeRequest(server.url("/").toString()));
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    /**
+     * Repeated validations of a known chain never reach the delegate again; how much that saves is
+     * measured by {@code TrustValidationBenchmark}.
+     */
+    @Test
+    void testDelegateValidatesChainOnce() throws CertificateException {
+        X509ExtendedTrustManager pkix = trusting(root);
+        AtomicInteger delegateCalls = new AtomicInteger();
+        X509ExtendedTrustManager counting = new X509ExtendedTrustManager() {
+            @Override
+            public void checkServerTrusted(X509Certificate[] chain, String authType, Socket socket) throws CertificateException {
+                delegateCalls.incrementAndGet();
+                pkix.checkServerTrusted(chain, authType, socket);
+            }
+
+            @Override
+            public void checkServerTrusted(X509Certificate[] chain, String authType, SSLEngine engine) throws CertificateException {
+                delegateCalls.incrementAndGet();
+                pkix.checkServerTrusted(chain, authType, engine);
+            }
+
+            @Override
+            public void checkServerTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+                delegateCalls.incrementAndGet();
+                pkix.checkServerTrusted(chain, authType);
+            }
+
+            @Override
+            public void checkClientTrusted(X509Certificate[] chain, String authType, Socket socket) throws CertificateException {
+                pkix.checkClientTrusted(chain, authType, socket);
+            }
+
+            @Override
+            public void checkClientTrusted(X509Certificate[] chain, String authType, SSLEngine engine) throws CertificateException {
+                pkix.checkClientTrusted(chain, authType, engine);
+            }
+
+            @Override
+            public void checkClientTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+                pkix.checkClientTrusted(chain, authType);
+            }
+
+            @Override
+            public X509Certificate[] getAcceptedIssuers() {
+                return pkix.getAcceptedIssuers();
+            }
+        };
+        CachingTrustManager cached = new CachingTrustManager(counting);
+        X509Certificate[] chain = chain(leaf);
+
+        for (int i = 0; i < 100; i++) {
+            cached.checkServerTrusted(chain, AUTH_TYPE);
+        }
+
+        Assertions.assertEquals(1, delegateCalls.get());
+        Assertions.assertEquals(99, cached.getHitCount());
+    }
+
+    private static X509ExtendedTrustManager trusting(HeldCertificate trustedRoot) {
+        return (X509ExtendedTrustManager) new HandshakeCertificates.Builder()
+                .addTrustedCertificate(trustedRoot.certificate())
+                .build()
+                .trustManager();
+    }
+
+    private static X509Certificate[] chain(HeldCertificate serverCertificate) {
+        return new X509Certificate[]{serverCertificate.certificate(), intermediate.certificate()};
+    }
+}
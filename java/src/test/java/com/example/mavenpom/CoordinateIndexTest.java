@@ -0,0 +1,181 @@
+package com.example.mavenpom;
+
+import com.example.mavenpom.client.MavenRepository;
+import com.example.mavenpom.client.RepositoryMirrors;
+import com.example.mavenpom.client.SSLClient;
+import com.example.mavenpom.index.CoordinateIndex;
+import com.example.mavenpom.index.CoordinateIndexer;
+import com.example.mavenpom.index.CoordinateMatch;
+import okhttp3.Cache;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+public class CoordinateIndexTest {
+    private static final String METADATA = "<metadata><groupId>org.example</groupId><artifactId>demo</artifactId>"
+            + "<versioning><latest>1.2</latest><versions><version>1.0</version><version>1.1</version>"
+            + "<version>1.2</version></versions></versioning></metadata>";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testPrefixSearchMergesPendingAndStoredCoordinates() throws Exception {
+        CoordinateIndex index = new CoordinateIndex(tempDir);
+        index.add("org.apache.maven.plugins", "maven-clean-plugin", List.of("2.4", "2.5"));
+        index.add("org.apache.maven.plugins", "maven-compiler-plugin", List.of("3.11.0"));
+        index.add("org.apache.commons", "commons-lang3", List.of("3.12.0"));
+        index.flush();
+        index.add("org.apache.maven.plugins", "maven-clean-plugin", List.of("3.3.2"));
+        index.add("org.apache.maven.plugins", "maven-deploy-plugin", List.of("3.1.1"));
+
+        Assertions.assertEquals(List.of("org.apache.maven.plugins:maven-clean-plugin", "org.apache.maven.plugins:maven-compiler-plugin"),
+                keys(index.search("org.apache.maven.plugins:maven-c")));
+        Assertions.assertEquals(4, index.search("org.apache").size());
+        Assertions.assertEquals(2, index.search("org.apache", 2).size());
+        Assertions.assertEquals(List.of("2.4", "2.5", "3.3.2"),
+                index.get("org.apache.maven.plugins", "maven-clean-plugin").getVersions());
+        Assertions.assertEquals(List.of("2.4", "2.5"),
+                index.search("org.apache.maven.plugins:maven-clean-plugin:2.").get(0).getVersions());
+        Assertions.assertTrue(index.search("com.example").isEmpty());
+        Assertions.assertEquals(4, index.size());
+
+        index.flush();
+        CoordinateIndex reopened = new CoordinateIndex(tempDir);
+        Assertions.assertEquals(4, reopened.size());
+        Assertions.assertEquals("3.3.2", reopened.get("org.apache.maven.plugins", "maven-clean-plugin").getLatestVersion());
+        Assertions.assertEquals(List.of("org.apache.maven.plugins:maven-deploy-plugin"),
+                keys(reopened.search("org.apache.maven.plugins:maven-d")));
+    }
+
+    @Test
+    void testPrefixQueriesOnLargeIndexAreFast() throws Exception {
+        CoordinateIndex index = new CoordinateIndex(tempDir);
+        for (int group = 0; group < 2_000; group++) {
+            for (int artifact = 0; artifact < 100; artifact++) {
+                index.add("com.example.group" + group, "artifact-" + artifact, List.of("1.0." + artifact, "1.1.0"));
+            }
+        }
+        index.flush();
+        CoordinateIndex reopened = new CoordinateIndex(tempDir);
+        Assertions.assertEquals(200_000, reopened.size());
+        Assertions.assertEquals(List.of("com.example.group1234:artifact-42"),
+                keys(reopened.search("com.example.group1234:artifact-42")));
+        Assertions.assertEquals(11, reopened.search("com.example.group999:artifact-1").size());
+
+        for (int i = 0; i < 1_000; i++) {
+            reopened.search("com.example.group" + i + ":artifact-", 20);
+        }
+        int queries = 10_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < queries; i++) {
+            Assertions.assertEquals(20, reopened.search("com.example.group" + (i % 2_000) + ":artifact-", 20).size());
+        }
+        double averageMillis = (System.nanoTime() - start) / 1e6 / queries;
+        Assertions.assertTrue(averageMillis < 1, "Average prefix query took " + averageMillis + " ms");
+    }
+
+    @Test
+    void testThresholdMergeRunsInBackground() throws Exception {
+        CoordinateIndex index = new CoordinateIndex(tempDir);
+        for (int artifact = 0; artifact < 5_000; artifact++) {
+            index.add("com.example", "artifact-" + artifact, List.of("1.0"));
+        }
+        Path table = tempDir.resolve("coordinates-1.sst");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!Files.exists(table) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        Assertions.assertTrue(Files.exists(table), "Going over the threshold should merge without an explicit flush");
+        Assertions.assertEquals(5_000, index.size());
+        index.flush();
+        Assertions.assertEquals(5_000, new CoordinateIndex(tempDir).size());
+    }
+
+    @Test
+    void testIndexerReadsMetadataAndNexusSearch() throws Exception {
+        MockWebServer nexus = new MockWebServer();
+        nexus.setDispatcher(new Dispatcher() {
+            @NotNull
+            @Override
+            public MockResponse dispatch(@NotNull RecordedRequest request) {
+                String path = request.getPath();
+                if (path.equals("/repository/maven-public/org/example/demo/maven-metadata.xml")) {
+                    return new MockResponse().setBody(METADATA);
+                }
+                if (path.startsWith("/service/rest/v1/search") && "org.example*".equals(request.getRequestUrl().queryParameter("maven.groupId"))) {
+                    if (request.getRequestUrl().queryParameter("continuationToken") == null) {
+                        return new MockResponse().setBody("{\"items\":["
+                                + "{\"group\":\"org.example\",\"name\":\"alpha\",\"version\":\"1.0\",\"assets\":[{\"path\":\"x\"}]},"
+                                + "{\"group\":\"org.example\",\"name\":\"alpha\",\"version\":\"2.0\",\"assets\":[]}],"
+                                + "\"continuationToken\":\"page-2\"}");
+                    }
+                    return new MockResponse().setBody("{\"items\":[{\"group\":\"org.example.tools\",\"name\":\"beta\","
+                            + "\"version\":\"0.1\"}],\"continuationToken\":null}");
+                }
+                return new MockResponse().setResponseCode(404);
+            }
+        });
+        nexus.start();
+        try {
+            MavenRepository repository = new MavenRepository("nexus", nexus.url("/repository/maven-public/").toString(), null);
+            SSLClient client = new SSLClient();
+            RepositoryMirrors mirrors = new RepositoryMirrors(List.of(repository), ignored -> client);
+            CoordinateIndex index = new CoordinateIndex(null);
+            CoordinateIndexer indexer = new CoordinateIndexer(index, () -> mirrors);
+
+            CoordinateMatch demo = indexer.indexArtifact("org.example", "demo").get(10, TimeUnit.SECONDS);
+            Assertions.assertEquals(List.of("1.0", "1.1", "1.2"), demo.getVersions());
+
+            Assertions.assertEquals(3, indexer.searchRemote("org.example").get(10, TimeUnit.SECONDS));
+            Assertions.assertEquals(List.of("org.example.tools:beta", "org.example:alpha", "org.example:demo"),
+                    keys(index.search("org.example")));
+            Assertions.assertEquals(List.of("1.0", "2.0"), index.get("org.example", "alpha").getVersions());
+        } finally {
+            nexus.shutdown();
+        }
+    }
+
+    @Test
+    void testRemoteSearchNotAnsweredFromCache() throws Exception {
+        MockWebServer nexus = new MockWebServer();
+        for (int i = 0; i < 2; i++) {
+            // Even a search result the server allows to be cached must be asked for again
+            nexus.enqueue(new MockResponse()
+                    .setHeader("Cache-Control", "max-age=3600")
+                    .setBody("{\"items\":[{\"group\":\"org.example\",\"name\":\"alpha\",\"version\":\"1." + i + "\"}]}"));
+        }
+        nexus.start();
+        try (Cache cache = new Cache(tempDir.resolve("http").toFile(), 1024 * 1024)) {
+            MavenRepository repository = new MavenRepository("nexus", nexus.url("/repository/maven-public/").toString(), null);
+            SSLClient client = new SSLClient("certificates/multi-certificate.pem", cache);
+            RepositoryMirrors mirrors = new RepositoryMirrors(List.of(repository), ignored -> client);
+            CoordinateIndex index = new CoordinateIndex(null);
+            CoordinateIndexer indexer = new CoordinateIndexer(index, () -> mirrors);
+
+            Assertions.assertEquals(1, indexer.searchRemote("org.example").get(10, TimeUnit.SECONDS));
+            Assertions.assertEquals(1, indexer.searchRemote("org.example").get(10, TimeUnit.SECONDS));
+
+            Assertions.assertEquals(2, nexus.getRequestCount());
+            Assertions.assertEquals(0, client.getCacheStats().getHitCount());
+            Assertions.assertEquals(List.of("1.0", "1.1"), index.get("org.example", "alpha").getVersions());
+        } finally {
+            nexus.shutdown();
+        }
+    }
+
+    private static List<String> keys(List<CoordinateMatch> matches) {
+        return matches.stream().map(CoordinateMatch::toString).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.mavenpom;
+
+import com.example.mavenpom.actions.EffectivePomResolver;
+import com.example.mavenpom.actions.MavenCoordinate;
+import com.example.mavenpom.actions.PomDependency;
+import com.example.mavenpom.actions.PomModel;
+import com.example.mavenpom.actions.PomParser;
+import com.example.mavenpom.client.SSLClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class EffectivePomResolverTest {
+    private static final String ROOT_POM =
+        "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n" +
+        "  <groupId>org.example</groupId>\n" +
+        "  <artifactId>root</artifactId>\n" +
+        "  <version>1</version>\n" +
+        "  <packaging>pom</packaging>\n" +
+        "  <properties>\n" +
+        "    <junit.version>5.9.2</junit.version>\n" +
+        "  </properties>\n" +
+        "  <dependencyManagement>\n" +
+        "    <dependencies>\n" +
+        "      <dependency>\n" +
+        "        <groupId>org.junit.jupiter</groupId>\n" +
+        "        <artifactId>junit-jupiter-api</artifactId>\n" +
+        "        <version>${junit.version}</version>\n" +
+        "        <scope>test</scope>\n" +
+        "      </dependency>\n" +
+        "    </dependencies>\n" +
+        "  </dependencyManagement>\n" +
+        "</project>\n";
+
+    private static final String BOM_POM =
+        "<project>\n" +
+        "  <groupId>org.example</groupId>\n" +
+        "  <artifactId>bom</artifactId>\n" +
+        "  <version>2.0</version>\n" +
+        "  <packaging>pom</packaging>\n" +
+        "  <dependencyManagement>\n" +
+        "    <dependencies>\n" +
+        "      <dependency>\n" +
+        "        <groupId>com.squareup.okhttp3</groupId>\n" +
+        "        <artifactId>okhttp</artifactId>\n" +
+        "        <version>4.12.0</version>\n" +
+        "      </dependency>\n" +
+        "    </dependencies>\n" +
+        "  </dependencyManagement>\n" +
+        "</project>\n";
+
+    private final Map<String, String> poms = new HashMap<>();
+    private final Map<String, AtomicInteger> hits = new ConcurrentHashMap<>();
+    private MockWebServer mockWebServer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        poms.put("/org/example/root/1/root-1.pom", ROOT_POM);
+        poms.put("/org/example/bom/2.0/bom-2.0.pom", BOM_POM);
+        poms.put("/org/example/app/1.0/app-1.0.pom", childPom("app"));
+        poms.put("/org/example/lib/1.0/lib-1.0.pom", childPom("lib"));
+
+        mockWebServer = new MockWebServer();
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @NotNull
+            @Override
+            public MockResponse dispatch(@NotNull RecordedRequest request) {
+                hits.computeIfAbsent(request.getPath(), path -> new AtomicInteger()).incrementAndGet();
+                String pom = poms.get(request.getPath());
+                return pom == null ? new MockResponse().setResponseCode(404) : new MockResponse().setBody(pom);
+            }
+        });
+        mockWebServer.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    void testParseRawModel() throws IOException {
+        PomModel model = PomParser.parse(childPom("app"));
+
+        Assertions.assertEquals(new MavenCoordinate("org.example", "app", "1.0"), model.getCoordinate());
+        Assertions.assertEquals(new MavenCoordinate("org.example", "root", "1"), model.getParent());
+        Assertions.assertEquals("${project.version}", model.getProperties().get("app.version"));
+        Assertions.assertEquals(1, model.getDependencyManagement().size());
+        Assertions.assertTrue(model.getDependencyManagement().get(0).isBomImport());
+        // The plugin dependency under <build> is not a project dependency
+        Assertions.assertEquals(3, model.getDependencies().size());
+        Assertions.assertNull(model.getDependencies().get(0).getVersion());
+    }
+
+    @Test
+    void testInheritsGroupIdFromParent() throws IOException {
+        PomModel model = PomParser.parse(
+            "<project><parent><groupId>org.example</groupId><artifactId>root</artifactId>"
+                + "<version>1</version></parent><artifactId>child</artifactId></project>");
+
+        Assertions.assertEquals(new MavenCoordinate("org.example", "child", "1"), model.getCoordinate());
+    }
+
+    @Test
+    void testResolveEffectiveDependencies() throws IOException {
+        EffectivePomResolver resolver = new EffectivePomResolver(new SSLClient(), mockWebServer.url("/").toString());
+
+        PomModel effective = resolver.resolve(new MavenCoordinate("org.example", "app", "1.0"));
+
+        Map<String, PomDependency> byArtifact = new HashMap<>();
+        effective.getDependencies().forEach(d -> byArtifact.put(d.getArtifactId(), d));
+        Assertions.assertEquals("5.9.2", byArtifact.get("junit-jupiter-api").getVersion());
+        Assertions.assertEquals("test", byArtifact.get("junit-jupiter-api").getScope());
+        Assertions.assertEquals("4.12.0", byArtifact.get("okhttp").getVersion());
+        Assertions.assertEquals("1.0", byArtifact.get("app-core").getVersion());
+    }
+
+    @Test
+    void testSharedAncestorsFetchedOnce() throws IOException {
+        EffectivePomResolver resolver = new EffectivePomResolver(new SSLClient(), mockWebServer.url("/").toString());
+
+        resolver.resolve(new MavenCoordinate("org.example", "app", "1.0"));
+        resolver.resolve(new MavenCoordinate("org.example", "lib", "1.0"));
+        resolver.resolve(new MavenCoordinate("org.example", "app", "1.0"));
+
+        Assertions.assertEquals(1, hits.get("/org/example/root/1/root-1.pom").get());
+        Assertions.assertEquals(1, hits.get("/org/example/bom/2.0/bom-2.0.pom").get());
+        Assertions.assertEquals(1, hits.get("/org/example/app/1.0/app-1.0.pom").get());
+        Assertions.assertEquals(4, resolver.getCachedModelCount());
+    }
+
+    @Test
+    void testMissingParentFails() {
+        poms.remove("/org/example/root/1/root-1.pom");
+        EffectivePomResolver resolver = new EffectivePomResolver(new SSLClient(), mockWebServer.url("/").toString());
+
+        IOException exception = Assertions.assertThrows(IOException.class,
+            () -> resolver.resolve(new MavenCoordinate("org.example", "app", "1.0")));
+        Assertions.assertTrue(exception.getMessage().contains("404"));
+    }
+
+    private static String childPom(String artifactId) {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+            "<project>\n" +
+            "  <parent>\n" +
+            "    <groupId>org.example</groupId>\n" +
+            "    <artifactId>root</artifactId>\n" +
+            "    <version>1</version>\n" +
+            "  </parent>\n" +
+            "  <artifactId>" + artifactId + "</artifactId>\n" +
+            "  <version>1.0</version>\n" +
+            "  <properties>\n" +
+            "    <app.version>${project.version}</app.version>\n" +
+            "  </properties>\n" +
+            "  <dependencyManagement>\n" +
+            "    <dependencies>\n" +
+            "      <dependency>\n" +
+            "        <groupId>org.example</groupId>\n" +
+            "        <artifactId>bom</artifactId>\n" +
+            "        <version>2.0</version>\n" +
+            "        <type>pom</type>\n" +
+            "        <scope>import</scope>\n" +
+            "      </dependency>\n" +
+            "    </dependencies>\n" +
+            "  </dependencyManagement>\n" +
+            "  <dependencies>\n" +
+            "    <dependency>\n" +
+            "      <groupId>org.junit.jupiter</groupId>\n" +
+            "      <artifactId>junit-jupiter-api</artifactId>\n" +
+            "    </dependency>\n" +
+            "    <dependency>\n" +
+            "      <groupId>com.squareup.okhttp3</groupId>\n" +
+            "      <artifactId>okhttp</artifactId>\n" +
+            "    </dependency>\n" +
+            "    <dependency>\n" +
+            "      <groupId>org.example</groupId>\n" +
+            "      <artifactId>" + artifactId + "-core</artifactId>\n" +
+            "      <version>${app.version}</version>\n" +
+            "    </dependency>\n" +
+            "  </dependencies>\n" +
+            "  <build>\n" +
+            "    <plugins>\n" +
+            "      <plugin>\n" +
+            "        <artifactId>maven-surefire-plugin</artifactId>\n" +
+            "        <dependencies>\n" +
+            "          <dependency>\n" +
+            "            <groupId>org.example</groupId>\n" +
+            "            <artifactId>plugin-only</artifactId>\n" +
+            "            <version>1</version>\n" +
+            "          </dependency>\n" +
+            "        </dependencies>\n" +
+            "      </plugin>\n" +
+            "    </plugins>\n" +
+            "  </build>\n" +
+            "</project>\n";
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.mavenpom;
+
+import com.example.mavenpom.client.HostTimings;
+import com.example.mavenpom.client.LatencyHistogram;
+import com.example.mavenpom.client.NetworkTimings;
+import com.example.mavenpom.client.SSLClient;
+import okhttp3.Protocol;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.tls.HandshakeCertificates;
+import okhttp3.tls.HeldCertificate;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class NetworkTimingsTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+
+        Assertions.assertEquals(100, histogram.getCount());
+        // Buckets are a quarter of a power of two wide, so allow for that much error
+        assertWithin(50, histogram.getPercentileMillis(50));
+        assertWithin(95, histogram.getPercentileMillis(95));
+        assertWithin(99, histogram.getPercentileMillis(99));
+        Assertions.assertTrue(Double.isNaN(new LatencyHistogram().getPercentileMillis(50)));
+    }
+
+    @Test
+    void testPhasesAndReuseRecordedPerHost() throws Exception {
+        HeldCertificate root = new HeldCertificate.Builder().certificateAuthority(0).build();
+        HeldCertificate serverCertificate = new HeldCertificate.Builder()
+                .commonName("localhost")
+                .addSubjectAlternativeName("localhost")
+                .addSubjectAlternativeName(InetAddress.getByName("localhost").getCanonicalHostName())
+                .signedBy(root)
+                .build();
+        Path certFile = tempDir.resolve("root.pem");
+        Files.writeString(certFile, root.certificatePem());
+
+        MockWebServer server = new MockWebServer();
+        server.useHttps(new HandshakeCertificates.Builder()
+                .heldCertificate(serverCertificate)
+                .build()
+                .sslSocketFactory(), false);
+        // HTTP/2 would ignore Connection: close and multiplex everything over one connection
+        server.setProtocols(List.of(Protocol.HTTP_1_1));
+        server.enqueue(new MockResponse().setBody("first"));
+        server.enqueue(new MockResponse().setBody("second").setHeader("Connection", "close"));
+        server.enqueue(new MockResponse().setBody("third"));
+        server.start();
+        try {
+            SSLClient client = new SSLClient(certFile.toString());
+            String url = server.url("/pom.xml").toString();
+
+            client.makeRequest(url);
+            // Same pooled connection
+            client.makeRequest(url);
+            // The server closed the connection, so this one connects again
+            client.makeRequest(url);
+
+            NetworkTimings timings = client.getNetworkTimings();
+            HostTimings host = timings.getHost(server.getHostName() + ":" + server.getPort());
+            Assertions.assertNotNull(host, "Timings should be keyed by host and port: " + timings.getHosts());
+            Assertions.assertEquals(3, host.getCallCount());
+            Assertions.assertEquals(0, host.getFailedCount());
+            Assertions.assertEquals(2, host.getNewConnectionCount());
+            Assertions.assertEquals(1, host.getReusedConnectionCount());
+            Assertions.assertEquals(2, host.getHandshakeCount());
+            // The second handshake resumes the session cached by the first
+            Assertions.assertEquals(1, host.getResumedSessionCount());
+            Assertions.assertEquals(2, host.getHistogram(NetworkTimings.Phase.TLS).getCount());
+            Assertions.assertEquals(2, host.getHistogram(NetworkTimings.Phase.CONNECT).getCount());
+            Assertions.assertEquals(3, host.getHistogram(NetworkTimings.Phase.TTFB).getCount());
+            Assertions.assertEquals(3, host.getHistogram(NetworkTimings.Phase.TOTAL).getCount());
+
+            String report = timings.formatReport();
+            Assertions.assertTrue(report.contains("p95 ms"), report);
+            Assertions.assertTrue(report.contains("tls"), report);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    private static void assertWithin(double expected, double actual) {
+        Assertions.assertTrue(actual >= expected && actual <= expected * 1.25,
+                "Expected about " + expected + " ms but got " + actual);
+    }
+}
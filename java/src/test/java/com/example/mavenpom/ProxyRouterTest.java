@@ -0,0 +1,130 @@
+package com.example.mavenpom;
+
+import com.example.mavenpom.client.ProxyRouter;
+import com.example.mavenpom.client.ProxySettings;
+import com.example.mavenpom.client.RevocationChecker;
+import com.example.mavenpom.client.SSLClient;
+import okhttp3.Credentials;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import okhttp3.tls.HandshakeCertificates;
+import okhttp3.tls.HeldCertificate;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ProxyRouterTest {
+    private static final Proxy CORPORATE_PROXY =
+            new Proxy(Proxy.Type.HTTP, InetSocketAddress.createUnresolved("proxy.corp.example", 3128));
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testPacAnswersCachedPerHost() throws Exception {
+        AtomicInteger evaluations = new AtomicInteger();
+        ProxySelector pacScript = new ProxySelector() {
+            @Override
+            public List<Proxy> select(URI uri) {
+                evaluations.incrementAndGet();
+                return uri.getHost().endsWith(".corp.example") ? List.of(Proxy.NO_PROXY) : List.of(CORPORATE_PROXY);
+            }
+
+            @Override
+            public void connectFailed(URI uri, SocketAddress address, IOException failure) {
+            }
+        };
+        ProxyRouter router = new ProxyRouter(ProxySettings.pac(pacScript, "http://wpad.corp.example/wpad.dat"), 200);
+
+        Assertions.assertEquals(List.of(CORPORATE_PROXY), router.select(URI.create("https://repo1.maven.org/maven2/a.pom")));
+        Assertions.assertEquals(List.of(CORPORATE_PROXY), router.select(URI.create("https://repo1.maven.org/maven2/b.pom")));
+        Assertions.assertEquals(List.of(Proxy.NO_PROXY), router.select(URI.create("https://nexus.corp.example/x.pom")));
+        Assertions.assertEquals(2, evaluations.get());
+        Assertions.assertEquals(1, router.getPacCacheHitCount());
+
+        // A proxy that cannot be reached sends the host back to the script
+        router.connectFailed(URI.create("https://repo1.maven.org/"), CORPORATE_PROXY.address(), new IOException("refused"));
+        router.select(URI.create("https://repo1.maven.org/maven2/c.pom"));
+        Assertions.assertEquals(3, evaluations.get());
+
+        // So does the TTL running out
+        Thread.sleep(300);
+        router.select(URI.create("https://nexus.corp.example/y.pom"));
+        Assertions.assertEquals(4, evaluations.get());
+        Assertions.assertEquals(4, router.getPacEvaluationCount());
+    }
+
+    @Test
+    void testManualProxyWithExceptions() {
+        ProxyRouter router = new ProxyRouter(ProxySettings.manual(Proxy.Type.HTTP, "proxy.corp.example", 3128,
+                List.of("localhost", "*.corp.example")));
+
+        Assertions.assertEquals(List.of(CORPORATE_PROXY), router.select(URI.create("https://repo1.maven.org/maven2/")));
+        Assertions.assertEquals(List.of(Proxy.NO_PROXY), router.select(URI.create("https://nexus.corp.example/")));
+        Assertions.assertEquals(List.of(Proxy.NO_PROXY), router.select(URI.create("http://LOCALHOST:8081/")));
+
+        Assertions.assertFalse(router.update(ProxySettings.manual(Proxy.Type.HTTP, "proxy.corp.example", 3128,
+                List.of("localhost", "*.corp.example"))));
+        Assertions.assertTrue(router.update(ProxySettings.direct()));
+        Assertions.assertEquals(List.of(Proxy.NO_PROXY), router.select(URI.create("https://repo1.maven.org/maven2/")));
+    }
+
+    @Test
+    void testTunnelAuthenticatedOnceAndReused() throws Exception {
+        HeldCertificate root = new HeldCertificate.Builder().certificateAuthority(0).build();
+        HeldCertificate repositoryCertificate = new HeldCertificate.Builder()
+                .addSubjectAlternativeName("repo.example")
+                .signedBy(root)
+                .build();
+        Path bundle = tempDir.resolve("root.pem");
+        Files.writeString(bundle, root.certificatePem());
+
+        // The stand-in answers the CONNECT itself, then serves the tunnelled requests as the repository
+        MockWebServer proxy = new MockWebServer();
+        proxy.useHttps(new HandshakeCertificates.Builder()
+                .heldCertificate(repositoryCertificate, root.certificate())
+                .build()
+                .sslSocketFactory(), true);
+        proxy.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.UPGRADE_TO_SSL_AT_END));
+        proxy.enqueue(new MockResponse().setBody("<project>a</project>"));
+        proxy.enqueue(new MockResponse().setBody("<project>b</project>"));
+        proxy.start();
+        try {
+            ProxyRouter router = new ProxyRouter(ProxySettings.manual(Proxy.Type.HTTP, proxy.getHostName(), proxy.getPort(),
+                    List.of()).withCredentials("builder", "s3cret"));
+            SSLClient client = new SSLClient(bundle.toString(), null,
+                    new RevocationChecker(RevocationChecker.Mode.OFF, null), router);
+
+            Assertions.assertEquals("<project>a</project>", client.makeRequest("https://repo.example/a.pom"));
+            Assertions.assertEquals("<project>b</project>", client.makeRequest("https://repo.example/b.pom"));
+
+            RecordedRequest connect = proxy.takeRequest(5, TimeUnit.SECONDS);
+            Assertions.assertEquals("CONNECT", connect.getMethod());
+            Assertions.assertEquals(Credentials.basic("builder", "s3cret"), connect.getHeader("Proxy-Authorization"));
+            for (String path : List.of("/a.pom", "/b.pom")) {
+                RecordedRequest request = proxy.takeRequest(5, TimeUnit.SECONDS);
+                Assertions.assertEquals(path, request.getPath());
+                Assertions.assertNull(request.getHeader("Proxy-Authorization"));
+            }
+            // A second tunnel would have needed a second CONNECT
+            Assertions.assertEquals(3, proxy.getRequestCount());
+            Assertions.assertEquals(1, router.getAuthenticationCount());
+        } finally {
+            proxy.shutdown();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.mavenpom;
+
+import com.example.mavenpom.client.ReloadingTrustManager;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class ReloadingTrustManagerTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testReloadsWhenBundleChanges() throws Exception {
+        String pem = readTestBundle();
+        Path certFile = tempDir.resolve("bundle.pem");
+        Files.writeString(certFile, pem);
+
+        try (ReloadingTrustManager trustManager = new ReloadingTrustManager(certFile)) {
+            Assertions.assertEquals(3, trustManager.getAcceptedIssuers().length);
+
+            Files.writeString(certFile, pem.substring(0, pem.lastIndexOf("-----BEGIN CERTIFICATE-----")));
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (trustManager.getReloadCount() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            Assertions.assertEquals(1, trustManager.getReloadCount());
+            Assertions.assertEquals(2, trustManager.getAcceptedIssuers().length);
+        }
+    }
+
+    @Test
+    void testKeepsPreviousStoreWhenBundleIsBroken() throws Exception {
+        Path certFile = tempDir.resolve("bundle.pem");
+        Files.writeString(certFile, readTestBundle());
+
+        try (ReloadingTrustManager trustManager = new ReloadingTrustManager(certFile)) {
+            Files.writeString(certFile, "-----BEGIN CERTIFICATE-----\nnot base64\n");
+
+            Assertions.assertFalse(trustManager.reload());
+            Assertions.assertEquals(3, trustManager.getAcceptedIssuers().length);
+            Assertions.assertEquals(0, trustManager.getReloadCount());
+        }
+    }
+
+    @Test
+    void testUnchangedContentIsNotReloaded() throws Exception {
+        Path certFile = tempDir.resolve("bundle.pem");
+        Files.writeString(certFile, readTestBundle());
+
+        try (ReloadingTrustManager trustManager = new ReloadingTrustManager(certFile)) {
+            Assertions.assertFalse(trustManager.reload());
+            Assertions.assertEquals(0, trustManager.getReloadCount());
+        }
+    }
+
+    private String readTestBundle() throws IOException {
+        try (InputStream in = getClass().getClassLoader()
+                .getResourceAsStream("certificates/test-multi-certificate.pem")) {
+            Assertions.assertNotNull(in, "Test certificate bundle should be on the classpath");
+            return new String(in.readAllBytes(), StandardCharsets.US_ASCII);
+        }
+    }
+}
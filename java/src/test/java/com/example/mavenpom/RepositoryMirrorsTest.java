@@ -0,0 +1,211 @@
+package com.example.mavenpom;
+
+import com.example.mavenpom.client.HttpResponseException;
+import com.example.mavenpom.client.MavenRepository;
+import com.example.mavenpom.client.RepositoryMirrors;
+import com.example.mavenpom.client.RepositoryStats;
+import com.example.mavenpom.client.SSLClient;
+import okhttp3.Cache;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+public class RepositoryMirrorsTest {
+    private static final String POM_PATH = "org/example/demo/1.0/demo-1.0.pom";
+    private static final String POM = "<project><artifactId>demo</artifactId></project>";
+
+    private MockWebServer nexus;
+    private MockWebServer central;
+    private MavenRepository nexusRepository;
+    private MavenRepository centralRepository;
+    private SSLClient client;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        nexus = new MockWebServer();
+        nexus.start();
+        central = new MockWebServer();
+        central.start();
+        nexusRepository = new MavenRepository("nexus", nexus.url("/repository/maven-public").toString(), null);
+        centralRepository = new MavenRepository("central", central.url("/maven2/").toString(), null);
+        client = new SSLClient();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        nexus.shutdown();
+        central.shutdown();
+    }
+
+    @Test
+    void testFallsBackWhenPrimaryDoesNotHaveArtifact() throws Exception {
+        nexus.enqueue(new MockResponse().setResponseCode(404));
+        central.enqueue(new MockResponse().setBody(POM));
+
+        RepositoryMirrors mirrors = mirrors(Duration.ofSeconds(10));
+
+        Assertions.assertEquals(POM, mirrors.fetch(POM_PATH));
+        Assertions.assertEquals("/repository/maven-public/" + POM_PATH, nexus.takeRequest().getPath());
+        Assertions.assertEquals("/maven2/" + POM_PATH, central.takeRequest().getPath());
+        Assertions.assertEquals(1, mirrors.getStats(nexusRepository).getNotFoundCount());
+        Assertions.assertEquals(0, mirrors.getStats(centralRepository).getHedgeCount());
+    }
+
+    @Test
+    void testSlowPrimaryIsHedged() throws Exception {
+        nexus.enqueue(new MockResponse().setBody(POM).setHeadersDelay(2, TimeUnit.SECONDS));
+        central.enqueue(new MockResponse().setBody(POM));
+
+        RepositoryMirrors mirrors = mirrors(Duration.ofMillis(100));
+
+        long start = System.nanoTime();
+        Assertions.assertEquals(POM, mirrors.fetch(POM_PATH));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        Assertions.assertTrue(elapsedMillis < 1500, "Hedge should have answered first, took " + elapsedMillis + " ms");
+        Assertions.assertEquals(1, mirrors.getStats(centralRepository).getHedgeCount());
+        Assertions.assertEquals(1, mirrors.getStats(centralRepository).getSuccessCount());
+        Assertions.assertEquals(0, mirrors.getStats(nexusRepository).getSuccessCount());
+    }
+
+    @Test
+    void testAbandonedHedgeDoesNotImproveRanking() throws Exception {
+        nexus.enqueue(new MockResponse().setBody(POM).setHeadersDelay(300, TimeUnit.MILLISECONDS));
+        central.enqueue(new MockResponse().setBody(POM).setHeadersDelay(2, TimeUnit.SECONDS));
+
+        RepositoryMirrors mirrors = mirrors(Duration.ofMillis(100));
+
+        Assertions.assertEquals(POM, mirrors.fetch(POM_PATH));
+        Assertions.assertEquals(1, mirrors.getStats(centralRepository).getHedgeCount());
+        // Central was cancelled after about 200 ms, which must not pass for an answer faster than Nexus
+        Assertions.assertTrue(Double.isNaN(mirrors.getStats(centralRepository).getScoreMillis()));
+        Assertions.assertEquals(List.of(nexusRepository, centralRepository), mirrors.rank());
+
+        // Nor does a fetch the caller gave up on say anything about the repository
+        double nexusScore = mirrors.getStats(nexusRepository).getScoreMillis();
+        nexus.enqueue(new MockResponse().setBody(POM).setHeadersDelay(2, TimeUnit.SECONDS));
+        mirrors.fetchAsync(POM_PATH, Duration.ofSeconds(10)).cancel(true);
+        Thread.sleep(200);
+        Assertions.assertEquals(nexusScore, mirrors.getStats(nexusRepository).getScoreMillis());
+    }
+
+    @Test
+    void testCacheHitsDoNotCountAsLatency() throws Exception {
+        nexus.enqueue(new MockResponse().setBody(POM));
+
+        try (Cache cache = new Cache(tempDir.toFile(), 1024 * 1024)) {
+            client = new SSLClient("certificates/multi-certificate.pem", cache);
+            RepositoryMirrors mirrors = mirrors(Duration.ofSeconds(10));
+            for (int i = 0; i < 12; i++) {
+                Assertions.assertEquals(POM, mirrors.fetch(POM_PATH));
+            }
+
+            RepositoryStats stats = mirrors.getStats(nexusRepository);
+            Assertions.assertEquals(1, nexus.getRequestCount());
+            Assertions.assertEquals(12, stats.getSuccessCount());
+            // Only the network fetch was timed, too few samples to shorten the hedge delay
+            Assertions.assertTrue(Double.isNaN(stats.getP95Millis()));
+        }
+    }
+
+    @Test
+    void testHedgeDelayFollowsObservedP95() throws Exception {
+        // Warm-up requests slower than the p95 seen so far are hedged as well, so Central must always answer
+        central.setDispatcher(new Dispatcher() {
+            @NotNull
+            @Override
+            public MockResponse dispatch(@NotNull RecordedRequest request) {
+                return new MockResponse().setBody(POM);
+            }
+        });
+        // Far longer than the test may take, so only the observed p95 can trigger the hedge
+        RepositoryMirrors mirrors = mirrors(Duration.ofSeconds(10));
+        for (int i = 0; i < 10; i++) {
+            nexus.enqueue(new MockResponse().setBody(POM));
+            mirrors.fetch(POM_PATH);
+        }
+        Assertions.assertFalse(Double.isNaN(mirrors.getStats(nexusRepository).getP95Millis()));
+        long hedgesBefore = mirrors.getStats(centralRepository).getHedgeCount();
+
+        nexus.enqueue(new MockResponse().setBody(POM).setHeadersDelay(2, TimeUnit.SECONDS));
+
+        long start = System.nanoTime();
+        Assertions.assertEquals(POM, mirrors.fetch(POM_PATH));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        Assertions.assertTrue(elapsedMillis < 1500, "Hedge should have answered first, took " + elapsedMillis + " ms");
+        Assertions.assertEquals(hedgesBefore + 1, mirrors.getStats(centralRepository).getHedgeCount());
+    }
+
+    @Test
+    void testRoutingPrefersRepositoryThatWorks() throws Exception {
+        nexus.enqueue(new MockResponse().setResponseCode(503));
+        central.enqueue(new MockResponse().setBody(POM));
+        central.enqueue(new MockResponse().setBody(POM));
+
+        RepositoryMirrors mirrors = mirrors(Duration.ofSeconds(10));
+        Assertions.assertEquals(List.of(nexusRepository, centralRepository), mirrors.rank());
+
+        Assertions.assertEquals(POM, mirrors.fetch(POM_PATH));
+        Assertions.assertEquals(1, mirrors.getStats(nexusRepository).getFailureCount());
+        Assertions.assertEquals(List.of(centralRepository, nexusRepository), mirrors.rank());
+
+        // The next fetch goes straight to the repository that worked
+        Assertions.assertEquals(POM, mirrors.fetch(POM_PATH));
+        Assertions.assertEquals(1, nexus.getRequestCount());
+        Assertions.assertEquals(2, central.getRequestCount());
+    }
+
+    @Test
+    void testFailureReportedWhenNoRepositoryHasArtifact() {
+        nexus.enqueue(new MockResponse().setResponseCode(503));
+        central.enqueue(new MockResponse().setResponseCode(404));
+
+        RepositoryMirrors mirrors = mirrors(Duration.ofSeconds(10));
+
+        HttpResponseException exception = Assertions.assertThrows(HttpResponseException.class,
+                () -> mirrors.fetch(POM_PATH));
+        // A real failure is more useful than "not found" from another repository
+        Assertions.assertEquals(503, exception.getCode());
+    }
+
+    @Test
+    void testStreamFallsBackAndStopsWhenConsumerDeclines() throws Exception {
+        nexus.enqueue(new MockResponse().setResponseCode(404));
+        String body = "<project>" + "x".repeat(100_000) + "</project>";
+        central.enqueue(new MockResponse().setBody(body));
+
+        RepositoryMirrors mirrors = mirrors(Duration.ofSeconds(10));
+        List<String> chunks = new CopyOnWriteArrayList<>();
+        long chars = mirrors.streamAsync(POM_PATH, 1000, chunk -> {
+            chunks.add(chunk);
+            return chunks.size() < 3;
+        }).get(10, TimeUnit.SECONDS);
+
+        Assertions.assertEquals(3, chunks.size());
+        Assertions.assertTrue(chunks.stream().allMatch(chunk -> !chunk.isEmpty() && chunk.length() <= 1000));
+        String streamed = String.join("", chunks);
+        Assertions.assertEquals(streamed.length(), chars);
+        Assertions.assertTrue(body.startsWith(streamed));
+        Assertions.assertEquals(1, nexus.getRequestCount());
+        Assertions.assertEquals(1, central.getRequestCount());
+    }
+
+    private RepositoryMirrors mirrors(Duration defaultHedgeDelay) {
+        return new RepositoryMirrors(List.of(nexusRepository, centralRepository), repository -> client, defaultHedgeDelay);
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.mavenpom;
+
+import com.example.mavenpom.client.SSLClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class RequestCoalescingTest {
+    private static final String POM = "<project><artifactId>demo</artifactId></project>";
+
+    private MockWebServer server;
+    private SSLClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        client = new SSLClient();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    void testConcurrentRequestsShareOneCall() throws Exception {
+        server.enqueue(new MockResponse().setBody(POM).setHeadersDelay(500, TimeUnit.MILLISECONDS));
+        server.enqueue(new MockResponse().setBody(POM));
+        String url = server.url("/org/example/demo/1.0/demo-1.0.pom").toString();
+
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            futures.add(client.makeRequestAsync(url));
+        }
+        // A blocking request joins the same call too
+        String blocking = CompletableFuture.supplyAsync(() -> {
+            try {
+                return client.makeRequest(url);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }).get(5, TimeUnit.SECONDS);
+
+        Assertions.assertEquals(POM, blocking);
+        for (CompletableFuture<String> future : futures) {
+            Assertions.assertEquals(POM, future.get(5, TimeUnit.SECONDS));
+        }
+        Assertions.assertEquals(1, server.getRequestCount());
+
+        // Once the call has completed, the next request goes to the network again
+        Assertions.assertEquals(POM, client.makeRequest(url));
+        Assertions.assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    void testEquivalentUrlsAreCoalesced() throws Exception {
+        server.enqueue(new MockResponse().setBody(POM).setHeadersDelay(500, TimeUnit.MILLISECONDS));
+        String url = server.url("/demo.pom").toString();
+        String sameResource = url.replace(server.getHostName(), server.getHostName().toUpperCase(Locale.ROOT)) + "#project";
+
+        CompletableFuture<String> first = client.makeRequestAsync(url);
+        CompletableFuture<String> second = client.makeRequestAsync(sameResource);
+
+        Assertions.assertEquals(POM, first.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(POM, second.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    void testDifferentUrlsAreNotCoalesced() throws Exception {
+        server.enqueue(new MockResponse().setBody("a").setHeadersDelay(300, TimeUnit.MILLISECONDS));
+        server.enqueue(new MockResponse().setBody("b").setHeadersDelay(300, TimeUnit.MILLISECONDS));
+
+        CompletableFuture<String> first = client.makeRequestAsync(server.url("/a.pom").toString());
+        CompletableFuture<String> second = client.makeRequestAsync(server.url("/b.pom").toString());
+
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    void testCancellingOneWaiterKeepsTheCallForOthers() throws Exception {
+        server.enqueue(new MockResponse().setBody(POM).setHeadersDelay(500, TimeUnit.MILLISECONDS));
+        String url = server.url("/demo.pom").toString();
+
+        CompletableFuture<String> cancelled = client.makeRequestAsync(url);
+        CompletableFuture<String> timedOut = client.makeRequestAsync(url, Duration.ofMillis(100));
+        CompletableFuture<String> waiting = client.makeRequestAsync(url);
+        Assertions.assertNotNull(server.takeRequest(5, TimeUnit.SECONDS));
+
+        Assertions.assertTrue(cancelled.cancel(true));
+        ExecutionException timeout = Assertions.assertThrows(ExecutionException.class,
+                () -> timedOut.get(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(timeout.getCause() instanceof IOException);
+
+        Assertions.assertEquals(POM, waiting.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    void testTimeoutStartsWhenCallIsDispatched() throws Exception {
+        SSLClient serial = client.withConcurrencyLimits(1, 1);
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            server.enqueue(new MockResponse().setBody(POM).setHeadersDelay(200, TimeUnit.MILLISECONDS));
+            futures.add(serial.makeRequestAsync(server.url("/demo-" + i + ".pom").toString(), Duration.ofMillis(500)));
+        }
+
+        // The last call waits about 600 ms in the dispatcher's queue; only its own 200 ms count
+        for (CompletableFuture<String> future : futures) {
+            Assertions.assertEquals(POM, future.get(5, TimeUnit.SECONDS));
+        }
+        Assertions.assertEquals(4, server.getRequestCount());
+    }
+
+    @Test
+    void testErrorIsDeliveredToEveryWaiter() {
+        server.enqueue(new MockResponse().setResponseCode(404).setHeadersDelay(300, TimeUnit.MILLISECONDS));
+        String url = server.url("/missing.pom").toString();
+
+        CompletableFuture<String> first = client.makeRequestAsync(url);
+        CompletableFuture<String> second = client.makeRequestAsync(url);
+
+        for (CompletableFuture<String> future : List.of(first, second)) {
+            ExecutionException exception = Assertions.assertThrows(ExecutionException.class,
+                    () -> future.get(5, TimeUnit.SECONDS));
+            Assertions.assertTrue(exception.getCause().getMessage().contains("Unexpected response code: 404"));
+        }
+        Assertions.assertEquals(1, server.getRequestCount());
+    }
+}
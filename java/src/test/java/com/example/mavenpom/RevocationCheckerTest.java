@@ -0,0 +1,277 @@
+package com.example.mavenpom;
+
+import com.example.mavenpom.client.ProxyRouter;
+import com.example.mavenpom.client.ProxySettings;
+import com.example.mavenpom.client.RevocationChecker;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.AccessDescription;
+import org.bouncycastle.asn1.x509.AuthorityInformationAccess;
+import org.bouncycastle.asn1.x509.BasicConstraints;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.X509v3CertificateBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.cert.ocsp.BasicOCSPRespBuilder;
+import org.bouncycastle.cert.ocsp.CertificateID;
+import org.bouncycastle.cert.ocsp.CertificateStatus;
+import org.bouncycastle.cert.ocsp.OCSPReq;
+import org.bouncycastle.cert.ocsp.OCSPRespBuilder;
+import org.bouncycastle.cert.ocsp.Req;
+import org.bouncycastle.cert.ocsp.RespID;
+import org.bouncycastle.cert.ocsp.RevokedStatus;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.bc.BcDigestCalculatorProvider;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigInteger;
+import java.net.Proxy;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class RevocationCheckerTest {
+    private static final String SIGNATURE_ALGORITHM = "SHA256withECDSA";
+
+    private final Set<BigInteger> revoked = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger ocspRequests = new AtomicInteger();
+    private final AtomicLong validityMs = new AtomicLong(TimeUnit.HOURS.toMillis(4));
+    private volatile boolean responderDown;
+    private MockWebServer responder;
+    private KeyPair caKeys;
+    private X509Certificate ca;
+    private long nextSerial = 100;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void startResponder() throws Exception {
+        caKeys = newKeyPair();
+        ca = sign(new JcaX509v3CertificateBuilder(new X500Name("CN=Test Revocation CA"), BigInteger.ONE,
+                new Date(System.currentTimeMillis() - 60_000), new Date(System.currentTimeMillis() + 86_400_000),
+                new X500Name("CN=Test Revocation CA"), caKeys.getPublic())
+                .addExtension(Extension.basicConstraints, true, new BasicConstraints(0)));
+
+        responder = new MockWebServer();
+        responder.setDispatcher(new Dispatcher() {
+            @NotNull
+            @Override
+            public MockResponse dispatch(@NotNull RecordedRequest request) {
+                ocspRequests.incrementAndGet();
+                if (responderDown) {
+                    return new MockResponse().setResponseCode(503);
+                }
+                try {
+                    OCSPReq ocspRequest = new OCSPReq(request.getBody().readByteArray());
+                    Req single = ocspRequest.getRequestList()[0];
+                    byte[] response = ocspResponse(single.getCertID(), caKeys.getPrivate());
+                    return new MockResponse()
+                            .setHeader("Content-Type", "application/ocsp-response")
+                            .setBody(new Buffer().write(response));
+                } catch (Exception e) {
+                    return new MockResponse().setResponseCode(500).setBody(e.toString());
+                }
+            }
+        });
+        responder.start();
+    }
+
+    @AfterEach
+    void stopResponder() throws Exception {
+        responder.shutdown();
+    }
+
+    @Test
+    void testStatusFetchedOnceThenServedFromMemory() throws Exception {
+        RevocationChecker checker = new RevocationChecker(RevocationChecker.Mode.HARD_FAIL, null);
+        X509Certificate[] chain = {issueLeaf()};
+
+        checker.check(chain, () -> new X509Certificate[]{ca}, List.of());
+        checker.check(chain, () -> new X509Certificate[]{ca}, List.of());
+        checker.check(chain, () -> new X509Certificate[]{ca}, List.of());
+
+        Assertions.assertEquals(1, ocspRequests.get());
+        Assertions.assertEquals(1, checker.getNetworkFetchCount());
+        Assertions.assertEquals(2, checker.getCacheHitCount());
+    }
+
+    @Test
+    void testRevokedCertificateRejected() throws Exception {
+        X509Certificate leaf = issueLeaf();
+        revoked.add(leaf.getSerialNumber());
+        RevocationChecker checker = new RevocationChecker(RevocationChecker.Mode.SOFT_FAIL, null);
+
+        CertificateException failure = Assertions.assertThrows(CertificateException.class,
+                () -> checker.check(new X509Certificate[]{leaf}, () -> new X509Certificate[]{ca}, List.of()));
+        Assertions.assertTrue(failure.getMessage().contains("revoked"), failure.getMessage());
+        // The revocation is remembered too
+        Assertions.assertThrows(CertificateException.class,
+                () -> checker.check(new X509Certificate[]{leaf}, () -> new X509Certificate[]{ca}, List.of()));
+        Assertions.assertEquals(1, ocspRequests.get());
+    }
+
+    @Test
+    void testUnreachableResponderOnlyFailsHardMode() throws Exception {
+        responderDown = true;
+        X509Certificate[] chain = {issueLeaf()};
+
+        RevocationChecker soft = new RevocationChecker(RevocationChecker.Mode.SOFT_FAIL, null);
+        soft.check(chain, () -> new X509Certificate[]{ca}, List.of());
+        // The failure is remembered, so the next handshake does not wait for the responder again
+        soft.check(chain, () -> new X509Certificate[]{ca}, List.of());
+        Assertions.assertEquals(1, ocspRequests.get());
+
+        RevocationChecker hard = new RevocationChecker(RevocationChecker.Mode.HARD_FAIL, null);
+        Assertions.assertThrows(CertificateException.class,
+                () -> hard.check(chain, () -> new X509Certificate[]{ca}, List.of()));
+    }
+
+    @Test
+    void testStapledResponseAvoidsRequest() throws Exception {
+        X509Certificate leaf = issueLeaf();
+        byte[] stapled = ocspResponse(certificateId(leaf), caKeys.getPrivate());
+        RevocationChecker checker = new RevocationChecker(RevocationChecker.Mode.HARD_FAIL, null);
+
+        checker.check(new X509Certificate[]{leaf}, () -> new X509Certificate[]{ca}, List.of(stapled));
+
+        Assertions.assertEquals(0, ocspRequests.get());
+        Assertions.assertEquals(1, checker.getStapledResponseCount());
+    }
+
+    @Test
+    void testForgedStapledResponseIgnored() throws Exception {
+        X509Certificate leaf = issueLeaf();
+        // A "good" response signed by a key that is not the issuer's must not be believed
+        byte[] forged = ocspResponse(certificateId(leaf), newKeyPair().getPrivate());
+        revoked.add(leaf.getSerialNumber());
+        RevocationChecker checker = new RevocationChecker(RevocationChecker.Mode.HARD_FAIL, null);
+
+        Assertions.assertThrows(CertificateException.class,
+                () -> checker.check(new X509Certificate[]{leaf}, () -> new X509Certificate[]{ca}, List.of(forged)));
+        Assertions.assertEquals(0, checker.getStapledResponseCount());
+        Assertions.assertEquals(1, ocspRequests.get());
+    }
+
+    @Test
+    void testDiskCacheSharedWithNextSession() throws Exception {
+        X509Certificate[] chain = {issueLeaf()};
+        new RevocationChecker(RevocationChecker.Mode.HARD_FAIL, tempDir)
+                .check(chain, () -> new X509Certificate[]{ca}, List.of());
+        Assertions.assertEquals(1, ocspRequests.get());
+
+        RevocationChecker nextSession = new RevocationChecker(RevocationChecker.Mode.HARD_FAIL, tempDir);
+        nextSession.check(chain, () -> new X509Certificate[]{ca}, List.of());
+
+        Assertions.assertEquals(1, ocspRequests.get());
+        Assertions.assertEquals(0, nextSession.getNetworkFetchCount());
+    }
+
+    @Test
+    void testStatusInUseRefreshedBeforeItExpires() throws Exception {
+        validityMs.set(4_000);
+        RevocationChecker checker = new RevocationChecker(RevocationChecker.Mode.HARD_FAIL, null);
+        X509Certificate[] chain = {issueLeaf()};
+        checker.check(chain, () -> new X509Certificate[]{ca}, List.of());
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (ocspRequests.get() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        Assertions.assertEquals(2, ocspRequests.get());
+        // The refreshed status answers the handshake without another request
+        long hits = checker.getCacheHitCount();
+        checker.check(chain, () -> new X509Certificate[]{ca}, List.of());
+        Assertions.assertEquals(hits + 1, checker.getCacheHitCount());
+        Assertions.assertEquals(2, ocspRequests.get());
+    }
+
+    @Test
+    void testTrustAnchorNotChecked() throws Exception {
+        RevocationChecker checker = new RevocationChecker(RevocationChecker.Mode.HARD_FAIL, null);
+
+        checker.check(new X509Certificate[]{ca}, () -> new X509Certificate[]{ca}, List.of());
+
+        Assertions.assertEquals(0, ocspRequests.get());
+    }
+
+    private X509Certificate issueLeaf() throws Exception {
+        return issueLeaf(responder.url("/ocsp").toString());
+    }
+
+    private X509Certificate issueLeaf(String ocspUrl) throws Exception {
+        AuthorityInformationAccess aia = new AuthorityInformationAccess(new AccessDescription(
+                AccessDescription.id_ad_ocsp, new GeneralName(GeneralName.uniformResourceIdentifier, ocspUrl)));
+        return sign(new JcaX509v3CertificateBuilder(new X500Name("CN=Test Revocation CA"), BigInteger.valueOf(nextSerial++),
+                new Date(System.currentTimeMillis() - 60_000), new Date(System.currentTimeMillis() + 86_400_000),
+                new X500Name("CN=localhost"), newKeyPair().getPublic())
+                .addExtension(Extension.authorityInfoAccess, false, aia));
+    }
+
+    @Test
+    void testStatusFetchedThroughProxy() throws Exception {
+        // The responder stands in for a proxy; the responder's own host name does not resolve
+        ProxyRouter router = new ProxyRouter(ProxySettings.manual(Proxy.Type.HTTP, responder.getHostName(),
+                responder.getPort(), List.of()));
+        RevocationChecker checker = new RevocationChecker(RevocationChecker.Mode.HARD_FAIL, null, router);
+
+        checker.check(new X509Certificate[]{issueLeaf("http://ocsp.revocation.invalid/ocsp")},
+                () -> new X509Certificate[]{ca}, List.of());
+
+        RecordedRequest request = responder.takeRequest(5, TimeUnit.SECONDS);
+        Assertions.assertEquals("POST http://ocsp.revocation.invalid/ocsp HTTP/1.1", request.getRequestLine());
+        Assertions.assertEquals(1, checker.getNetworkFetchCount());
+    }
+
+    private CertificateID certificateId(X509Certificate certificate) throws Exception {
+        return new CertificateID(new BcDigestCalculatorProvider().get(CertificateID.HASH_SHA1),
+                new JcaX509CertificateHolder(ca), certificate.getSerialNumber());
+    }
+
+    private byte[] ocspResponse(CertificateID id, PrivateKey signingKey) throws Exception {
+        long now = System.currentTimeMillis();
+        X509CertificateHolder issuer = new JcaX509CertificateHolder(ca);
+        CertificateStatus status = revoked.contains(id.getSerialNumber())
+                ? new RevokedStatus(new Date(now - 60_000), 1)
+                : CertificateStatus.GOOD;
+        BasicOCSPRespBuilder builder = new BasicOCSPRespBuilder(new RespID(issuer.getSubject()));
+        builder.addResponse(id, status, new Date(now - 1_000), new Date(now + validityMs.get()), null);
+        ContentSigner signer = new JcaContentSignerBuilder(SIGNATURE_ALGORITHM).build(signingKey);
+        return new OCSPRespBuilder().build(OCSPRespBuilder.SUCCESSFUL,
+                builder.build(signer, new X509CertificateHolder[]{issuer}, new Date(now))).getEncoded();
+    }
+
+    private X509Certificate sign(X509v3CertificateBuilder builder) throws Exception {
+        ContentSigner signer = new JcaContentSignerBuilder(SIGNATURE_ALGORITHM).build(caKeys.getPrivate());
+        return new JcaX509CertificateConverter().getCertificate(builder.build(signer));
+    }
+
+    private static KeyPair newKeyPair() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(256);
+        return generator.generateKeyPair();
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.mavenpom;
+
+import com.example.mavenpom.client.CacheStats;
+import com.example.mavenpom.client.SSLClient;
+import okhttp3.Cache;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+public class SSLClientCacheTest {
+    private static final String CERT_PATH = "certificates/multi-certificate.pem";
+    private static final String RELEASE_POM = "/maven2/org/example/demo/1.0/demo-1.0.pom";
+    private static final String METADATA = "/maven2/org/example/demo/maven-metadata.xml";
+
+    private MockWebServer mockWebServer;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    void testReleaseServedFromCacheWithoutNetwork() throws IOException {
+        mockWebServer.enqueue(new MockResponse()
+                .setBody("<project>release</project>")
+                .setHeader("Cache-Control", "no-store"));
+
+        try (Cache cache = new Cache(tempDir.toFile(), 1024 * 1024)) {
+            SSLClient client = new SSLClient(CERT_PATH, cache);
+            String url = mockWebServer.url(RELEASE_POM).toString();
+
+            Assertions.assertEquals("<project>release</project>", client.makeRequest(url));
+            Assertions.assertEquals("<project>release</project>", client.makeRequest(url));
+
+            Assertions.assertEquals(1, mockWebServer.getRequestCount());
+            CacheStats stats = client.getCacheStats();
+            Assertions.assertNotNull(stats);
+            Assertions.assertEquals(2, stats.getRequestCount());
+            Assertions.assertEquals(1, stats.getHitCount());
+            Assertions.assertEquals(1, stats.getMissCount());
+        }
+    }
+
+    @Test
+    void testMetadataRevalidatedWithEtag() throws Exception {
+        mockWebServer.enqueue(new MockResponse()
+                .setBody("<metadata/>")
+                .setHeader("ETag", "\"v1\"")
+                .setHeader("Cache-Control", "max-age=3600"));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(304));
+
+        try (Cache cache = new Cache(tempDir.toFile(), 1024 * 1024)) {
+            SSLClient client = new SSLClient(CERT_PATH, cache);
+            String url = mockWebServer.url(METADATA).toString();
+
+            Assertions.assertEquals("<metadata/>", client.makeRequest(url));
+            Assertions.assertEquals("<metadata/>", client.makeRequest(url));
+
+            mockWebServer.takeRequest(1, TimeUnit.SECONDS);
+            RecordedRequest revalidation = mockWebServer.takeRequest(1, TimeUnit.SECONDS);
+            Assertions.assertNotNull(revalidation);
+            Assertions.assertEquals("\"v1\"", revalidation.getHeader("If-None-Match"));
+
+            CacheStats stats = client.getCacheStats();
+            Assertions.assertEquals(2, stats.getNetworkCount());
+            Assertions.assertEquals(1, stats.getHitCount());
+        }
+    }
+
+    @Test
+    void testCacheSurvivesRestart() throws IOException {
+        mockWebServer.enqueue(new MockResponse().setBody("<project>release</project>"));
+        String url = mockWebServer.url(RELEASE_POM).toString();
+
+        try (Cache cache = new Cache(tempDir.toFile(), 1024 * 1024)) {
+            new SSLClient(CERT_PATH, cache).makeRequest(url);
+        }
+
+        // A new Cache instance on the same directory stands in for the next IDE session
+        try (Cache cache = new Cache(tempDir.toFile(), 1024 * 1024)) {
+            SSLClient client = new SSLClient(CERT_PATH, cache);
+            Assertions.assertEquals("<project>release</project>", client.makeRequest(url));
+            Assertions.assertEquals(1, client.getCacheStats().getHitCount());
+        }
+        Assertions.assertEquals(1, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void testOtherResponsesKeepServerHeaders() throws IOException {
+        mockWebServer.enqueue(new MockResponse().setBody("[]").setHeader("Cache-Control", "no-store"));
+        mockWebServer.enqueue(new MockResponse().setBody("[]").setHeader("Cache-Control", "no-store"));
+        mockWebServer.enqueue(new MockResponse().setBody("<html/>"));
+        mockWebServer.enqueue(new MockResponse().setBody("<html/>"));
+
+        try (Cache cache = new Cache(tempDir.toFile(), 1024 * 1024)) {
+            SSLClient client = new SSLClient(CERT_PATH, cache);
+            String search = mockWebServer.url("/service/rest/v1/search?group=org.example").toString();
+            String listing = mockWebServer.url("/maven2/org/example/demo/1.0/").toString();
+
+            for (String url : new String[] {search, search, listing, listing}) {
+                client.makeRequest(url);
+            }
+
+            Assertions.assertEquals(4, mockWebServer.getRequestCount());
+            Assertions.assertEquals(0, client.getCacheStats().getHitCount());
+        }
+    }
+
+    @Test
+    void testNoStatsWithoutCache() {
+        Assertions.assertNull(new SSLClient().getCacheStats());
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.mavenpom;
+
+import com.example.mavenpom.client.SSLClient;
+import com.example.mavenpom.client.SSLClientRegistry;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class SSLClientRegistryTest {
+    @TempDir
+    Path tempDir;
+
+    private final SSLClientRegistry registry = SSLClientRegistry.getInstance();
+
+    @AfterEach
+    void tearDown() {
+        registry.clear();
+    }
+
+    @Test
+    void testSameClientForRepeatedLookups() {
+        SSLClient first = registry.getClient();
+        SSLClient second = registry.getClient();
+
+        Assertions.assertSame(first, second);
+    }
+
+    @Test
+    void testClientKeptWhenBundleChanges() throws IOException {
+        String pem = readTestBundle();
+        Path certFile = tempDir.resolve("bundle.pem");
+        Files.writeString(certFile, pem);
+
+        SSLClient first = registry.getClient(certFile.toString());
+
+        // Bundles on disk are reloaded in place, so the client and its connection pool survive
+        String shorter = pem.substring(0, pem.lastIndexOf("-----BEGIN CERTIFICATE-----"));
+        Files.writeString(certFile, shorter);
+        certFile.toFile().setLastModified(certFile.toFile().lastModified() + 2000);
+
+        Assertions.assertSame(first, registry.getClient(certFile.toString()));
+    }
+
+    @Test
+    void testClientKeptWhenBundleTouchedButUnchanged() throws IOException {
+        Path certFile = tempDir.resolve("touched.pem");
+        Files.writeString(certFile, readTestBundle());
+
+        SSLClient first = registry.getClient(certFile.toString());
+        certFile.toFile().setLastModified(certFile.toFile().lastModified() + 2000);
+
+        Assertions.assertSame(first, registry.getClient(certFile.toString()));
+    }
+
+    private String readTestBundle() throws IOException {
+        try (InputStream in = getClass().getClassLoader()
+                .getResourceAsStream("certificates/test-multi-certificate.pem")) {
+            Assertions.assertNotNull(in, "Test certificate bundle should be on the classpath");
+            return new String(in.readAllBytes(), StandardCharsets.US_ASCII);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.mavenpom;
+
+import com.example.mavenpom.client.SSLClient;
+import okhttp3.Cache;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okio.Buffer;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SSLClientStreamingTest {
+    private static final String METADATA = "<metadata>\n  <versions>\n    <version>1.0</version>\n  </versions>\n</metadata>\n";
+
+    private MockWebServer mockWebServer;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    void testStreamToOutputStream() throws IOException {
+        mockWebServer.enqueue(new MockResponse().setBody(METADATA));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = new SSLClient().streamTo(mockWebServer.url("/").toString(), out);
+
+        Assertions.assertEquals(METADATA.length(), written);
+        Assertions.assertEquals(METADATA, out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testStreamToChannel() throws IOException {
+        mockWebServer.enqueue(new MockResponse().setBody(METADATA));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = new SSLClient().streamTo(mockWebServer.url("/").toString(), Channels.newChannel(out));
+
+        Assertions.assertEquals(METADATA.length(), written);
+        Assertions.assertEquals(METADATA, out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testForEachLine() throws IOException {
+        mockWebServer.enqueue(new MockResponse().setBody(METADATA));
+
+        List<String> lines = new ArrayList<>();
+        long count = new SSLClient().forEachLine(mockWebServer.url("/").toString(), lines::add);
+
+        Assertions.assertEquals(5, count);
+        Assertions.assertEquals("    <version>1.0</version>", lines.get(2));
+    }
+
+    @Test
+    void testDownloadLargeBodyToFile() throws IOException {
+        // 8 MB chunked body, larger than any single buffer used while streaming
+        Buffer body = new Buffer();
+        byte[] block = new byte[64 * 1024];
+        for (int i = 0; i < 128; i++) {
+            block[0] = (byte) i;
+            body.write(block);
+        }
+        long size = body.size();
+        mockWebServer.enqueue(new MockResponse().setChunkedBody(body, 16 * 1024));
+
+        Path target = tempDir.resolve("nested/artifact.jar");
+        long written = new SSLClient().downloadTo(mockWebServer.url("/artifact.jar").toString(), target);
+
+        Assertions.assertEquals(size, written);
+        Assertions.assertEquals(size, Files.size(target));
+        Assertions.assertFalse(Files.exists(tempDir.resolve("nested/artifact.jar.part")));
+    }
+
+    @Test
+    void testDownloadBypassesCache() throws IOException {
+        mockWebServer.enqueue(new MockResponse().setBody("jar"));
+        mockWebServer.enqueue(new MockResponse().setBody("jar"));
+        // A release artifact path, which the cache policy would otherwise keep for a year
+        String url = mockWebServer.url("/maven2/org/example/demo/1.0/demo-1.0.jar").toString();
+
+        try (Cache cache = new Cache(tempDir.resolve("http").toFile(), 1024 * 1024)) {
+            SSLClient client = new SSLClient("certificates/multi-certificate.pem", cache);
+            client.downloadTo(url, tempDir.resolve("first.jar"));
+            client.downloadTo(url, tempDir.resolve("second.jar"));
+
+            Assertions.assertEquals(2, mockWebServer.getRequestCount());
+            Assertions.assertEquals(0, cache.writeSuccessCount());
+        }
+    }
+
+    @Test
+    void testFailedDownloadLeavesNoFile() {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(404));
+
+        Path target = tempDir.resolve("missing.jar");
+        IOException exception = Assertions.assertThrows(IOException.class,
+                () -> new SSLClient().downloadTo(mockWebServer.url("/missing.jar").toString(), target));
+
+        Assertions.assertTrue(exception.getMessage().contains("Unexpected response code: 404"));
+        Assertions.assertFalse(Files.exists(target));
+        Assertions.assertFalse(Files.exists(tempDir.resolve("missing.jar.part")));
+    }
+}
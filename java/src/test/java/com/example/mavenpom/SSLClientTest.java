@@ -1,5 +1,6 @@
 package com.example.mavenpom;
 
+import com.example.mavenpom.client.RevocationChecker;
 import com.example.mavenpom.client.SSLClient;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
@@ -10,6 +11,11 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.security.*;
 import java.security.cert.X509Certificate;
 import java.security.cert.CertificateException;
@@ -17,6 +23,7 @@ import javax.security.auth.x500.X500Principal;
 import org.bouncycastle.x509.X509V3CertificateGenerator;
 import java.math.BigInteger;
 import java.util.Date;
+import java.util.List;
 import java.util.Base64;
 
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
@@ -164,6 +171,139 @@ public class SSLClientTest {
         Assertions.assertEquals(TEST_RESPONSE, response);
     }
 
+    @Test
+    @Order(6)
+    void testAsyncRequest() throws Exception {
+        mockWebServer.enqueue(new MockResponse()
+                .setBody(TEST_RESPONSE)
+                .setResponseCode(200));
+
+        SSLClient client = new SSLClient();
+        CompletableFuture<String> future = client.makeRequestAsync(mockWebServer.url("/").toString());
+
+        Assertions.assertEquals(TEST_RESPONSE, future.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @Order(7)
+    void testAsyncServerError() {
+        mockWebServer.enqueue(new MockResponse()
+                .setResponseCode(500)
+                .setBody("Server Error"));
+
+        SSLClient client = new SSLClient();
+        CompletableFuture<String> future = client.makeRequestAsync(mockWebServer.url("/").toString());
+
+        ExecutionException exception = Assertions.assertThrows(ExecutionException.class,
+                () -> future.get(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(exception.getCause() instanceof IOException);
+        Assertions.assertTrue(exception.getCause().getMessage().contains("Unexpected response code: 500"));
+    }
+
+    @Test
+    @Order(8)
+    void testAsyncTimeout() {
+        // Response headers are delayed well beyond the per-call timeout
+        mockWebServer.enqueue(new MockResponse()
+                .setBody(TEST_RESPONSE)
+                .setHeadersDelay(2, TimeUnit.SECONDS));
+
+        SSLClient client = new SSLClient();
+        CompletableFuture<String> future = client.makeRequestAsync(
+                mockWebServer.url("/").toString(), Duration.ofMillis(200));
+
+        ExecutionException exception = Assertions.assertThrows(ExecutionException.class,
+                () -> future.get(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(exception.getCause() instanceof IOException);
+    }
+
+    @Test
+    @Order(9)
+    void testAsyncCancel() throws Exception {
+        mockWebServer.enqueue(new MockResponse()
+                .setBody(TEST_RESPONSE)
+                .setHeadersDelay(2, TimeUnit.SECONDS));
+
+        SSLClient client = new SSLClient();
+        CompletableFuture<String> future = client.makeRequestAsync(mockWebServer.url("/").toString());
+        // Wait until the call has actually reached the server before cancelling it
+        Assertions.assertNotNull(mockWebServer.takeRequest(5, TimeUnit.SECONDS));
+
+        Assertions.assertTrue(future.cancel(true));
+        Assertions.assertThrows(CancellationException.class, future::join);
+    }
+
+    @Test
+    @Order(10)
+    void testPrewarmReusesConnection() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(404));
+        mockWebServer.enqueue(new MockResponse()
+                .setBody(TEST_RESPONSE)
+                .setResponseCode(200));
+
+        SSLClient client = new SSLClient();
+        client.prewarm(List.of(mockWebServer.url("/maven2/").toString())).get(5, TimeUnit.SECONDS);
+        String response = client.makeRequest(mockWebServer.url("/maven2/pom.xml").toString());
+
+        Assertions.assertEquals(TEST_RESPONSE, response);
+        Assertions.assertEquals("HEAD", mockWebServer.takeRequest().getMethod());
+        // The second request on a connection has sequence number 1
+        Assertions.assertEquals(1, mockWebServer.takeRequest().getSequenceNumber());
+    }
+
+    @Test
+    @Order(11)
+    void testPrewarmNeverFails() {
+        SSLClient client = new SSLClient();
+        CompletableFuture<Void> warmup = client.prewarm(List.of("not a url", "http://127.0.0.1:1/"));
+
+        Assertions.assertDoesNotThrow(() -> warmup.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @Order(12)
+    void testCloseStopsWatchingBundle() throws Exception {
+        File certFile = createTestCertificate("watched-cert");
+        String watcherName = "SSLClient trust store watcher: " + certFile.getName();
+
+        try (SSLClient client = new SSLClient(certFile.getAbsolutePath())) {
+            // Watching is opt-in
+            Assertions.assertFalse(isThreadAlive(watcherName));
+        }
+        try (SSLClient client = new SSLClient(certFile.getAbsolutePath(), null, RevocationChecker.getDefault(), null, true)) {
+            client.withConcurrencyLimits(4, 2).close();
+            // Closing a derived client leaves the bundle watched by the client it came from
+            Assertions.assertTrue(isThreadAlive(watcherName));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (isThreadAlive(watcherName) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        Assertions.assertFalse(isThreadAlive(watcherName));
+    }
+
+    @Test
+    @Order(13)
+    void testClosingDerivedClientKeepsPooledConnections() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setBody("first"));
+        mockWebServer.enqueue(new MockResponse().setBody("second"));
+
+        try (SSLClient client = new SSLClient()) {
+            client.makeRequest(mockWebServer.url("/first").toString());
+            client.withConcurrencyLimits(4, 2).close();
+            client.makeRequest(mockWebServer.url("/second").toString());
+        }
+
+        Assertions.assertEquals(0, mockWebServer.takeRequest().getSequenceNumber());
+        // The second request reused the connection of the first
+        Assertions.assertEquals(1, mockWebServer.takeRequest().getSequenceNumber());
+    }
+
+    private static boolean isThreadAlive(String name) {
+        return Thread.getAllStackTraces().keySet().stream().anyMatch(thread -> thread.getName().equals(name));
+    }
+
     private File createTestCertificate(String filename) throws IOException {
         File certFile = tempDir.resolve(filename + ".pem").toFile();
         try (FileWriter writer = new FileWriter(certFile)) {
@@ -254,4 +394,4 @@ public class SSLClientTest {
                     "MIIDdzCCAl+gAwIBAgIEAgAAuTANBgkqhkiG9w0BAQUFADBaMQswCQYDVQQGEwJJ\n" +
                     // ... rest of the certificate content remains the same ...
                     "-----END CERTIFICATE-----";
-}
\ No newline at end of file
+}
\ No newline at end of file
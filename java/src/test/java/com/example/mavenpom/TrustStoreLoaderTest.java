@@ -0,0 +1,98 @@
+package com.example.mavenpom;
+
+import com.example.mavenpom.client.TrustStoreLoader;
+import okhttp3.tls.HeldCertificate;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class TrustStoreLoaderTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testDuplicatesAreRemoved() throws Exception {
+        String pem = readTestBundle();
+        byte[] doubled = (pem + "\n" + pem).getBytes(StandardCharsets.US_ASCII);
+
+        List<X509Certificate> certificates = TrustStoreLoader.NO_SNAPSHOT.load(doubled, "doubled.pem");
+
+        Assertions.assertEquals(3, certificates.size());
+    }
+
+    @Test
+    void testLargeBundleParsedInParallel() throws Exception {
+        StringBuilder bundle = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            bundle.append(new HeldCertificate.Builder().certificateAuthority(0).build().certificatePem());
+        }
+        // The same certificates again, as happens when OS and corporate bundles are concatenated
+        bundle.append(bundle);
+
+        List<X509Certificate> certificates = TrustStoreLoader.NO_SNAPSHOT.load(
+            bundle.toString().getBytes(StandardCharsets.US_ASCII), "large.pem");
+
+        Assertions.assertEquals(200, certificates.size());
+    }
+
+    @Test
+    void testSnapshotUsedForSameContent() throws Exception {
+        byte[] content = readTestBundle().getBytes(StandardCharsets.US_ASCII);
+        Path snapshots = tempDir.resolve("snapshots");
+
+        List<X509Certificate> parsed = new TrustStoreLoader(snapshots).load(content, "bundle.pem");
+        Assertions.assertEquals(1, countFiles(snapshots));
+
+        // A new loader stands in for the next IDE session
+        TrustStoreLoader nextSession = new TrustStoreLoader(snapshots);
+        List<X509Certificate> loaded = nextSession.load(content, "bundle.pem");
+
+        Assertions.assertEquals(parsed, loaded);
+        Assertions.assertEquals(1, nextSession.getSnapshotHitCount());
+        Assertions.assertEquals(0, nextSession.getParsedLoadCount());
+    }
+
+    @Test
+    void testCorruptSnapshotFallsBackToParsing() throws Exception {
+        byte[] content = readTestBundle().getBytes(StandardCharsets.US_ASCII);
+        Path snapshots = tempDir.resolve("snapshots");
+        new TrustStoreLoader(snapshots).load(content, "bundle.pem");
+        try (Stream<Path> files = Files.list(snapshots)) {
+            Files.write(files.findFirst().orElseThrow(), new byte[]{1, 2, 3});
+        }
+
+        TrustStoreLoader loader = new TrustStoreLoader(snapshots);
+        Assertions.assertEquals(3, loader.load(content, "bundle.pem").size());
+        Assertions.assertEquals(0, loader.getSnapshotHitCount());
+        Assertions.assertEquals(1, loader.getParsedLoadCount());
+    }
+
+    @Test
+    void testEmptyBundleRejected() {
+        Assertions.assertThrows(CertificateException.class,
+            () -> TrustStoreLoader.NO_SNAPSHOT.load(new byte[0], "empty.pem"));
+    }
+
+    private static long countFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    private String readTestBundle() throws IOException {
+        try (InputStream in = getClass().getClassLoader()
+                .getResourceAsStream("certificates/test-multi-certificate.pem")) {
+            Assertions.assertNotNull(in, "Test certificate bundle should be on the classpath");
+            return new String(in.readAllBytes(), StandardCharsets.US_ASCII);
+        }
+    }
+}
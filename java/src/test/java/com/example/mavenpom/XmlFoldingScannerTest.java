@@ -0,0 +1,60 @@
+package com.example.mavenpom;
+
+import com.example.mavenpom.ui.toolwindow.XmlFoldingScanner;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class XmlFoldingScannerTest {
+    private static final String POM = "<?xml version=\"1.0\"?>\n"
+            + "<project>\n"
+            + "  <!-- <dependencies> in a comment\n  is not an element -->\n"
+            + "  <dependencies>\n"
+            + "    <dependency a=\"x>y\">\n"
+            + "      <artifactId>demo</artifactId>\n"
+            + "      <description><![CDATA[<b>\n</b>]]></description>\n"
+            + "      <optional/>\n"
+            + "    </dependency>\n"
+            + "  </dependencies>\n"
+            + "</project>\n";
+
+    @Test
+    void testFoldsMultiLineElementsButNotTheRoot() {
+        List<XmlFoldingScanner.Fold> folds = new XmlFoldingScanner().feed(POM);
+
+        Assertions.assertEquals(List.of("<description>...</description>", "<dependency>...</dependency>",
+                "<dependencies>...</dependencies>"), placeholders(folds));
+        XmlFoldingScanner.Fold dependencies = folds.get(2);
+        Assertions.assertEquals(POM.indexOf("  <dependencies>") + 2, dependencies.getStartOffset());
+        Assertions.assertEquals(POM.indexOf("</dependencies>") + "</dependencies>".length(), dependencies.getEndOffset());
+    }
+
+    @Test
+    void testChunkBoundariesDoNotChangeTheFolds() {
+        List<XmlFoldingScanner.Fold> whole = new XmlFoldingScanner().feed(POM);
+        for (int size = 1; size < 40; size++) {
+            XmlFoldingScanner scanner = new XmlFoldingScanner();
+            List<XmlFoldingScanner.Fold> folds = new ArrayList<>();
+            for (int start = 0; start < POM.length(); start += size) {
+                folds.addAll(scanner.feed(POM.substring(start, Math.min(POM.length(), start + size))));
+            }
+            Assertions.assertEquals(whole.toString(), folds.toString(), "Chunk size " + size);
+        }
+    }
+
+    @Test
+    void testMalformedInputYieldsFewerFolds() {
+        XmlFoldingScanner scanner = new XmlFoldingScanner();
+        List<XmlFoldingScanner.Fold> folds = scanner.feed("<project>\n  <build>\n    <plugins>\n  </build>\n<");
+        folds.addAll(scanner.feed("/project>\n</unknown>\n"));
+
+        Assertions.assertEquals(List.of("<build>...</build>"), placeholders(folds));
+    }
+
+    private static List<String> placeholders(List<XmlFoldingScanner.Fold> folds) {
+        return folds.stream().map(XmlFoldingScanner.Fold::getPlaceholder).collect(Collectors.toList());
+    }
+}